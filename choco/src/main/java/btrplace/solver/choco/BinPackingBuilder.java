@@ -17,13 +17,16 @@
 
 package btrplace.solver.choco;
 
+import btrplace.model.Mapping;
+import btrplace.model.Node;
+import btrplace.solver.choco.actionModel.NodeActionModel;
+import btrplace.solver.choco.chocoUtil.BinPacking;
 import btrplace.solver.choco.chocoUtil.LightBinPacking;
 import choco.cp.solver.CPSolver;
 import choco.kernel.solver.ContradictionException;
 import choco.kernel.solver.variables.integer.IntDomainVar;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
  * Builder to create {@link btrplace.solver.choco.chocoUtil.LightBinPacking} constraints
@@ -32,6 +35,11 @@ import java.util.List;
  */
 public class BinPackingBuilder {
 
+    /**
+     * The approximate memory cost in bits of a candidate pair stored in a sparse set.
+     */
+    public static final int SPARSE_PAIR_COST = 96;
+
     private ReconfigurationProblem rp;
 
     private List<IntDomainVar[]> loads;
@@ -42,6 +50,14 @@ public class BinPackingBuilder {
 
     private List<String> names;
 
+    private boolean itemFitFiltering = false;
+
+    private boolean knapsackFiltering = false;
+
+    private boolean symmetryBreaking = false;
+
+    private Set<Node> distinguished;
+
     /**
      * Make a new builder.
      *
@@ -53,7 +69,7 @@ public class BinPackingBuilder {
         bins = new ArrayList<>();
         sizes = new ArrayList<>();
         names = new ArrayList<>();
-
+        distinguished = new HashSet<>();
     }
 
     /**
@@ -70,6 +86,140 @@ public class BinPackingBuilder {
         this.names.add(name);
     }
 
+    /**
+     * State if the constraint must reason on all the resources together: a node is removed from the candidates
+     * of a VM when the space left by the VMs already placed there cannot host the VM on every resource at once, and
+     * the constraint fails when the big VMs that cannot share a node outnumber the nodes that can host them.
+     *
+     * @param b {@code true} to enable the filtering
+     * @see LightBinPacking#setItemFitFiltering(boolean)
+     */
+    public void setItemFitFiltering(boolean b) {
+        itemFitFiltering = b;
+    }
+
+    /**
+     * Indicates if the constraint will use the item-fit filtering.
+     *
+     * @return {@code true} iff the filtering is enabled
+     */
+    public boolean isItemFitFiltering() {
+        return itemFitFiltering;
+    }
+
+    /**
+     * State if a {@link BinPacking} constraint must be posted for each dimension
+     * to perform a knapsack filtering on each bin.
+     *
+     * @param b {@code true} to enable the filtering
+     */
+    public void setKnapsackFiltering(boolean b) {
+        knapsackFiltering = b;
+    }
+
+    /**
+     * Indicates if the knapsack filtering is enabled.
+     *
+     * @return {@code true} iff the filtering is enabled
+     */
+    public boolean isKnapsackFiltering() {
+        return knapsackFiltering;
+    }
+
+    /**
+     * Indicates if the knapsack filtering must store the candidate items of each bin using sparse sets
+     * rather than bitsets. A sparse set costs about {@link #SPARSE_PAIR_COST} bits per initial (item, bin) candidate
+     * pair while a bitset costs 1 bit per (item, bin) pair. So the sparse sets are only used when they are smaller,
+     * i.e. when the items can initially be assigned to a small fraction of the bins.
+     *
+     * @param bs     the assignment variable of each item
+     * @param nbBins the number of bins
+     * @return {@code true} iff the sparse sets use less memory than the bitsets
+     */
+    public static boolean useSparseCandidates(IntDomainVar[] bs, int nbBins) {
+        long nbPairs = 0;
+        for (IntDomainVar b : bs) {
+            nbPairs += b.getDomainSize();
+        }
+        return nbPairs * SPARSE_PAIR_COST < (long) bs.length * nbBins;
+    }
+
+    /**
+     * State if the symmetries among interchangeable nodes must be broken.
+     * Nodes are interchangeable when they are initially empty, in the same state, have the
+     * same capacities on every dimension and are not distinguished by any constraint.
+     * For each class of interchangeable nodes, their load on the first dimension
+     * is then ordered decreasingly.
+     *
+     * @param b {@code true} to break the symmetries
+     * @see #distinguish(java.util.Collection)
+     */
+    public void setSymmetryBreaking(boolean b) {
+        symmetryBreaking = b;
+    }
+
+    /**
+     * Indicates if the symmetries among interchangeable nodes are broken.
+     *
+     * @return {@code true} iff the symmetries are broken
+     */
+    public boolean isSymmetryBreaking() {
+        return symmetryBreaking;
+    }
+
+    /**
+     * Declare nodes that must not be considered as interchangeable,
+     * typically because they are involved in a constraint.
+     *
+     * @param ns the nodes to distinguish
+     */
+    public void distinguish(Collection<Node> ns) {
+        distinguished.addAll(ns);
+    }
+
+    /**
+     * Get the classes of interchangeable nodes.
+     * Only classes having at least 2 nodes are returned.
+     *
+     * @return a list of classes, each class being the node indexes in increasing order
+     */
+    public List<int[]> getInterchangeableNodes() {
+        Map<List<Integer>, List<Integer>> classes = new LinkedHashMap<>();
+        Mapping map = rp.getSourceModel().getMapping();
+        for (int i = 0; i < rp.getNodes().length; i++) {
+            Node n = rp.getNode(i);
+            if (distinguished.contains(n) || !map.getRunningVMs(n).isEmpty() || !map.getSleepingVMs(n).isEmpty()) {
+                continue;
+            }
+            NodeActionModel a = rp.getNodeAction(n);
+            List<Integer> key = new ArrayList<>(4 + 2 * loads.size());
+            key.add(map.isOnline(n) ? 1 : 0);
+            key.add(a.getDuration().getInf());
+            key.add(a.getDuration().getSup());
+            for (IntDomainVar[] l : loads) {
+                key.add(l[i].getInf());
+                key.add(l[i].getSup());
+            }
+            List<Integer> cl = classes.get(key);
+            if (cl == null) {
+                cl = new ArrayList<>();
+                classes.put(key, cl);
+            }
+            cl.add(i);
+        }
+        List<int[]> res = new ArrayList<>();
+        for (List<Integer> cl : classes.values()) {
+            if (cl.size() > 1) {
+                int[] idx = new int[cl.size()];
+                for (int x = 0; x < idx.length; x++) {
+                    idx[x] = cl.get(x);
+                }
+                res.add(idx);
+            }
+        }
+        return res;
+    }
+
     /**
      * Build the constraint.
      */
@@ -86,7 +236,23 @@ public class BinPackingBuilder {
 
         }
         //TODO: Items must always be in the same order.
-        solver.post(new LightBinPacking(names.toArray(new String[names.size()]), solver.getEnvironment(), loads.toArray(new IntDomainVar[loads.size()][]), iSizes, bins.get(0)));
+        LightBinPacking bp = new LightBinPacking(names.toArray(new String[names.size()]), solver.getEnvironment(), loads.toArray(new IntDomainVar[loads.size()][]), iSizes, bins.get(0));
+        bp.setItemFitFiltering(itemFitFiltering);
+        solver.post(bp);
+        if (knapsackFiltering) {
+            for (int i = 0; i < loads.size(); i++) {
+                boolean sparse = useSparseCandidates(bins.get(i), loads.get(i).length);
+                solver.post(new BinPacking(solver.getEnvironment(), loads.get(i), sizes.get(i), bins.get(i), sparse));
+            }
+        }
+        if (symmetryBreaking) {
+            IntDomainVar[] l = loads.get(0);
+            for (int[] cl : getInterchangeableNodes()) {
+                for (int x = 0; x < cl.length - 1; x++) {
+                    solver.post(solver.geq(l[cl[x]], l[cl[x + 1]]));
+                }
+            }
+        }
 
     }
 }
@@ -17,8 +17,12 @@
 
 package btrplace.solver.choco;
 
+import btrplace.model.Mapping;
+import btrplace.plan.ReconfigurationPlan;
 import btrplace.solver.choco.constraint.ConstraintMapper;
 import btrplace.solver.choco.durationEvaluator.DurationEvaluators;
+import btrplace.solver.choco.lns.Neighbourhood;
+import btrplace.solver.choco.runner.WorkersPool;
 import btrplace.solver.choco.view.ModelViewMapper;
 
 /**
@@ -172,4 +176,151 @@ public interface ChocoReconfigurationAlgorithmParams {
      * @see #setVerbosity(int)
      */
     int getVerbosity();
+
+    /**
+     * Set the pool of workers that is used by the solvers that
+     * solve sub-problems in parallel. A same pool can then be re-used
+     * among successive solving processes.
+     *
+     * @param p the pool to use. {@code null} to let each solving process
+     *          create its own workers
+     * @return the current instance
+     */
+    ChocoReconfigurationAlgorithmParams setWorkersPool(WorkersPool p);
+
+    /**
+     * Get the pool of workers that is used by the solvers that
+     * solve sub-problems in parallel.
+     *
+     * @return the pool. {@code null} if no pool has been set
+     */
+    WorkersPool getWorkersPool();
+
+    /**
+     * Set a placement the solver should try first.
+     * Running VMs are then preferably placed on the node they
+     * are running on in the hint. This speeds up the computation of the first
+     * solution when the instance is close to the one that provided the hint.
+     *
+     * @param m the mapping to consider. {@code null} to remove the hint
+     * @return the current instance
+     */
+    ChocoReconfigurationAlgorithmParams setPlacementHint(Mapping m);
+
+    /**
+     * Set the placement the solver should try first from a previous solution.
+     * The hint is the mapping resulting from the application of the plan.
+     *
+     * @param p the plan to consider. {@code null} to remove the hint
+     * @return the current instance
+     * @see #setPlacementHint(Mapping)
+     */
+    ChocoReconfigurationAlgorithmParams setPlacementHintFromPlan(ReconfigurationPlan p);
+
+    /**
+     * Get the placement the solver should try first.
+     *
+     * @return the mapping. {@code null} if no hint has been set
+     */
+    Mapping getPlacementHint();
+
+    /**
+     * State if the solver must break the symmetries among the interchangeable nodes.
+     * Nodes are interchangeable when they are initially empty, in the same state,
+     * have the same capacities and are not involved in any constraint.
+     *
+     * @param b {@code true} to break the symmetries
+     * @return the current instance
+     */
+    ChocoReconfigurationAlgorithmParams doSymmetryBreaking(boolean b);
+
+    /**
+     * Indicates if the solver breaks the symmetries among the interchangeable nodes.
+     *
+     * @return {@code true} iff the symmetries are broken
+     */
+    boolean doSymmetryBreaking();
+
+    /**
+     * State if the scheduling of the slices must be checked while some VMs are not placed.
+     * This stronger filtering detects the overloaded nodes and reduces the start moments of the actions
+     * earlier in the search, at the price of more propagation.
+     *
+     * @param b {@code true} to enable the eager filtering
+     * @return the current instance
+     */
+    ChocoReconfigurationAlgorithmParams doEagerScheduling(boolean b);
+
+    /**
+     * Indicates if the scheduling of the slices is checked while some VMs are not placed.
+     *
+     * @return {@code true} iff the eager filtering is enabled
+     */
+    boolean doEagerScheduling();
+
+    /**
+     * Set the maximum number of solutions stored during the optimisation process.
+     * Only the last solutions are kept, so a capacity of {@code 1} only retains the best one,
+     * which is enough to build the plan. The solving statistics always report every solution.
+     *
+     * @param c the capacity. Any value lower than {@code 1} is considered as {@code 1}
+     * @return the current instance
+     */
+    ChocoReconfigurationAlgorithmParams setSolutionPoolCapacity(int c);
+
+    /**
+     * Get the maximum number of solutions stored during the optimisation process.
+     *
+     * @return a positive integer
+     */
+    int getSolutionPoolCapacity();
+
+    /**
+     * Set the neighbourhood to use to improve the solutions using a large neighbourhood search.
+     * Once a first solution is computed, the solver repeatedly releases a neighbourhood of VMs,
+     * keeps the other VMs on their host, and looks for a better solution.
+     * This only applies when the solver optimizes.
+     *
+     * @param n the neighbourhood to use. {@code null} to rely on a plain branch-and-bound
+     * @return the current instance
+     */
+    ChocoReconfigurationAlgorithmParams setNeighbourhood(Neighbourhood n);
+
+    /**
+     * Get the neighbourhood used to improve the solutions.
+     *
+     * @return the neighbourhood if the large neighbourhood search is enabled, {@code null} otherwise
+     */
+    Neighbourhood getNeighbourhood();
+
+    /**
+     * Set the maximum number of VMs to release at each iteration of the large neighbourhood search.
+     *
+     * @param s a positive number
+     * @return the current instance
+     */
+    ChocoReconfigurationAlgorithmParams setNeighbourhoodSize(int s);
+
+    /**
+     * Get the maximum number of VMs to release at each iteration of the large neighbourhood search.
+     *
+     * @return a positive number
+     */
+    int getNeighbourhoodSize();
+
+    /**
+     * Set the seed of the random generator used to select the neighbourhoods
+     * of the large neighbourhood search. Two runs with the same seed select the same neighbourhoods.
+     *
+     * @param seed the seed to use
+     * @return the current instance
+     */
+    ChocoReconfigurationAlgorithmParams setNeighbourhoodSeed(long seed);
+
+    /**
+     * Get the seed of the random generator used to select the neighbourhoods.
+     *
+     * @return the seed
+     */
+    long getNeighbourhoodSeed();
 }
@@ -18,6 +18,7 @@
 package btrplace.solver.choco;
 
 import btrplace.model.Instance;
+import btrplace.model.Mapping;
 import btrplace.model.Model;
 import btrplace.model.constraint.MinMTTR;
 import btrplace.model.constraint.OptConstraint;
@@ -26,9 +27,11 @@ import btrplace.plan.ReconfigurationPlan;
 import btrplace.solver.SolverException;
 import btrplace.solver.choco.constraint.ConstraintMapper;
 import btrplace.solver.choco.durationEvaluator.DurationEvaluators;
+import btrplace.solver.choco.lns.Neighbourhood;
 import btrplace.solver.choco.runner.InstanceResult;
 import btrplace.solver.choco.runner.InstanceSolver;
 import btrplace.solver.choco.runner.SolvingStatistics;
+import btrplace.solver.choco.runner.WorkersPool;
 import btrplace.solver.choco.runner.single.SingleRunner;
 import btrplace.solver.choco.view.ModelViewMapper;
 
@@ -180,4 +183,89 @@ public class DefaultChocoReconfigurationAlgorithm implements ChocoReconfiguratio
     public void setInstanceSolver(InstanceSolver p) {
         runner = p;
     }
+
+    @Override
+    public ChocoReconfigurationAlgorithmParams setWorkersPool(WorkersPool p) {
+        return params.setWorkersPool(p);
+    }
+
+    @Override
+    public WorkersPool getWorkersPool() {
+        return params.getWorkersPool();
+    }
+
+    @Override
+    public ChocoReconfigurationAlgorithmParams setPlacementHint(Mapping m) {
+        return params.setPlacementHint(m);
+    }
+
+    @Override
+    public ChocoReconfigurationAlgorithmParams setPlacementHintFromPlan(ReconfigurationPlan p) {
+        return params.setPlacementHintFromPlan(p);
+    }
+
+    @Override
+    public Mapping getPlacementHint() {
+        return params.getPlacementHint();
+    }
+
+    @Override
+    public ChocoReconfigurationAlgorithmParams doSymmetryBreaking(boolean b) {
+        return params.doSymmetryBreaking(b);
+    }
+
+    @Override
+    public boolean doSymmetryBreaking() {
+        return params.doSymmetryBreaking();
+    }
+
+    @Override
+    public ChocoReconfigurationAlgorithmParams doEagerScheduling(boolean b) {
+        return params.doEagerScheduling(b);
+    }
+
+    @Override
+    public boolean doEagerScheduling() {
+        return params.doEagerScheduling();
+    }
+
+    @Override
+    public ChocoReconfigurationAlgorithmParams setSolutionPoolCapacity(int c) {
+        return params.setSolutionPoolCapacity(c);
+    }
+
+    @Override
+    public int getSolutionPoolCapacity() {
+        return params.getSolutionPoolCapacity();
+    }
+
+    @Override
+    public ChocoReconfigurationAlgorithmParams setNeighbourhood(Neighbourhood n) {
+        return params.setNeighbourhood(n);
+    }
+
+    @Override
+    public Neighbourhood getNeighbourhood() {
+        return params.getNeighbourhood();
+    }
+
+    @Override
+    public ChocoReconfigurationAlgorithmParams setNeighbourhoodSize(int s) {
+        return params.setNeighbourhoodSize(s);
+    }
+
+    @Override
+    public int getNeighbourhoodSize() {
+        return params.getNeighbourhoodSize();
+    }
+
+    @Override
+    public ChocoReconfigurationAlgorithmParams setNeighbourhoodSeed(long seed) {
+        return params.setNeighbourhoodSeed(seed);
+    }
+
+    @Override
+    public long getNeighbourhoodSeed() {
+        return params.getNeighbourhoodSeed();
+    }
 }
@@ -17,8 +17,13 @@
 
 package btrplace.solver.choco;
 
+import btrplace.model.Mapping;
+import btrplace.model.Model;
+import btrplace.plan.ReconfigurationPlan;
 import btrplace.solver.choco.constraint.ConstraintMapper;
 import btrplace.solver.choco.durationEvaluator.DurationEvaluators;
+import btrplace.solver.choco.lns.Neighbourhood;
+import btrplace.solver.choco.runner.WorkersPool;
 import btrplace.solver.choco.view.ModelViewMapper;
 
 /**
@@ -49,6 +54,25 @@ public class DefaultChocoReconfigurationAlgorithmParams implements ChocoReconfig
 
     private int verbosityLevel;
 
+    private WorkersPool pool;
+
+    private Mapping hint;
+
+    private boolean symmetryBreaking = false;
+
+    private boolean eagerScheduling = false;
+
+    private int poolCapacity = DefaultReconfigurationProblem.DEFAULT_SOLUTION_POOL_CAPACITY;
+
+    private Neighbourhood neighbourhood;
+
+    /**
+     * 50 VMs released by default.
+     */
+    private int neighbourhoodSize = 50;
+
+    private long neighbourhoodSeed = 0;
+
     /**
      * New set of parameters.
      */
@@ -58,6 +82,32 @@ public class DefaultChocoReconfigurationAlgorithmParams implements ChocoReconfig
         viewMapper = ModelViewMapper.newBundle();
     }
 
+    /**
+     * New set of parameters that is a copy of existing parameters.
+     * The mappers and the duration evaluators are shared, not cloned.
+     *
+     * @param ps the parameters to copy
+     */
+    public DefaultChocoReconfigurationAlgorithmParams(ChocoReconfigurationAlgorithmParams ps) {
+        cstrMapper = ps.getConstraintMapper();
+        durationEvaluators = ps.getDurationEvaluators();
+        viewMapper = ps.getViewMapper();
+        optimize = ps.doOptimize();
+        timeLimit = ps.getTimeLimit();
+        repair = ps.doRepair();
+        useLabels = ps.areVariablesLabelled();
+        maxEnd = ps.getMaxEnd();
+        verbosityLevel = ps.getVerbosity();
+        pool = ps.getWorkersPool();
+        hint = ps.getPlacementHint();
+        symmetryBreaking = ps.doSymmetryBreaking();
+        eagerScheduling = ps.doEagerScheduling();
+        poolCapacity = ps.getSolutionPoolCapacity();
+        neighbourhood = ps.getNeighbourhood();
+        neighbourhoodSize = ps.getNeighbourhoodSize();
+        neighbourhoodSeed = ps.getNeighbourhoodSeed();
+    }
+
     @Override
     public ChocoReconfigurationAlgorithmParams doRepair(boolean b) {
         repair = b;
@@ -156,4 +206,103 @@ public class DefaultChocoReconfigurationAlgorithmParams implements ChocoReconfig
     public int getVerbosity() {
         return verbosityLevel;
     }
+
+    @Override
+    public ChocoReconfigurationAlgorithmParams setWorkersPool(WorkersPool p) {
+        pool = p;
+        return this;
+    }
+
+    @Override
+    public WorkersPool getWorkersPool() {
+        return pool;
+    }
+
+    @Override
+    public ChocoReconfigurationAlgorithmParams setPlacementHint(Mapping m) {
+        hint = m;
+        return this;
+    }
+
+    @Override
+    public ChocoReconfigurationAlgorithmParams setPlacementHintFromPlan(ReconfigurationPlan p) {
+        if (p == null) {
+            hint = null;
+        } else {
+            Model res = p.getResult();
+            hint = res == null ? null : res.getMapping();
+        }
+        return this;
+    }
+
+    @Override
+    public Mapping getPlacementHint() {
+        return hint;
+    }
+
+    @Override
+    public ChocoReconfigurationAlgorithmParams doSymmetryBreaking(boolean b) {
+        symmetryBreaking = b;
+        return this;
+    }
+
+    @Override
+    public boolean doSymmetryBreaking() {
+        return symmetryBreaking;
+    }
+
+    @Override
+    public ChocoReconfigurationAlgorithmParams doEagerScheduling(boolean b) {
+        eagerScheduling = b;
+        return this;
+    }
+
+    @Override
+    public boolean doEagerScheduling() {
+        return eagerScheduling;
+    }
+
+    @Override
+    public ChocoReconfigurationAlgorithmParams setSolutionPoolCapacity(int c) {
+        poolCapacity = Math.max(1, c);
+        return this;
+    }
+
+    @Override
+    public int getSolutionPoolCapacity() {
+        return poolCapacity;
+    }
+
+    @Override
+    public ChocoReconfigurationAlgorithmParams setNeighbourhood(Neighbourhood n) {
+        neighbourhood = n;
+        return this;
+    }
+
+    @Override
+    public Neighbourhood getNeighbourhood() {
+        return neighbourhood;
+    }
+
+    @Override
+    public ChocoReconfigurationAlgorithmParams setNeighbourhoodSize(int s) {
+        neighbourhoodSize = s;
+        return this;
+    }
+
+    @Override
+    public int getNeighbourhoodSize() {
+        return neighbourhoodSize;
+    }
+
+    @Override
+    public ChocoReconfigurationAlgorithmParams setNeighbourhoodSeed(long seed) {
+        neighbourhoodSeed = seed;
+        return this;
+    }
+
+    @Override
+    public long getNeighbourhoodSeed() {
+        return neighbourhoodSeed;
+    }
 }
@@ -27,20 +27,21 @@ import btrplace.plan.ReconfigurationPlan;
 import btrplace.solver.SolverException;
 import btrplace.solver.choco.actionModel.*;
 import btrplace.solver.choco.chocoUtil.AliasedCumulatives;
+import btrplace.solver.choco.chocoUtil.ObjectiveBound;
 import btrplace.solver.choco.durationEvaluator.DurationEvaluators;
+import btrplace.solver.choco.runner.SolutionStatistics;
 import btrplace.solver.choco.view.ChocoModelView;
 import btrplace.solver.choco.view.ModelViewMapper;
 import choco.cp.solver.CPSolver;
-import choco.cp.solver.search.BranchAndBound;
+import choco.cp.solver.constraints.global.BoundGccVar;
 import choco.cp.solver.search.integer.branching.AssignVar;
-import choco.cp.solver.search.integer.objective.IntObjectiveManager;
 import choco.cp.solver.search.integer.valselector.MinVal;
 import choco.cp.solver.search.integer.varselector.StaticVarOrder;
 import choco.cp.solver.search.set.StaticSetVarOrder;
 import choco.kernel.common.logging.ChocoLogging;
 import choco.kernel.solver.Configuration;
 import choco.kernel.solver.ContradictionException;
-import choco.kernel.solver.search.IObjectiveManager;
+import choco.kernel.solver.ResolutionPolicy;
 import choco.kernel.solver.variables.integer.IntDomainVar;
 import choco.kernel.solver.variables.set.SetVar;
 import gnu.trove.list.array.TIntArrayList;
@@ -48,7 +49,6 @@ import gnu.trove.map.hash.TObjectIntHashMap;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.lang.reflect.Field;
 import java.util.*;
 
 
@@ -70,6 +70,11 @@ public class DefaultReconfigurationProblem implements ReconfigurationProblem {
 
     public static final double REAL_VALUE_PRECISION = 0.01;
 
+    /**
+     * By default, only the best solution computed during the optimisation process is stored.
+     */
+    public static final int DEFAULT_SOLUTION_POOL_CAPACITY = 1;
+
     private Model model;
 
     private CPSolver solver;
@@ -107,6 +112,34 @@ public class DefaultReconfigurationProblem implements ReconfigurationProblem {
 
     private ObjectiveAlterer objAlterer = null;
 
+    private ObjectiveBound objBound;
+
+    /**
+     * The world index before the first search.
+     */
+    private int searchWorld;
+
+    private boolean optimizing;
+
+    private List<SolutionStatistics> solutions = new ArrayList<>();
+
+    /**
+     * The plan of the best solution, when an ObjectiveAlterer is used.
+     */
+    private ReconfigurationPlan incumbent;
+
+    private long searchTime;
+
+    private int nbSearchNodes;
+
+    private int nbSearchBacktracks;
+
+    private boolean searchLimitReached;
+
+    private Mapping hint = null;
+
+    private int poolCapacity = DEFAULT_SOLUTION_POOL_CAPACITY;
+
     private ModelViewMapper viewMapper;
 
     /**
@@ -197,12 +230,12 @@ public class DefaultReconfigurationProblem implements ReconfigurationProblem {
             solver.setTimeLimit(timeLimit * 1000);
         }
 
-        if (objAlterer == null) {
-            solver.getConfiguration().putBoolean(choco.kernel.solver.Configuration.STOP_AT_FIRST_SOLUTION, !optimize);
-        } else if (optimize) {
-            solver.getConfiguration().putBoolean(choco.kernel.solver.Configuration.STOP_AT_FIRST_SOLUTION, true);
+        //The search is stopped at each solution to record it, then resumed when optimizing
+        solver.getConfiguration().putBoolean(choco.kernel.solver.Configuration.STOP_AT_FIRST_SOLUTION, true);
+        if (objAlterer != null && optimize) {
+            postObjectiveBound();
         }
-        solver.getConfiguration().putInt(Configuration.SOLUTION_POOL_CAPACITY, Integer.MAX_VALUE);
+        solver.getConfiguration().putInt(Configuration.SOLUTION_POOL_CAPACITY, poolCapacity);
         solver.generateSearchStrategy();
 
         appendNaiveBranchHeuristic();
@@ -213,14 +246,33 @@ public class DefaultReconfigurationProblem implements ReconfigurationProblem {
         int nbCstes = solver.getNbConstants();
         int nbCstrs = solver.getNbConstraints();
         getLogger().debug("{} constraints; Variables: {} int(s), {} bool(s), {} constant(s).", nbCstrs, nbIntVars, nbBoolVars, nbCstes);
-        if (objAlterer == null) {
-            solver.launch();
-        } else if (optimize) {
-            launchWithAlterer();
-        }
+        searchWorld = solver.getEnvironment().getWorldIndex();
+        optimizing = optimize;
+        launch(timeLimit);
 
         ChocoLogging.flushLogs();
-        return makeResultingPlan();
+        return incumbent != null ? incumbent : makeResultingPlan();
+    }
+
+    @Override
+    public void resetSearch() {
+        solver.worldPopUntil(searchWorld);
+        solver.worldPush();
+    }
+
+    @Override
+    public ReconfigurationPlan solveAgain(int timeLimit) throws SolverException {
+        try {
+            solver.propagate();
+        } catch (ContradictionException ex) {
+            return null;
+        }
+        if (timeLimit > 0) {
+            solver.setTimeLimit(timeLimit * 1000);
+        }
+        launch(timeLimit);
+        ChocoLogging.flushLogs();
+        return incumbent != null ? incumbent : makeResultingPlan();
     }
 
     private ReconfigurationPlan makeResultingPlan() throws SolverException {
@@ -231,7 +283,7 @@ public class DefaultReconfigurationProblem implements ReconfigurationProblem {
             return null;
         } else if (solver.isFeasible() == null) {
             //We don't know if the CSP has a solution
-            throw new SolverException(model, "Unable to state about the problem feasibility.");
+            throw new UnknownFeasibilityException(model, "Unable to state about the problem feasibility.");
         }
 
         DefaultReconfigurationPlan plan = new DefaultReconfigurationPlan(model);
@@ -273,34 +325,119 @@ public class DefaultReconfigurationProblem implements ReconfigurationProblem {
     }
 
     /**
-     * Launch the solver with a known ObjectiveAlterer.
-     * Each time a solution has been computed, the alterer is called to set a new bound for the objective
+     * Launch the solver.
+     * The search stops at each solution to record its statistics. When an ObjectiveAlterer is used,
+     * it is then called to set a new bound for the objective.
+     * When optimizing, the search then continues from the current state, without being relaunched.
+     * <p/>
+     * Once the search proves there is no solution satisfying the bound, the alterer may relax it.
+     * The search is then relaunched from its initial state, within the remaining time.
+     * As the variables no longer hold the best solution, its plan is built when it is computed.
      *
-     * @throws SolverException if an error occurred while trying to use the alterer
+     * @param timeLimit the time limit in seconds. {@code 0} for no limit
+     * @throws SolverException if an error occurred while building a plan
      */
-    private void launchWithAlterer() throws SolverException {
-        BranchAndBound bb = (BranchAndBound) solver.getSearchStrategy();
-        IObjectiveManager obj = bb.getObjectiveManager();
-        Field f;
-        try {
-            f = IntObjectiveManager.class.getDeclaredField("targetBound");
-            f.setAccessible(true);
-        } catch (Exception e) {
-            throw new SolverException(model, "Unable to inject the alterer: " + e.getMessage(), e);
-        }
-
-        solver.launch();
-        if (solver.isFeasible() == Boolean.TRUE) {
-            do {
-                int objVal = solver.getObjectiveValue().intValue();
-                int newBound = objAlterer.tryNewValue(objVal);
-                try {
-                    f.set(obj, newBound);
-                } catch (Exception e) {
-                    throw new SolverException(model, "Unable to set the new target bound " + newBound + " for the objective " + solver.getObjective().getName() + ": " + e.getMessage(), e);
+    private void launch(int timeLimit) throws SolverException {
+        solutions.clear();
+        incumbent = null;
+        searchTime = 0;
+        nbSearchNodes = 0;
+        nbSearchBacktracks = 0;
+        searchLimitReached = false;
+        int w = solver.getEnvironment().getWorldIndex();
+        //The last bound that is proved to have no solution
+        Integer unreachable = null;
+        boolean relaunch;
+        do {
+            relaunch = false;
+            boolean proved = false;
+            solver.launch();
+            if (solver.isFeasible() == Boolean.TRUE) {
+                do {
+                    if (solver.getObjective() == null) {
+                        solutions.add(new SolutionStatistics(nbSearchNodes + solver.getNodeCount(),
+                                nbSearchBacktracks + solver.getBackTrackCount(),
+                                searchTime + solver.getTimeCount()));
+                    } else {
+                        int objVal = solver.getObjectiveValue().intValue();
+                        solutions.add(new SolutionStatistics(nbSearchNodes + solver.getNodeCount(),
+                                nbSearchBacktracks + solver.getBackTrackCount(),
+                                searchTime + solver.getTimeCount(),
+                                objVal));
+                        if (objBound != null) {
+                            incumbent = makeResultingPlan();
+                            int b = objAlterer.tryNewValue(objVal);
+                            if (unreachable != null && (objBound.isMinimizing() ? b <= unreachable : b >= unreachable)) {
+                                //The bound is already known to have no solution
+                                proved = true;
+                                break;
+                            }
+                            objBound.tighten(b);
+                        }
+                    }
+                } while (optimizing && solver.nextSolution() == Boolean.TRUE);
+            }
+            searchTime += solver.getTimeCount();
+            nbSearchNodes += solver.getNodeCount();
+            nbSearchBacktracks += solver.getBackTrackCount();
+            searchLimitReached |= solver.isEncounteredLimit();
+            if (optimizing && incumbent != null && !proved && !solver.isEncounteredLimit()) {
+                //The search is exhausted, so no solution satisfies the current bound
+                unreachable = objBound.getBound();
+                int remaining = timeLimit * 1000 - (int) searchTime;
+                if ((timeLimit <= 0 || remaining > 0) && objBound.relax(objAlterer.relaxValue(unreachable))) {
+                    solver.worldPopUntil(w);
+                    solver.worldPush();
+                    if (timeLimit > 0) {
+                        solver.setTimeLimit(remaining);
+                    }
+                    relaunch = true;
                 }
-            } while (solver.nextSolution() == Boolean.TRUE);
+            }
+        } while (relaunch);
+    }
+
+    @Override
+    public List<SolutionStatistics> getSolutionsStatistics() {
+        return solutions;
+    }
+
+    @Override
+    public long getSearchTime() {
+        return searchTime;
+    }
+
+    @Override
+    public int getNbSearchNodes() {
+        return nbSearchNodes;
+    }
+
+    @Override
+    public int getNbSearchBacktracks() {
+        return nbSearchBacktracks;
+    }
+
+    @Override
+    public boolean isSearchLimitReached() {
+        return searchLimitReached;
+    }
+
+    /**
+     * Post the constraint that bounds the objective with the values of the alterer.
+     * The direction of the bound depends on the resolution policy of the solver.
+     */
+    private void postObjectiveBound() {
+        IntDomainVar obj = (IntDomainVar) solver.getObjective();
+        boolean minimize = solver.getConfiguration().readEnum(Configuration.RESOLUTION_POLICY, ResolutionPolicy.class) == ResolutionPolicy.MINIMIZE;
+        List<IntDomainVar> others = new ArrayList<>(solver.getNbIntVars());
+        for (int i = 0; i < solver.getNbIntVars(); i++) {
+            IntDomainVar v = solver.getIntVarQuick(i);
+            if (v != obj) {
+                others.add(v);
+            }
         }
+        objBound = new ObjectiveBound(obj, others.toArray(new IntDomainVar[others.size()]), minimize);
+        solver.post(objBound);
     }
 
     private void addContinuousResourceCapacities() {
@@ -361,6 +498,10 @@ public class DefaultReconfigurationProblem implements ReconfigurationProblem {
             usages[i] = solver.makeConstantIntVar(1);
         }
         bpBuilder.add("vmsOnNodes", vmsCountOnNodes, usages, ds);
+        if (ds.length > 0 && nodes.length > 0) {
+            //A bound-consistent global cardinality to reason on all the counters at once
+            solver.post(new BoundGccVar(ds, vmsCountOnNodes, 0, nodes.length - 1, solver.getEnvironment()));
+        }
     }
 
     private void fillElements() {
@@ -652,6 +793,26 @@ public class DefaultReconfigurationProblem implements ReconfigurationProblem {
         objAlterer = a;
     }
 
+    @Override
+    public Mapping getPlacementHint() {
+        return hint;
+    }
+
+    @Override
+    public void setPlacementHint(Mapping m) {
+        hint = m;
+    }
+
+    @Override
+    public int getSolutionPoolCapacity() {
+        return poolCapacity;
+    }
+
+    @Override
+    public void setSolutionPoolCapacity(int c) {
+        poolCapacity = Math.max(1, c);
+    }
+
     @Override
     public NodeActionModel[] getNodeActions() {
         return nodeActions;
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco;
+
+import choco.kernel.solver.Configuration;
+import choco.kernel.solver.ResolutionPolicy;
+import choco.kernel.solver.variables.integer.IntDomainVar;
+
+/**
+ * An alterer that performs a dichotomic search over the objective values.
+ * Once a solution is computed, the next one must have an objective value at most
+ * in the middle of the incumbent value and the best value that is not proved unreachable.
+ * When the solver proves there is no such solution, the values up to the middle are
+ * marked unreachable and the bound is relaxed to the middle of the remaining interval.
+ * The process ends once the interval is empty, so the incumbent solution is optimal
+ * unless the search was interrupted by a limit.
+ * <p/>
+ * The objective variable and the resolution policy of the solver must be set
+ * before creating the alterer.
+ *
+ * @author Fabien Hermenier
+ */
+public class DichotomicAlterer extends ObjectiveAlterer {
+
+    private boolean minimize;
+
+    /**
+     * The best objective value that is not proved unreachable.
+     */
+    private int limit;
+
+    private int incumbent;
+
+    /**
+     * Make a new alterer on a given problem.
+     *
+     * @param p the reconfiguration problem to consider
+     */
+    public DichotomicAlterer(ReconfigurationProblem p) {
+        super(p);
+        minimize = p.getSolver().getConfiguration().readEnum(Configuration.RESOLUTION_POLICY, ResolutionPolicy.class) == ResolutionPolicy.MINIMIZE;
+        IntDomainVar obj = (IntDomainVar) getObjective();
+        limit = minimize ? obj.getInf() : obj.getSup();
+        incumbent = minimize ? obj.getSup() : obj.getInf();
+    }
+
+    /**
+     * Get the best objective value that is not proved unreachable.
+     *
+     * @return a value of the objective
+     */
+    public int getLimit() {
+        return limit;
+    }
+
+    @Override
+    public int tryNewValue(int currentValue) {
+        incumbent = currentValue;
+        return middle();
+    }
+
+    @Override
+    public int relaxValue(int failedBound) {
+        limit = minimize ? failedBound + 1 : failedBound - 1;
+        if (minimize ? limit >= incumbent : limit <= incumbent) {
+            //Every better value is unreachable
+            return failedBound;
+        }
+        return middle();
+    }
+
+    /**
+     * Get the middle of the values that are better than the incumbent and not proved unreachable.
+     * When there is no such value, the value next to the limit is returned as it is unreachable.
+     */
+    private int middle() {
+        if (minimize) {
+            if (limit >= incumbent) {
+                return limit - 1;
+            }
+            return limit + (incumbent - 1 - limit) / 2;
+        }
+        if (limit <= incumbent) {
+            return limit + 1;
+        }
+        return limit - (limit - incumbent - 1) / 2;
+    }
+}
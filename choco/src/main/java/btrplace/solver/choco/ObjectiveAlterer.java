@@ -60,6 +60,18 @@ public abstract class ObjectiveAlterer {
      */
     public abstract int tryNewValue(int currentValue);
 
+    /**
+     * Compute a looser bound once the solver proved there is no solution satisfying the
+     * last bound. The solver then restarts the search with the returned bound.
+     * By default, the bound is not relaxed and the optimisation process ends.
+     *
+     * @param failedBound the bound that has no solution
+     * @return the new bound to try. {@code failedBound} or a tighter value to stop the optimisation process
+     */
+    public int relaxValue(int failedBound) {
+        return failedBound;
+    }
+
     @Override
     public String toString() {
         return new StringBuilder("objectiveAlterer(").append(obj.getName()).append(')').toString();
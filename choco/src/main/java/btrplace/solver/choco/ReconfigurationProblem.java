@@ -17,6 +17,7 @@
 
 package btrplace.solver.choco;
 
+import btrplace.model.Mapping;
 import btrplace.model.Model;
 import btrplace.model.Node;
 import btrplace.model.VM;
@@ -25,6 +26,7 @@ import btrplace.solver.SolverException;
 import btrplace.solver.choco.actionModel.NodeActionModel;
 import btrplace.solver.choco.actionModel.VMActionModel;
 import btrplace.solver.choco.durationEvaluator.DurationEvaluators;
+import btrplace.solver.choco.runner.SolutionStatistics;
 import btrplace.solver.choco.view.ChocoModelView;
 import btrplace.solver.choco.view.ModelViewMapper;
 import choco.cp.solver.CPSolver;
@@ -32,6 +34,7 @@ import choco.kernel.solver.variables.integer.IntDomainVar;
 import org.slf4j.Logger;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Set;
 
 
@@ -206,6 +209,25 @@ public interface ReconfigurationProblem {
      */
     ReconfigurationPlan solve(int timeLimit, boolean optimize) throws SolverException;
 
+    /**
+     * Restore the solver to the state it had before the first search and save this state.
+     * The problem can then be restricted, for example by instantiating variables, before
+     * calling {@link #solveAgain(int)}. The restrictions are discarded at the next call.
+     * The problem must have been solved once using {@link #solve(int, boolean)}.
+     */
+    void resetSearch();
+
+    /**
+     * Solve again the RP, without building it again.
+     * The search stops at the first solution if it was the case for {@link #solve(int, boolean)}.
+     *
+     * @param timeLimit the timeout in second. Must be superior to 0 to be considered
+     * @return a plan if the solving process succeeded, {@code null} if the solver was not able to compute
+     *         a solution.
+     * @throws SolverException if an error occurs
+     */
+    ReconfigurationPlan solveAgain(int timeLimit) throws SolverException;
+
     /**
      * Get the CPSolver used to model this problem.
      *
@@ -370,6 +392,74 @@ public interface ReconfigurationProblem {
      */
     void setObjectiveAlterer(ObjectiveAlterer a);
 
+    /**
+     * Get the placement the heuristics should try first.
+     *
+     * @return the mapping if it was defined, {@code null} otherwise
+     */
+    Mapping getPlacementHint();
+
+    /**
+     * Set the placement the heuristics should try first.
+     *
+     * @param m the mapping to use. {@code null} for no hint
+     */
+    void setPlacementHint(Mapping m);
+
+    /**
+     * Get the maximum number of solutions stored by the solver during the optimisation process.
+     *
+     * @return a positive integer
+     */
+    int getSolutionPoolCapacity();
+
+    /**
+     * Set the maximum number of solutions stored by the solver during the optimisation process.
+     * Only the last solutions are kept. As every new solution improves the objective,
+     * a capacity of {@code 1} only retains the best solution, which is enough to build the plan.
+     *
+     * @param c the capacity. Any value lower than {@code 1} is considered as {@code 1}
+     */
+    void setSolutionPoolCapacity(int c);
+
+    /**
+     * Get the statistics of each solution computed during the last search.
+     * The statistics are recorded when each solution is found, so they do not depend on
+     * the capacity of the solution pool.
+     *
+     * @return a list of statistics, in the order the solutions were computed
+     */
+    List<SolutionStatistics> getSolutionsStatistics();
+
+    /**
+     * Get the time spent in the last search.
+     * When the search was relaunched to relax the objective bound, every launch is counted.
+     *
+     * @return a duration in milliseconds
+     */
+    long getSearchTime();
+
+    /**
+     * Get the number of nodes opened during the last search, over all its launches.
+     *
+     * @return a positive integer
+     */
+    int getNbSearchNodes();
+
+    /**
+     * Get the number of backtracks that occurred during the last search, over all its launches.
+     *
+     * @return a positive integer
+     */
+    int getNbSearchBacktracks();
+
+    /**
+     * Indicates if the last search was interrupted by a limit.
+     *
+     * @return {@code true} iff one of its launches encountered a limit
+     */
+    boolean isSearchLimitReached();
+
     /**
      * Create a clone of a given VM.
      * The clone will take the place of the VM by the end of the reconfiguration process.
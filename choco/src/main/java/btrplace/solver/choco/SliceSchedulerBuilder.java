@@ -40,6 +40,10 @@ public class SliceSchedulerBuilder extends SchedulingConstraintBuilder {
 
     private List<IntDomainVar[]> capacities;
 
+    private boolean eager = false;
+
+    private boolean incremental = true;
+
     /**
      * Make a new builder.
      *
@@ -63,6 +67,44 @@ public class SliceSchedulerBuilder extends SchedulingConstraintBuilder {
         dUsages.add(dUse);
     }
 
+    /**
+     * State if the resources must be checked while some slices are not placed.
+     *
+     * @param b {@code true} to enable the eager filtering
+     * @see TaskScheduler#setEagerFiltering(boolean)
+     */
+    public void setEagerFiltering(boolean b) {
+        eager = b;
+    }
+
+    /**
+     * Indicates if the resources are checked while some slices are not placed.
+     *
+     * @return {@code true} iff the eager filtering is enabled
+     */
+    public boolean isEagerFiltering() {
+        return eager;
+    }
+
+    /**
+     * State if only the resources that changed since the last propagation must be checked.
+     *
+     * @param b {@code true} to enable the incremental filtering
+     * @see TaskScheduler#setIncrementalFiltering(boolean)
+     */
+    public void setIncrementalFiltering(boolean b) {
+        incremental = b;
+    }
+
+    /**
+     * Indicates if only the resources that changed since the last propagation are checked.
+     *
+     * @return {@code true} iff the incremental filtering is enabled
+     */
+    public boolean isIncrementalFiltering() {
+        return incremental;
+    }
+
     /**
      * Build the constraint.
      *
@@ -101,13 +143,16 @@ public class SliceSchedulerBuilder extends SchedulingConstraintBuilder {
         symmetryBreakingForStayingVMs();
         IntDomainVar[] earlyStarts = ActionModelUtils.getHostingStarts(rp.getNodeActions());
         IntDomainVar[] lastEnd = ActionModelUtils.getHostingEnds(rp.getNodeActions());
-        return new TaskScheduler(s.getEnvironment(),
+        TaskScheduler ts = new TaskScheduler(s.getEnvironment(),
                 earlyStarts,
                 lastEnd,
                 capas,
                 cHosters, cUses, cEnds,
                 dHosters, dUses, dStarts,
                 associations);
+        ts.setEagerFiltering(eager);
+        ts.setIncrementalFiltering(incremental);
+        return ts;
     }
 
     private Boolean strictlyDecreasingOrUnchanged(VM vm) {
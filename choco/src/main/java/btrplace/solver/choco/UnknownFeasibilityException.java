@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco;
+
+import btrplace.model.Model;
+import btrplace.solver.SolverException;
+
+/**
+ * An exception to indicate the solver was not able to state
+ * about the feasibility of a problem. Typically, the time limit
+ * has been reached before the computation of any solution.
+ *
+ * @author Fabien Hermenier
+ */
+public class UnknownFeasibilityException extends SolverException {
+
+    /**
+     * Make a new exception.
+     *
+     * @param m   the model that lead to the exception
+     * @param msg the error message
+     */
+    public UnknownFeasibilityException(Model m, String msg) {
+        super(m, msg);
+    }
+}
@@ -23,7 +23,6 @@ import choco.kernel.memory.IStateInt;
 import choco.kernel.memory.IStateIntVector;
 import choco.kernel.solver.ContradictionException;
 import choco.kernel.solver.variables.integer.IntDomainVar;
-import gnu.trove.TIntIntHashMap;
 
 import java.util.Arrays;
 import java.util.BitSet;
@@ -38,6 +37,12 @@ public class AliasedCumulativesFiltering {
      */
     private BitSet out;
 
+    /**
+     * in[i] = true <=> the demanding slice i is in vIn.
+     * Re-computed at each propagation.
+     */
+    private BitSet in;
+
     /**
      * The moment the consuming slices ends. Same order as the hosting variables.
      */
@@ -52,7 +57,12 @@ public class AliasedCumulativesFiltering {
 
     private int[] startupFree;
 
-    private static final boolean DEBUG = true;
+    /**
+     * The usage at startup, per dimension.
+     */
+    private int[] startupUsage;
+
+    private static final boolean DEBUG = false;
 
     private int[] associations;
 
@@ -60,13 +70,15 @@ public class AliasedCumulativesFiltering {
 
     public static final int NO_ASSOCIATIONS = -1;
 
-    private int[] sortedMinProfile;
-
-    private TIntIntHashMap[] profilesMin;
-
-    private TIntIntHashMap[] profilesMax;
+    /**
+     * What is necessarily used on the resource.
+     */
+    private Profile profileMin;
 
-    private int[] sortedMaxProfile;
+    /**
+     * Maximum possible usage on the resource.
+     */
+    private Profile profileMax;
 
     /**
      * LB of the moment the last c-slice leaves.
@@ -106,17 +118,15 @@ public class AliasedCumulativesFiltering {
         this.dStarts = dStarts;
         this.vIn = vIn;
         this.out = outs;
+        this.in = new BitSet(dStarts.length);
         revAssociations = revAssocs;
 
         //The amount of free resources at startup
 
         startupFree = new int[nbDims];
-        profilesMax = new TIntIntHashMap[nbDims];
-        profilesMin = new TIntIntHashMap[nbDims];
+        startupUsage = new int[nbDims];
         for (int i = 0; i < capacities.length; i++) {
             startupFree[i] = capacities[i];
-            profilesMax[i] = new TIntIntHashMap();
-            profilesMin[i] = new TIntIntHashMap();
         }
 
         int lastInf = out.isEmpty() ? 0 : Integer.MAX_VALUE;
@@ -136,6 +146,14 @@ public class AliasedCumulativesFiltering {
                 lastSup = s;
             }
         }
+        for (int i = 0; i < capacities.length; i++) {
+            startupUsage[i] = capacities[i] - startupFree[i];
+        }
+        //At most one event at startup, 2 per consuming slice and 2 per demanding slice
+        int nbEvents = 1 + 2 * out.cardinality() + 2 * dStarts.length;
+        profileMin = new Profile(nbDims, nbEvents);
+        profileMax = new Profile(nbDims, nbEvents);
+
         this.lastCendInf = env.makeInt(lastInf);
         this.lastCendSup = env.makeInt(lastSup);
     }
@@ -151,33 +169,19 @@ public class AliasedCumulativesFiltering {
         return true;
     }
 
-    /**
-     * Translation for a relatives resources changes to an absolute free resources.
-     *
-     * @param changes       the map that indicates the free CPU variation
-     * @param sortedMoments the different moments sorted in ascending order
-     */
-    private static void toAbsoluteFreeResources(TIntIntHashMap changes, int[] sortedMoments) {
-        for (int i = 1; i < sortedMoments.length; i++) {
-            int t = sortedMoments[i];
-            int lastT = sortedMoments[i - 1];
-            int lastFree = changes.get(lastT);
-
-            changes.put(t, changes.get(t) + lastFree);
-        }
-    }
-
     public void computeProfiles() {
 
-        for (int i = 0; i < nbDims; i++) {
-            //Sur de ce qui est utilise sur la ressource
-            profilesMin[i].clear();
+        //Sur de ce qui est utilise sur la ressource
+        profileMin.reset();
+        //Maximum simultanee dans le pire des cas sur la ressource
+        profileMax.reset();
 
-            //Maximum simultanee dans le pire des cas sur la ressource
-            profilesMax[i].clear();
+        profileMin.add(0, startupUsage);
+        profileMax.add(0, startupUsage);
 
-            profilesMax[i].put(0, capacities[i] - startupFree[i]);
-            profilesMin[i].put(0, capacities[i] - startupFree[i]);
+        in.clear();
+        for (int x = 0; x < vIn.size(); x++) {
+            in.set(vIn.get(x));
         }
 
         int lastInf = out.isEmpty() ? 0 : Integer.MAX_VALUE;
@@ -185,38 +189,29 @@ public class AliasedCumulativesFiltering {
 
         for (int j = out.nextSetBit(0); j >= 0; j = out.nextSetBit(j + 1)) {
 
+            boolean increasing = associatedToDSliceOnCurrentNode(j) && increase(j, revAssociations[j]);
             int t = cEnds[j].getInf();
             if (t < lastInf) {
                 lastInf = t;
             }
 
-            if (associatedToDSliceOnCurrentNode(j) && increase(j, revAssociations[j])) {
+            if (increasing) {
                 if (DEBUG) {
                     ChocoLogging.getBranchingLogger().finest(cEnds[j].pretty() + " increasing");
                 }
-                for (int i = 0; i < nbDims; i++) {
-                    profilesMax[i].put(t, profilesMax[i].get(t) - cUsages[i][j]);
-                }
-
+                profileMax.add(t, cUsages, j, -1);
             } else {
-                for (int i = 0; i < nbDims; i++) {
-                    profilesMin[i].put(t, profilesMin[i].get(t) - cUsages[i][j]);
-                }
-
+                profileMin.add(t, cUsages, j, -1);
             }
 
             t = cEnds[j].getSup();
             if (t > lastSup) {
                 lastSup = t;
             }
-            if (associatedToDSliceOnCurrentNode(j) && increase(j, revAssociations[j])) {
-                for (int i = 0; i < nbDims; i++) {
-                    profilesMin[i].put(t, profilesMin[i].get(t) - cUsages[i][j]);
-                }
+            if (increasing) {
+                profileMin.add(t, cUsages, j, -1);
             } else {
-                for (int i = 0; i < nbDims; i++) {
-                    profilesMax[i].put(t, profilesMax[i].get(t) - cUsages[i][j]);
-                }
+                profileMax.add(t, cUsages, j, -1);
             }
         }
         if (out.isEmpty()) {
@@ -227,32 +222,14 @@ public class AliasedCumulativesFiltering {
         lastCendInf.set(lastInf);
         lastCendSup.set(lastSup);
 
-        for (int i = 0; i < nbDims; i++) {
-            for (int x = 0; x < vIn.size(); x++) {
-                int j = vIn.get(x);
-                int t = dStarts[j].getSup();
-                profilesMin[i].put(t, profilesMin[i].get(t) + dUsages[i][j]);
-                t = dStarts[j].getInf();
-                profilesMax[i].put(t, profilesMax[i].get(t) + dUsages[i][j]);
-            }
+        for (int x = 0; x < vIn.size(); x++) {
+            int j = vIn.get(x);
+            profileMin.add(dStarts[j].getSup(), dUsages, j, 1);
+            profileMax.add(dStarts[j].getInf(), dUsages, j, 1);
         }
         //Now transforms into an absolute profile
-        sortedMinProfile = null;
-        sortedMinProfile = profilesMin[0].keys();
-        Arrays.sort(sortedMinProfile);
-
-        sortedMaxProfile = null;
-        sortedMaxProfile = profilesMax[0].keys();
-        for (int i = 0; i < nbDims; i++) {
-            profilesMax[i].keys(sortedMaxProfile);
-        }
-
-        Arrays.sort(sortedMaxProfile);
-
-        for (int i = 0; i < nbDims; i++) {
-            toAbsoluteFreeResources(profilesMin[i], sortedMinProfile);
-            toAbsoluteFreeResources(profilesMax[i], sortedMaxProfile);
-        }
+        profileMin.build();
+        profileMax.build();
 
         if (DEBUG) {
             ChocoLogging.getBranchingLogger().finest("--- startup=(" + Arrays.toString(startupFree) + ")"
@@ -269,12 +246,32 @@ public class AliasedCumulativesFiltering {
 
 
             for (int i = 0; i < nbDims; i++) {
-                ChocoLogging.getBranchingLogger().finest("profileMin(dim " + i + ")= " + prettyProfile(sortedMinProfile, profilesMin[i]));
-                ChocoLogging.getBranchingLogger().finest("profileMax(dim " + i + ")= " + prettyProfile(sortedMaxProfile, profilesMax[i]));
+                ChocoLogging.getBranchingLogger().finest("profileMin(dim " + i + ")= " + profileMin.pretty(i));
+                ChocoLogging.getBranchingLogger().finest("profileMax(dim " + i + ")= " + profileMax.pretty(i));
             }
         }
     }
 
+    /**
+     * Get the profile of what is necessarily used on the resource.
+     * Up-to-date after {@link #computeProfiles()}.
+     *
+     * @return the profile
+     */
+    Profile getProfileMin() {
+        return profileMin;
+    }
+
+    /**
+     * Get the profile of the maximum possible usage on the resource.
+     * Up-to-date after {@link #computeProfiles()}.
+     *
+     * @return the profile
+     */
+    Profile getProfileMax() {
+        return profileMax;
+    }
+
     private boolean increase(int x, int y) {
         for (int i = 0; i < nbDims; i++) {
             if (dUsages[i][y] > cUsages[i][x]) {
@@ -285,18 +282,7 @@ public class AliasedCumulativesFiltering {
     }
 
     private boolean associatedToDSliceOnCurrentNode(int cSlice) {
-        return revAssociations[cSlice] != NO_ASSOCIATIONS && isIn(revAssociations[cSlice]);
-    }
-
-    private boolean isIn(int idx) {
-
-        for (int x = 0; x < vIn.size(); x++) {
-            int i = vIn.get(x);
-            if (i == idx) {
-                return true;
-            }
-        }
-        return false;
+        return revAssociations[cSlice] != NO_ASSOCIATIONS && in.get(revAssociations[cSlice]);
     }
 
     private boolean associatedToCSliceOnCurrentNode(int dSlice) {
@@ -304,31 +290,13 @@ public class AliasedCumulativesFiltering {
                 && out.get(associations[dSlice]);
     }
 
-    private String prettyProfile(int[] ascMoments, TIntIntHashMap prof) {
-        StringBuilder b = new StringBuilder();
-        for (int i = 0; i < ascMoments.length; i++) {
-            int t = ascMoments[i];
-            b.append(t);
-            b.append(":(");
-            b.append(prof.get(t));
-            b.append(",");
-            b.append(prof.get(t));
-            b.append(")");
-            if (i != ascMoments.length - 1) {
-                b.append(" ");
-            }
-        }
-        return b.toString();
-    }
-
     public boolean checkInvariant() {
-        for (int x = 0; x < sortedMinProfile.length; x++) {
-            int t = sortedMinProfile[x];
+        for (int x = 0; x < profileMin.size(); x++) {
             for (int i = 0; i < nbDims; i++) {
-                if (profilesMin[i].get(t) > capacities[i]) {
+                if (profileMin.usage(i, x) > capacities[i]) {
                     if (DEBUG) {
-                        ChocoLogging.getBranchingLogger().finest("Invalid min profile at " + t + " on dimension " + i
-                                + ": " + profilesMin[i].get(t) + " > " + capacities[i]);
+                        ChocoLogging.getBranchingLogger().finest("Invalid min profile at " + profileMin.moment(x) + " on dimension " + i
+                                + ": " + profileMin.usage(i, x) + " > " + capacities[i]);
                     }
                     return false;
                 }
@@ -343,17 +311,14 @@ public class AliasedCumulativesFiltering {
             int i = vIn.get(idx);
             if (!dStarts[i].isInstantiated() && !associatedToCSliceOnCurrentNode(i)) {
 
-                int[] myUsage = getUsages(dUsages, i);
-
                 int lastT = -1;
-                for (int x = sortedMinProfile.length - 1; x >= 0; x--) {
-                    int t = sortedMinProfile[x];
+                for (int x = profileMin.size() - 1; x >= 0; x--) {
+                    int t = profileMin.moment(x);
                     if (t <= dStarts[i].getInf()) {
                         break;
                     }
-                    int prevT = sortedMinProfile[x - 1];
                     if (t <= dStarts[i].getSup()
-                            && exceedCapacity(profilesMin, prevT, myUsage)) {
+                            && exceedCapacity(profileMin, x - 1, dUsages, i)) {
                         lastT = t;
                         break;
                     }
@@ -367,13 +332,10 @@ public class AliasedCumulativesFiltering {
 
     private void updateDStartsSup() throws ContradictionException {
 
-
-        int[] myCapacity = capacities;
         int lastSup = -1;
-        for (int i = sortedMaxProfile.length - 1; i >= 0; i--) {
-            int t = sortedMaxProfile[i];
-            if (!exceedCapacity(profilesMax, t, myCapacity)) {
-                lastSup = t;
+        for (int x = profileMax.size() - 1; x >= 0; x--) {
+            if (!exceedCapacity(profileMax, x, capacities)) {
+                lastSup = profileMax.moment(x);
             } else {
                 break;
             }
@@ -393,14 +355,13 @@ public class AliasedCumulativesFiltering {
         for (int i = out.nextSetBit(0); i >= 0; i = out.nextSetBit(i + 1)) {
             if (!cEnds[i].isInstantiated() && !associatedToDSliceOnCurrentNode(i)) {
 
-                int[] myUsage = getUsages(cUsages, i);
                 int lastT = -1;
-                for (int x = 0; x < sortedMinProfile.length; x++) {
-                    int t = sortedMinProfile[x];
+                for (int x = 0; x < profileMin.size(); x++) {
+                    int t = profileMin.moment(x);
                     if (t >= cEnds[i].getSup()) {
                         break;
                     } else if (t >= cEnds[i].getInf() &&
-                            exceedCapacity(profilesMin, t, myUsage)) {
+                            exceedCapacity(profileMin, x, cUsages, i)) {
                         lastT = t;
                         break;
                     }
@@ -416,20 +377,29 @@ public class AliasedCumulativesFiltering {
         }
     }
 
-    private boolean exceedCapacity(TIntIntHashMap[] profiles, int t, int[] usage) {
+    /**
+     * Check if the usage of an element at a given moment of a profile exceeds the capacity.
+     *
+     * @param p      the profile
+     * @param x      the index of the moment in the profile
+     * @param usages the usages of the elements, per dimension
+     * @param j      the element index
+     */
+    private boolean exceedCapacity(Profile p, int x, int[][] usages, int j) {
         for (int i = 0; i < nbDims; i++) {
-            if (profiles[i].get(t) + usage[i] > capacities[i]) {
+            if (p.usage(i, x) + usages[i][j] > capacities[i]) {
                 return true;
             }
         }
         return false;
     }
 
-    private int[] getUsages(int[][] usages, int i) {
-        int[] u = new int[nbDims];
-        for (int x = 0; x < nbDims; x++) {
-            u[x] = usages[x][i];
+    private boolean exceedCapacity(Profile p, int x, int[] usage) {
+        for (int i = 0; i < nbDims; i++) {
+            if (p.usage(i, x) + usage[i] > capacities[i]) {
+                return true;
+            }
         }
-        return u;
+        return false;
     }
 }
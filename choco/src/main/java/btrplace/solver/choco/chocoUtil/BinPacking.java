@@ -29,6 +29,7 @@ import choco.kernel.memory.IStateInt;
 import choco.kernel.solver.ContradictionException;
 import choco.kernel.solver.constraints.integer.AbstractLargeIntSConstraint;
 import choco.kernel.solver.variables.integer.IntDomainVar;
+import gnu.trove.iterator.TIntIterator;
 
 import java.util.*;
 
@@ -43,6 +44,12 @@ import java.util.*;
  * The upper bound then becomes the total size of the assigned and candidate small items + the maximal size among the big candidate items.
  * With option ({@code BigItemsPolicy.STATIC}) the list of big candidates is computed once for each bin according to its initial capacity,
  * but as items are ordered, the list can also be maintained dynamically for almost free at each item assignment/removal ({@code BigItemsPolicy.DYNAMIC})
+ * <p/>
+ * By default, the candidate items of each bin are stored into a bitset so the memory usage is O(nbItems x nbBins).
+ * The candidates can be stored into {@link SparseCandidates} instead. The memory usage is then proportional
+ * to the initial size of the item domains, with about 12 bytes per (item, bin) candidate pair against 1 bit for a bitset.
+ * This only saves memory when the initial domains are sparse, i.e. when each item can be assigned to less than
+ * about 1 bin in 100. {@link btrplace.solver.choco.BinPackingBuilder} only picks it in that case. As the sparse candidates are not ordered, the knapsack filtering must then visit all the candidates of a bin.
  *
  * @author Sophie Demassey, Fabien Hermenier
  * @see choco.cp.solver.constraints.global.pack.PackSConstraint
@@ -86,6 +93,16 @@ public class BinPacking extends AbstractLargeIntSConstraint {
      */
     private IStateBitSet[] candidates;
 
+    /**
+     * The candidate items for each bin when the sparse representation is used.
+     */
+    private SparseCandidates sparseCandidates;
+
+    /**
+     * {@code true} to use the sparse representation of the candidates.
+     */
+    private final boolean sparse;
+
     /**
      * The total size of the required + candidate items for each bin.
      */
@@ -135,7 +152,21 @@ public class BinPacking extends AbstractLargeIntSConstraint {
      * @param b           array of nbItems variables, each figuring the possible bins an item can be assigned to, usually initialized to [0, nbBins-1]
      */
     public BinPacking(IEnvironment environment, IntDomainVar[] l, IntDomainVar[] s, IntDomainVar[] b) {
+        this(environment, l, s, b, false);
+    }
+
+    /**
+     * constructor of the FastBinPacking global constraint
+     *
+     * @param environment the solver environment
+     * @param l           array of nbBins variables, each figuring the total size of the items assigned to it, usually initialized to [0, capacity]
+     * @param s           array of nbItems variables, each figuring the item size. Only the LB will be considered!
+     * @param b           array of nbItems variables, each figuring the possible bins an item can be assigned to, usually initialized to [0, nbBins-1]
+     * @param sparse      {@code true} to store the candidates into {@link SparseCandidates} rather than bitsets
+     */
+    public BinPacking(IEnvironment environment, IntDomainVar[] l, IntDomainVar[] s, IntDomainVar[] b, boolean sparse) {
         super(ArrayUtils.append(b, l));
+        this.sparse = sparse;
 
         this.env = environment;
         this.loads = l;
@@ -152,10 +183,102 @@ public class BinPacking extends AbstractLargeIntSConstraint {
         return loads[bin].getSup() - bRLoads[bin].get();
     }
 
+    /**
+     * Get the candidate items of a bin.
+     * Only available with the bitset representation. See {@link #iterateCandidates(int)} otherwise.
+     *
+     * @param bin the bin index
+     * @return the candidates
+     * @throws UnsupportedOperationException if the sparse representation is used
+     */
     public IStateBitSet getCandidates(int bin) {
+        if (sparse) {
+            throw new UnsupportedOperationException("No bitset with the sparse representation. Use iterateCandidates()");
+        }
         return candidates[bin];
     }
 
+    /**
+     * Iterate over the candidate items of a bin, whatever their representation.
+     * The candidates are not copied, so they must not be modified during the iteration.
+     *
+     * @param bin the bin index
+     * @return a read-only iterator over the item indexes
+     */
+    public TIntIterator iterateCandidates(final int bin) {
+        if (sparse) {
+            return new TIntIterator() {
+                private int k = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return k < sparseCandidates.size(bin);
+                }
+
+                @Override
+                public int next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return sparseCandidates.get(bin, k++);
+                }
+
+                @Override
+                public void remove() {
+                    throw new UnsupportedOperationException();
+                }
+            };
+        }
+        return new TIntIterator() {
+            private int cur = candidates[bin].nextSetBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return cur >= 0;
+            }
+
+            @Override
+            public int next() {
+                if (cur < 0) {
+                    throw new NoSuchElementException();
+                }
+                int i = cur;
+                cur = candidates[bin].nextSetBit(cur + 1);
+                return i;
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    /**
+     * Indicates if the candidates are stored using {@link SparseCandidates}.
+     *
+     * @return {@code true} iff the sparse representation is used
+     */
+    public boolean isSparse() {
+        return sparse;
+    }
+
+    private boolean isCandidate(int bin, int item) {
+        return sparse ? sparseCandidates.contains(bin, item) : candidates[bin].get(item);
+    }
+
+    private boolean hasCandidates(int bin) {
+        return sparse ? !sparseCandidates.isEmpty(bin) : !candidates[bin].isEmpty();
+    }
+
+    private void clearCandidate(int bin, int item) {
+        if (sparse) {
+            sparseCandidates.remove(bin, item);
+        } else {
+            candidates[bin].clear(item);
+        }
+    }
+
     private void sortIndices() throws ContradictionException {
         long sum = 0;
         //l denotes the ordering of the items, so bsToVars
@@ -204,6 +327,12 @@ public class BinPacking extends AbstractLargeIntSConstraint {
      */
     public String prettyCandidates(int bin) {
         StringBuilder s = new StringBuilder("{");
+        if (sparse) {
+            for (int k = 0; k < sparseCandidates.size(bin); k++) {
+                s.append(bsToVars[sparseCandidates.get(bin, k)]).append(' ');
+            }
+            return s.append('}').toString();
+        }
         for (int i = candidates[bin].nextSetBit(0); i >= 0; i = candidates[bin].nextSetBit(i + 1)) {
             s.append(bsToVars[i]).append(' ');
         }
@@ -251,10 +380,15 @@ public class BinPacking extends AbstractLargeIntSConstraint {
 
         sortIndices();
         availableBins = env.makeBitSet(nbBins);
-        candidates = new IStateBitSet[nbBins];
-        for (int b = 0; b < nbBins; b++) {
-            candidates[b] = env.makeBitSet(bins.length);
+        int[][] itemBins = null;
+        if (sparse) {
+            itemBins = new int[bins.length][];
+        } else {
+            candidates = new IStateBitSet[nbBins];
+            for (int b = 0; b < nbBins; b++) {
+                candidates[b] = env.makeBitSet(bins.length);
 
+            }
         }
         int[] rLoads = new int[nbBins];
         int[] cLoads = new int[nbBins];
@@ -264,19 +398,34 @@ public class BinPacking extends AbstractLargeIntSConstraint {
             bins[i].updateSup(nbBins - 1, this, false);
             if (bins[i].isInstantiated()) {
                 rLoads[bins[i].getVal()] += iSizes[i];
+                if (sparse) {
+                    itemBins[varsToBs[i]] = new int[0];
+                }
             } else {
+                int[] bs = sparse ? new int[bins[i].getDomainSize()] : null;
+                int x = 0;
                 DisposableIntIterator it = bins[i].getDomain().getIterator();
                 try {
                     while (it.hasNext()) {
                         int b = it.next();
-                        candidates[b].set(varsToBs[i]);
+                        if (sparse) {
+                            bs[x++] = b;
+                        } else {
+                            candidates[b].set(varsToBs[i]);
+                        }
                         cLoads[b] += iSizes[i];
                     }
                 } finally {
                     it.dispose();
                 }
+                if (sparse) {
+                    itemBins[varsToBs[i]] = bs;
+                }
             }
         }
+        if (sparse) {
+            sparseCandidates = new SparseCandidates(env, nbBins, itemBins);
+        }
 
         int slb = 0;
         int slu = 0;
@@ -285,7 +434,7 @@ public class BinPacking extends AbstractLargeIntSConstraint {
             bTLoads[b] = env.makeInt(rLoads[b] + cLoads[b]);
             loads[b].updateInf(rLoads[b], this, false);
             loads[b].updateSup(rLoads[b] + cLoads[b], this, false);
-            if (!candidates[b].isEmpty()) {
+            if (hasCandidates(b)) {
                 availableBins.set(b);
             }
             slb += loads[b].getInf();
@@ -411,11 +560,11 @@ public class BinPacking extends AbstractLargeIntSConstraint {
      *          on the load[bin] variable
      */
     private void assignItem(int item, int bin) throws ContradictionException {
-        if (candidates[bin].get(item)) {
+        if (isCandidate(bin, item)) {
             int r = bRLoads[bin].add(iSizes[bsToVars[item]]);
             filterLoadInf(bin, r);
-            candidates[bin].clear(item);
-            if (candidates[bin].isEmpty()) {
+            clearCandidate(bin, item);
+            if (!hasCandidates(bin)) {
                 availableBins.clear(bin);
             }
         }
@@ -432,9 +581,9 @@ public class BinPacking extends AbstractLargeIntSConstraint {
      *          on the load[bin] variable
      */
     private void removeItem(int item, int bin) throws ContradictionException {
-        if (candidates[bin].get(item)) {
-            candidates[bin].clear(item);
-            if (candidates[bin].isEmpty()) {
+        if (isCandidate(bin, item)) {
+            clearCandidate(bin, item);
+            if (!hasCandidates(bin)) {
                 availableBins.clear(bin);
             }
             int r = bTLoads[bin].add(-1 * iSizes[bsToVars[item]]);
@@ -490,7 +639,8 @@ public class BinPacking extends AbstractLargeIntSConstraint {
      * propagate the knapsack constraint on a given bin:
      * 1) remove the candidate items bigger than the remaining free space (when binRequiredLoad + itemSize > binLoadSup)
      * 2) pack the candidate items necessary to reach the load LB (when binTotalLoad - itemSize < binLoadInf).
-     * code optimized according to the decreasing order of the item sizes.
+     * code optimized according to the decreasing order of the item sizes,
+     * except with the sparse representation where all the candidates are visited.
      * the loads are also filtered within this constraint (rather in the propagate loop) because considered bins eventually become unavailable
      *
      * @param bin bin index
@@ -500,30 +650,18 @@ public class BinPacking extends AbstractLargeIntSConstraint {
      */
     private boolean propagateKnapsack(int bin) throws ContradictionException {
         boolean ret = false;
+        if (sparse) {
+            //Backward as a filtered candidate is swapped with the last remaining one, already visited
+            for (int k = sparseCandidates.size(bin) - 1; k >= 0; k--) {
+                if (k < sparseCandidates.size(bin)) {
+                    ret |= filterCandidate(bin, sparseCandidates.get(bin, k));
+                }
+            }
+            return ret;
+        }
         //ibIdx= item in the bitset, its size is at iSize[bsToVars[i]].
         for (int ibIdx = candidates[bin].nextSetBit(0); ibIdx >= 0; ibIdx = candidates[bin].nextSetBit(ibIdx + 1)) {
-            int iSize = iSizes[bsToVars[ibIdx]];
-            if (iSize + bRLoads[bin].get() > loads[bin].getSup()) {
-                removeItem(ibIdx, bin);
-                bins[bsToVars[ibIdx]].removeVal(bin, this, false);
-                if (bins[bsToVars[ibIdx]].isInstantiated()) {
-                    assignItem(ibIdx, bins[bsToVars[ibIdx]].getVal());
-                }
-                ret = true;
-            } else if (bTLoads[bin].get() - iSize < loads[bin].getInf()) {
-                assignItem(ibIdx, bin);
-                DisposableIntIterator domain = bins[bsToVars[ibIdx]].getDomain().getIterator();
-                try {
-                    while (domain.hasNext()) {
-                        int b = domain.next();
-                        if (b != bin) {
-                            removeItem(ibIdx, b);
-                        }
-                    }
-                } finally {
-                    domain.dispose();
-                }
-                bins[bsToVars[ibIdx]].instantiate(bin, this, false);
+            if (filterCandidate(bin, ibIdx)) {
                 ret = true;
             } else {
                 break;
@@ -532,6 +670,43 @@ public class BinPacking extends AbstractLargeIntSConstraint {
         return ret;
     }
 
+    /**
+     * apply the knapsack rules on a candidate item of a bin.
+     *
+     * @param bin   bin index
+     * @param ibIdx the item index in the candidates
+     * @return {@code true} if the item is removed or packed.
+     * @throws choco.kernel.solver.ContradictionException
+     *          on the bins or loads variables
+     */
+    private boolean filterCandidate(int bin, int ibIdx) throws ContradictionException {
+        int iSize = iSizes[bsToVars[ibIdx]];
+        if (iSize + bRLoads[bin].get() > loads[bin].getSup()) {
+            removeItem(ibIdx, bin);
+            bins[bsToVars[ibIdx]].removeVal(bin, this, false);
+            if (bins[bsToVars[ibIdx]].isInstantiated()) {
+                assignItem(ibIdx, bins[bsToVars[ibIdx]].getVal());
+            }
+            return true;
+        } else if (bTLoads[bin].get() - iSize < loads[bin].getInf()) {
+            assignItem(ibIdx, bin);
+            DisposableIntIterator domain = bins[bsToVars[ibIdx]].getDomain().getIterator();
+            try {
+                while (domain.hasNext()) {
+                    int b = domain.next();
+                    if (b != bin) {
+                        removeItem(ibIdx, b);
+                    }
+                }
+            } finally {
+                domain.dispose();
+            }
+            bins[bsToVars[ibIdx]].instantiate(bin, this, false);
+            return true;
+        }
+        return false;
+    }
+
     //****************************************************************//
     //********* Checkers *********************************************//
     //****************************************************************//
@@ -629,9 +804,9 @@ public class BinPacking extends AbstractLargeIntSConstraint {
             }
         }
         for (int b = 0; b < nbBins; b++) {
-            for (int i = 0; i < bs[b].size(); i++) {
-                if (bs[b].get(i) != candidates[b].get(i)) {
-                    ChocoLogging.getBranchingLogger().warning("candidate i '" + i + "' for bin '" + b + ": " + candidates[b].get(i) + " expected: " + bs[b].get(i));
+            for (int i = 0; i < iSizes.length; i++) {
+                if (bs[b].get(i) != isCandidate(b, i)) {
+                    ChocoLogging.getBranchingLogger().warning("candidate i '" + i + "' for bin '" + b + ": " + isCandidate(b, i) + " expected: " + bs[b].get(i));
                     ChocoLogging.getBranchingLogger().warning("candidates for b: " + this.prettyCandidates(b));
                     ChocoLogging.flushLogs();
                     return false;
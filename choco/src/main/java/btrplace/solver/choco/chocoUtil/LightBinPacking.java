@@ -30,9 +30,21 @@ import choco.kernel.solver.constraints.integer.AbstractLargeIntSConstraint;
 import choco.kernel.solver.variables.integer.IntDomainVar;
 
 import java.util.Arrays;
+import java.util.BitSet;
 
 /**
  * Lighter but faster version of {@link BinPacking} that does not provide the knapsack filtering
+ * <p/>
+ * Optionally, an item-fit filtering reasons on all the dimensions together:
+ * <ul>
+ * <li>a bin is removed from the candidates of an item when the space left by the items already packed
+ * into the bin cannot host the item on all the dimensions at once. Only the bins whose free space
+ * decreased since the last propagation are checked, in O(nbItems x nbDims) each;</li>
+ * <li>a vector-packing lower bound fails when the unassigned items that cannot share a bin outnumber
+ * the bins that can host them. See {@link #checkBigItems()}. It costs O((nbItems + nbBins) x nbDims^2)
+ * per propagation.</li>
+ * </ul>
+ * The filtering is disabled by default.
  *
  * @author Fabien Hermenier
  */
@@ -100,6 +112,14 @@ public class LightBinPacking extends AbstractLargeIntSConstraint {
 
     private IStateBitSet notEntailedDims;
 
+    private boolean itemFitFiltering = false;
+
+    /**
+     * The bins whose free space decreased since the last item-fit filtering.
+     * It is not restored on backtrack as the filtering was complete before branching.
+     */
+    private BitSet shrunkBins;
+
     /**
      * constructor of the FastBinPacking global constraint
      *
@@ -122,6 +142,25 @@ public class LightBinPacking extends AbstractLargeIntSConstraint {
         this.bRLoads = new IStateInt[nbDims][nbBins];
     }
 
+    /**
+     * State if the item-fit filtering is enabled.
+     * It must be set before the constraint is posted.
+     *
+     * @param b {@code true} to enable the filtering
+     */
+    public void setItemFitFiltering(boolean b) {
+        itemFitFiltering = b;
+    }
+
+    /**
+     * Indicates if the item-fit filtering is enabled.
+     *
+     * @return {@code true} iff the filtering is enabled
+     */
+    public boolean isItemFitFiltering() {
+        return itemFitFiltering;
+    }
+
     @Override
     public boolean isConsistent() {
         int[][] l = new int[nbDims][nbBins];
@@ -242,6 +281,9 @@ public class LightBinPacking extends AbstractLargeIntSConstraint {
 
         this.loadsHaveChanged = env.makeBool(false);
 
+        shrunkBins = new BitSet(nbBins);
+        shrunkBins.set(0, nbBins);
+
         detectEntailedDimensions(nbUnassigned);
 
         assert checkLoadConsistency();
@@ -301,9 +343,105 @@ public class LightBinPacking extends AbstractLargeIntSConstraint {
                 fail();
             }
         }
+        if (itemFitFiltering) {
+            filterItemFit();
+            checkBigItems();
+        }
         assert checkLoadConsistency();
     }
 
+    /**
+     * rule 4, for each bin having a smaller free space and each candidate item: if the item does not fit on all the
+     * dimensions together, i.e. binRequiredLoad + itemSize > binLoadSup on one dimension, then remove the bin
+     * from the candidates. An item with no remaining candidates leads to a failure.
+     *
+     * @throws ContradictionException if an item cannot be placed anymore
+     */
+    private void filterItemFit() throws ContradictionException {
+        for (int b = shrunkBins.nextSetBit(0); b >= 0; b = shrunkBins.nextSetBit(b + 1)) {
+            shrunkBins.clear(b);
+            for (int i = 0; i < bins.length; i++) {
+                IntDomainVar v = bins[i];
+                if (!v.isInstantiated() && v.canBeInstantiatedTo(b) && !fitsRequiredLoads(i, b)) {
+                    v.removeVal(b, this, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * rule 5, a vector-packing lower bound. For each dimension, the unassigned items bigger than half the largest free
+     * space on that dimension cannot share a bin. A bin can only host one of them if its free space is at least,
+     * on every dimension, the smallest size of these items. Fail if there are more such items than such bins.
+     *
+     * @throws ContradictionException if the big items cannot be spread over the bins
+     */
+    private void checkBigItems() throws ContradictionException {
+        int[] maxFree = new int[nbDims];
+        for (int b = 0; b < nbBins; b++) {
+            for (int d = 0; d < nbDims; d++) {
+                maxFree[d] = Math.max(maxFree[d], loads[d][b].getSup() - bRLoads[d][b].get());
+            }
+        }
+        int[] minSizes = new int[nbDims];
+        for (int d = 0; d < nbDims; d++) {
+            int nbBigs = 0;
+            Arrays.fill(minSizes, Integer.MAX_VALUE);
+            for (int i = 0; i < bins.length; i++) {
+                if (!bins[i].isInstantiated() && 2L * iSizes[d][i] > maxFree[d]) {
+                    nbBigs++;
+                    for (int x = 0; x < nbDims; x++) {
+                        minSizes[x] = Math.min(minSizes[x], iSizes[x][i]);
+                    }
+                }
+            }
+            if (nbBigs > 1) {
+                int nbHosts = 0;
+                for (int b = 0; b < nbBins && nbHosts < nbBigs; b++) {
+                    if (canHost(b, minSizes)) {
+                        nbHosts++;
+                    }
+                }
+                if (nbHosts < nbBigs) {
+                    fail();
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if the free space of a bin is at least a given size on every dimension.
+     *
+     * @param bin   the bin index
+     * @param sizes the size for each dimension
+     * @return {@code true} iff the sizes fit into the bin
+     */
+    private boolean canHost(int bin, int[] sizes) {
+        for (int d = 0; d < nbDims; d++) {
+            if (bRLoads[d][bin].get() + sizes[d] > loads[d][bin].getSup()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check if, on every dimension, an item fits into the space left in a bin
+     * by the items already packed into it.
+     *
+     * @param item the item index
+     * @param bin  the bin index
+     * @return {@code true} iff the item fits on every dimension
+     */
+    private boolean fitsRequiredLoads(int item, int bin) {
+        for (int d = 0; d < nbDims; d++) {
+            if (bRLoads[d][bin].get() + iSizes[d][item] > loads[d][bin].getSup()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * recompute the sum of the min/max loads only if at least one variable bound has been updated outside the constraint
      */
@@ -355,6 +493,9 @@ public class LightBinPacking extends AbstractLargeIntSConstraint {
      */
     @Override
     public void awakeOnSup(int varIdx) throws ContradictionException {
+        if (itemFitFiltering) {
+            shrunkBins.set((varIdx - bins.length) % nbBins);
+        }
         loadsHaveChanged.set(true);
         constAwake(false);
     }
@@ -404,6 +545,9 @@ public class LightBinPacking extends AbstractLargeIntSConstraint {
             int r = bRLoads[d][bin].add(iSizes[d][item]);
             filterLoadInf(d, bin, r);
         }
+        if (itemFitFiltering) {
+            shrunkBins.set(bin);
+        }
     }
 
     /**
@@ -458,6 +602,9 @@ public class LightBinPacking extends AbstractLargeIntSConstraint {
         int dec = newLoadSup - loads[dim][bin].getSup();
         if (dec < 0) {
             loads[dim][bin].updateSup(newLoadSup, this, false);
+            if (itemFitFiltering) {
+                shrunkBins.set(bin);
+            }
             int r = sumLoadSup[dim].add(dec);
             if (sumISizes[dim] > r) {
                 fail();
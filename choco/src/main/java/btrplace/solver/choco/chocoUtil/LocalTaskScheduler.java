@@ -23,8 +23,6 @@ import choco.kernel.memory.IStateInt;
 import choco.kernel.memory.IStateIntVector;
 import choco.kernel.solver.ContradictionException;
 import choco.kernel.solver.variables.integer.IntDomainVar;
-import gnu.trove.map.hash.TIntIntHashMap;
-
 import java.util.Arrays;
 import java.util.BitSet;
 
@@ -64,13 +62,20 @@ public class LocalTaskScheduler {
 
     public static final int NO_ASSOCIATIONS = -1;
 
-    private int[] sortedMinProfile;
-
-    private TIntIntHashMap[] profilesMin;
+    /**
+     * What is necessarily used on the resource.
+     */
+    private Profile profileMin;
 
-    private TIntIntHashMap[] profilesMax;
+    /**
+     * Maximum possible usage on the resource.
+     */
+    private Profile profileMax;
 
-    private int[] sortedMaxProfile;
+    /**
+     * The usage at startup, per dimension.
+     */
+    private int[] startupUsage;
 
     /**
      * LB of the moment the last c-slice leaves.
@@ -123,12 +128,9 @@ public class LocalTaskScheduler {
         //The amount of free resources at startup
 
         startupFree = new int[nbDims];
-        profilesMax = new TIntIntHashMap[nbDims];
-        profilesMin = new TIntIntHashMap[nbDims];
+        startupUsage = new int[nbDims];
         for (int i = 0; i < capacities.length; i++) {
             startupFree[i] = capacities[i][me];
-            profilesMax[i] = new TIntIntHashMap();
-            profilesMin[i] = new TIntIntHashMap();
         }
 
         int lastInf = out.isEmpty() ? 0 : Integer.MAX_VALUE;
@@ -150,6 +152,13 @@ public class LocalTaskScheduler {
         }
         this.lastCendInf = env.makeInt(lastInf);
         this.lastCendSup = env.makeInt(lastSup);
+
+        for (int i = 0; i < nbDims; i++) {
+            startupUsage[i] = capacities[i][me] - startupFree[i];
+        }
+        int nbEvents = 1 + 2 * out.cardinality() + vIn.size();
+        profileMin = new Profile(nbDims, nbEvents);
+        profileMax = new Profile(nbDims, nbEvents);
     }
 
     public boolean propagate() throws ContradictionException {
@@ -157,40 +166,36 @@ public class LocalTaskScheduler {
         if (!checkInvariant()) {
             return false;
         }
-        updateCEndsSup();
+        updateCEndsSup(false);
         updateDStartsInf();
         updateDStartsSup();
         return true;
     }
 
     /**
-     * Translation for a relatives resources changes to an absolute free resources.
+     * Propagate while some dSlices may still be placed on the resource.
+     * The minimum profile only considers the dSlices already placed, so it is a lower bound
+     * of the final one. Only the checks and the filtering that rely on this profile are then performed.
      *
-     * @param changes       the map that indicates the free CPU variation
-     * @param sortedMoments the different moments sorted in ascending order
+     * @return {@code false} if the resource is overloaded
+     * @throws ContradictionException if a domain becomes empty
      */
-    private static void toAbsoluteFreeResources(TIntIntHashMap changes, int[] sortedMoments) {
-        for (int i = 1; i < sortedMoments.length; i++) {
-            int t = sortedMoments[i];
-            int lastT = sortedMoments[i - 1];
-            int lastFree = changes.get(lastT);
-
-            changes.put(t, changes.get(t) + lastFree);
+    public boolean propagateEarly() throws ContradictionException {
+        computeProfiles();
+        if (!checkInvariant()) {
+            return false;
         }
+        updateCEndsSup(true);
+        updateDStartsInf();
+        return true;
     }
 
     public void computeProfiles() {
 
-        for (int i = 0; i < nbDims; i++) {
-            //What is necessarily used on the resource
-            profilesMin[i] = new TIntIntHashMap();
-
-            //Maximum possible usage on the resource
-            profilesMax[i] = new TIntIntHashMap();
-
-            profilesMax[i].put(0, capacities[i][me] - startupFree[i]);
-            profilesMin[i].put(0, capacities[i][me] - startupFree[i]);
-        }
+        profileMin.reset();
+        profileMax.reset();
+        profileMin.add(0, startupUsage);
+        profileMax.add(0, startupUsage);
 
         int lastInf = out.isEmpty() ? 0 : Integer.MAX_VALUE;
         int lastSup = 0;
@@ -206,18 +211,12 @@ public class LocalTaskScheduler {
                 if (me == DEBUG || DEBUG == -2) {
                     ChocoLogging.getBranchingLogger().finest(me + " " + cEnds[j].pretty() + " increasing");
                 }
-                for (int i = 0; i < nbDims; i++) {
-                    profilesMax[i].put(t, profilesMax[i].get(t) - cUsages[i][j]);
-                }
-
+                profileMax.add(t, cUsages, j, -1);
             } else {
                 if (me == DEBUG || DEBUG == -2) {
                     ChocoLogging.getBranchingLogger().finest(me + " " + cEnds[j].pretty() + " < or non-associated (" + (revAssociations[j] >= 0 ? dStarts[revAssociations[j]].pretty() : "no rev") + "?)");
                 }
-                for (int i = 0; i < nbDims; i++) {
-                    profilesMin[i].put(t, profilesMin[i].get(t) - cUsages[i][j]);
-                }
-
+                profileMin.add(t, cUsages, j, -1);
             }
 
             t = cEnds[j].getSup();
@@ -225,13 +224,9 @@ public class LocalTaskScheduler {
                 lastSup = t;
             }
             if (increasing) {
-                for (int i = 0; i < nbDims; i++) {
-                    profilesMin[i].put(t, profilesMin[i].get(t) - cUsages[i][j]);
-                }
+                profileMin.add(t, cUsages, j, -1);
             } else {
-                for (int i = 0; i < nbDims; i++) {
-                    profilesMax[i].put(t, profilesMax[i].get(t) - cUsages[i][j]);
-                }
+                profileMax.add(t, cUsages, j, -1);
             }
         }
         if (out.isEmpty()) {
@@ -242,32 +237,14 @@ public class LocalTaskScheduler {
         lastCendInf.set(lastInf);
         lastCendSup.set(lastSup);
 
-        for (int i = 0; i < nbDims; i++) {
-            for (int x = 0; x < vIn.size(); x++) {
-                int j = vIn.get(x);
-                int t = dStarts[j].getSup();
-                profilesMin[i].put(t, profilesMin[i].get(t) + dUsages[i][j]);
-                t = dStarts[j].getInf();
-                profilesMax[i].put(t, profilesMax[i].get(t) + dUsages[i][j]);
-            }
+        for (int x = 0; x < vIn.size(); x++) {
+            int j = vIn.get(x);
+            profileMin.add(dStarts[j].getSup(), dUsages, j, 1);
+            profileMax.add(dStarts[j].getInf(), dUsages, j, 1);
         }
         //Now transforms into an absolute profile
-        sortedMinProfile = null;
-        sortedMinProfile = profilesMin[0].keys();
-        Arrays.sort(sortedMinProfile);
-
-        sortedMaxProfile = null;
-        sortedMaxProfile = profilesMax[0].keys();
-        for (int i = 0; i < nbDims; i++) {
-            profilesMax[i].keys(sortedMaxProfile);
-        }
-
-        Arrays.sort(sortedMaxProfile);
-
-        for (int i = 0; i < nbDims; i++) {
-            toAbsoluteFreeResources(profilesMin[i], sortedMinProfile);
-            toAbsoluteFreeResources(profilesMax[i], sortedMaxProfile);
-        }
+        profileMin.build();
+        profileMax.build();
 
         if (me == DEBUG || DEBUG == -2) {
             ChocoLogging.getBranchingLogger().finest("---" + me + "--- startupFree=" + Arrays.toString(startupFree)
@@ -283,8 +260,8 @@ public class LocalTaskScheduler {
 
 
             for (int i = 0; i < nbDims; i++) {
-                ChocoLogging.getBranchingLogger().finest("profileMin dim " + i + "=" + prettyProfile(sortedMinProfile, profilesMin[i]));
-                ChocoLogging.getBranchingLogger().finest("profileMax dim " + i + "=" + prettyProfile(sortedMaxProfile, profilesMax[i]));
+                ChocoLogging.getBranchingLogger().finest("profileMin dim " + i + "=" + profileMin.pretty(i));
+                ChocoLogging.getBranchingLogger().finest("profileMax dim " + i + "=" + profileMax.pretty(i));
             }
             ChocoLogging.getBranchingLogger().finest("/--- " + me + "---/");
         }
@@ -318,28 +295,13 @@ public class LocalTaskScheduler {
         return associations[dSlice] != NO_ASSOCIATIONS && out.get(associations[dSlice]);
     }
 
-    private String prettyProfile(int[] ascMoments, TIntIntHashMap prof) {
-        StringBuilder b = new StringBuilder();
-        for (int i = 0; i < ascMoments.length; i++) {
-            int t = ascMoments[i];
-            b.append(t);
-            b.append(':');
-            b.append(prof.get(t));
-            if (i != ascMoments.length - 1) {
-                b.append(' ');
-            }
-        }
-        return b.toString();
-    }
-
     public boolean checkInvariant() {
-        for (int x = 0; x < sortedMinProfile.length; x++) {
-            int t = sortedMinProfile[x];
+        for (int x = 0; x < profileMin.size(); x++) {
             for (int i = 0; i < nbDims; i++) {
-                if (profilesMin[i].get(t) > capacities[i][me]) {
+                if (profileMin.usage(i, x) > capacities[i][me]) {
                     if (me == DEBUG || DEBUG == -2) {
-                        ChocoLogging.getBranchingLogger().info("(" + me + ") Invalid min profile at " + t + " on dimension " + i
-                                + ": " + profilesMin[i].get(t) + " > " + capacities[i][me]);
+                        ChocoLogging.getBranchingLogger().info("(" + me + ") Invalid min profile at " + profileMin.moment(x) + " on dimension " + i
+                                + ": " + profileMin.usage(i, x) + " > " + capacities[i][me]);
                         ChocoLogging.flushLogs();
                     }
                     return false;
@@ -381,17 +343,14 @@ public class LocalTaskScheduler {
                     ChocoLogging.getBranchingLogger().finest("(" + me + ") - try to update lb of " + dStarts[i]);
                 }
 
-                int[] myUsage = getUsages(dUsages, i);
-
                 int lastT = -1;
-                for (int x = sortedMinProfile.length - 1; x >= 0; x--) {
-                    int t = sortedMinProfile[x];
+                for (int x = profileMin.size() - 1; x >= 0; x--) {
+                    int t = profileMin.moment(x);
                     if (t <= dStarts[i].getInf()) {
                         break;
                     }
-                    int prevT = sortedMinProfile[x - 1];
                     if (t <= dStarts[i].getSup()
-                            && exceedCapacity(profilesMin, prevT, myUsage)) {
+                            && exceedCapacity(profileMin, x - 1, dUsages, i)) {
                         lastT = t;
                         break;
                     }
@@ -404,12 +363,10 @@ public class LocalTaskScheduler {
     private void updateDStartsSup() throws ContradictionException {
 
 
-        int[] myCapacity = getUsages(capacities, me);
         int lastSup = -1;
-        for (int i = sortedMaxProfile.length - 1; i >= 0; i--) {
-            int t = sortedMaxProfile[i];
-            if (!exceedCapacity(profilesMax, t, myCapacity)) {
-                lastSup = t;
+        for (int i = profileMax.size() - 1; i >= 0; i--) {
+            if (!exceedCapacity(profileMax, i, capacities, me)) {
+                lastSup = profileMax.moment(i);
             } else {
                 break;
             }
@@ -425,18 +382,26 @@ public class LocalTaskScheduler {
         }
     }
 
-    private void updateCEndsSup() throws ContradictionException {
+    /**
+     * Update the UB of the cSlices ends.
+     *
+     * @param partial {@code true} if some dSlices may still be placed on the resource. The cSlices
+     *                that are associated to a dSlice are then ignored as the dSlice may arrive later
+     */
+    private void updateCEndsSup(boolean partial) throws ContradictionException {
         for (int i = out.nextSetBit(0); i >= 0; i = out.nextSetBit(i + 1)) {
+            if (partial && revAssociations[i] != NO_ASSOCIATIONS) {
+                continue;
+            }
             if (!cEnds[i].isInstantiated() && !associatedToDSliceOnCurrentNode(i)) {
 
-                int[] myUsage = getUsages(cUsages, i);
                 int lastT = -1;
-                for (int x = 0; x < sortedMinProfile.length; x++) {
-                    int t = sortedMinProfile[x];
+                for (int x = 0; x < profileMin.size(); x++) {
+                    int t = profileMin.moment(x);
                     if (t >= cEnds[i].getSup()) {
                         break;
                     } else if (t >= cEnds[i].getInf() &&
-                            exceedCapacity(profilesMin, t, myUsage)) {
+                            exceedCapacity(profileMin, x, cUsages, i)) {
                         lastT = t;
                         break;
                     }
@@ -451,9 +416,17 @@ public class LocalTaskScheduler {
         }
     }
 
-    private boolean exceedCapacity(TIntIntHashMap[] profiles, int t, int[] usage) {
+    /**
+     * Check if adding an element to a profile exceeds the node capacity.
+     *
+     * @param p      the profile
+     * @param x      the index of the moment in the profile
+     * @param usages the usages of the elements, per dimension
+     * @param j      the element index
+     */
+    private boolean exceedCapacity(Profile p, int x, int[][] usages, int j) {
         for (int i = 0; i < nbDims; i++) {
-            if (profiles[i].get(t) + usage[i] > capacities[i][me]) {
+            if (p.usage(i, x) + usages[i][j] > capacities[i][me]) {
                 return true;
             }
         }
@@ -21,52 +21,123 @@ package btrplace.solver.choco.chocoUtil;
 import choco.cp.solver.variables.integer.IntVarEvent;
 import choco.kernel.common.util.iterators.DisposableIntIterator;
 import choco.kernel.common.util.tools.StringUtils;
+import choco.kernel.memory.IEnvironment;
+import choco.kernel.memory.IStateInt;
 import choco.kernel.solver.ContradictionException;
 import choco.kernel.solver.constraints.integer.AbstractBinIntSConstraint;
 import choco.kernel.solver.variables.integer.IntDomainVar;
 
+import java.util.Arrays;
+
+/**
+ * An element constraint: {@code var = values[index - offset]}.
+ * <p/>
+ * The bounds of the value variable are supported by two indexes that are stored
+ * in backtrackable integers. A removal in the index variable only leads to a re-computation
+ * of the bounds when it removes one of these supports.
+ * The indexes are also sorted by their value and two backtrackable pointers delimit the indexes
+ * having a value inside the bounds of the value variable. A change in the value variable then
+ * only browses the indexes that become unsupported.
+ * <p/>
+ * The sorted positions only depend on the table. When several constraints share a table,
+ * compute them once using {@link #sortPositions(int[])} and give them to every constraint.
+ *
+ * @author Fabien Hermenier
+ */
 public final class MyElement extends AbstractBinIntSConstraint {
 
     private int[] lval;
 
     private int cste;
 
+    private IEnvironment env;
+
     /**
-     * To indicate the ordering of the index value
+     * The positions in the table, sorted by increasing value. May be shared among constraints.
      */
-    public static enum Sort {
-        /**
-         * Values are unordered
-         */
-        none,
-        /**
-         * Values are in the increasing order
-         */
-        ascending,
-        /**
-         * Values are in the decreasing order
-         */
-        descending,
-        /**
-         * Let the constraint detect the ordering, if any
-         */
-        detect
-    }
+    private int[] sortedPos;
+
+    /**
+     * The first position in {@link #sortedPos} that may have a value above the value LB.
+     */
+    private IStateInt lo;
+
+    /**
+     * The last position in {@link #sortedPos} that may have a value below the value UB.
+     */
+    private IStateInt hi;
+
+    /**
+     * The index that supports the LB of the value variable.
+     */
+    private IStateInt minSupport;
 
     /**
-     * The current ordering
+     * The index that supports the UB of the value variable.
      */
-    private Sort sortType;
+    private IStateInt maxSupport;
 
-    public MyElement(IntDomainVar index, int[] values, IntDomainVar var, int offset, Sort s) {
+    /**
+     * Make a new constraint.
+     *
+     * @param env    the solver environment
+     * @param index  the index variable
+     * @param values the table of values
+     * @param var    the value variable
+     * @param offset the offset between the index variable and the position in the table
+     * @param sorted the positions in the table sorted by increasing value. See {@link #sortPositions(int[])}
+     */
+    public MyElement(IEnvironment env, IntDomainVar index, int[] values, IntDomainVar var, int offset, int[] sorted) {
         super(index, var);
+        this.env = env;
         this.lval = values;
         this.cste = offset;
-        this.sortType = s;
+        this.sortedPos = sorted;
+    }
+
+    /**
+     * Make a new constraint.
+     *
+     * @param env    the solver environment
+     * @param index  the index variable
+     * @param values the table of values
+     * @param var    the value variable
+     * @param offset the offset between the index variable and the position in the table
+     */
+    public MyElement(IEnvironment env, IntDomainVar index, int[] values, IntDomainVar var, int offset) {
+        this(env, index, values, var, offset, sortPositions(values));
+    }
+
+    /**
+     * Make a new constraint with no offset.
+     *
+     * @param env    the solver environment
+     * @param index  the index variable
+     * @param values the table of values
+     * @param var    the value variable
+     */
+    public MyElement(IEnvironment env, IntDomainVar index, int[] values, IntDomainVar var) {
+        this(env, index, values, var, 0);
     }
 
-    public MyElement(IntDomainVar index, int[] values, IntDomainVar var) {
-        this(index, values, var, 0, Sort.none);
+    /**
+     * Sort the positions of a table by increasing value.
+     *
+     * @param values the table of values
+     * @return the positions of the table. The value at position {@code i} in the result
+     *         is lower or equals to the value at position {@code i + 1}
+     */
+    public static int[] sortPositions(int[] values) {
+        long[] pairs = new long[values.length];
+        for (int k = 0; k < values.length; k++) {
+            pairs[k] = ((long) values[k] << 32) | k;
+        }
+        Arrays.sort(pairs);
+        int[] sorted = new int[values.length];
+        for (int k = 0; k < pairs.length; k++) {
+            sorted[k] = (int) (pairs[k] & 0xFFFFFFFFL);
+        }
+        return sorted;
     }
 
     @Override
@@ -76,10 +147,21 @@ public final class MyElement extends AbstractBinIntSConstraint {
 
     @Override
     public int getFilteredEventMask(int idx) {
-        if (idx == 0) {
-            return IntVarEvent.INSTINT_MASK + IntVarEvent.REMVAL_MASK;
-        }
-        return IntVarEvent.REMVAL_MASK;
+        return IntVarEvent.INSTINT_MASK + IntVarEvent.INCINF_MASK + IntVarEvent.DECSUP_MASK + IntVarEvent.REMVAL_MASK;
+    }
+
+    @Override
+    public String pretty() {
+        return (this.v1.pretty() + " = nth(" + this.v0.pretty() + ", " + StringUtils.pretty(this.lval) + ")");
+    }
+
+    @Override
+    public void awake() throws ContradictionException {
+        lo = env.makeInt(0);
+        hi = env.makeInt(lval.length - 1);
+        minSupport = env.makeInt(-1);
+        maxSupport = env.makeInt(-1);
+        propagate();
     }
 
     /**
@@ -91,122 +173,141 @@ public final class MyElement extends AbstractBinIntSConstraint {
      */
     @Override
     public void propagate() throws ContradictionException {
-        this.updateIndexFromValue();
+        v0.updateInf(cste, this, false);
+        v0.updateSup(lval.length - 1 + cste, this, false);
+        filterFromValueBounds();
+        if (v1.hasEnumeratedDomain()) {
+            for (int k = lo.get(); k <= hi.get(); k++) {
+                if (!v1.canBeInstantiatedTo(lval[sortedPos[k]])) {
+                    removeIndex(sortedPos[k] + cste);
+                }
+            }
+        }
+        if (v0.isInstantiated()) {
+            v1.instantiate(lval[v0.getVal() - cste], this, false);
+        } else {
+            updateSupports();
+        }
     }
 
-    @Override
-    public String pretty() {
-        return (this.v1.pretty() + " = nth(" + this.v0.pretty() + ", " + StringUtils.pretty(this.lval) + ")");
+    /**
+     * Remove an index. The constraint is awaken to maintain the supports.
+     */
+    private void removeIndex(int idx) throws ContradictionException {
+        if (v0.canBeInstantiatedTo(idx)) {
+            v0.removeVal(idx, this, true);
+        }
     }
 
-    protected void updateValueFromIndex() throws ContradictionException {
-        if (sortType == Sort.descending) {
-            this.v1.updateInf(this.lval[v0.getSup() - cste], this, false);
-            this.v1.updateSup(this.lval[v0.getInf() - cste], this, false);
-        } else if (sortType == Sort.ascending) {
-            this.v1.updateInf(this.lval[v0.getInf() - cste], this, false);
-            this.v1.updateSup(this.lval[v0.getSup() - cste], this, false);
+    /**
+     * Remove the indexes having a value outside the bounds of the value variable.
+     */
+    private void filterFromValueBounds() throws ContradictionException {
+        int k = lo.get();
+        int inf = v1.getInf();
+        while (k <= hi.get() && lval[sortedPos[k]] < inf) {
+            removeIndex(sortedPos[k++] + cste);
+        }
+        lo.set(k);
+        k = hi.get();
+        int sup = v1.getSup();
+        while (k >= lo.get() && lval[sortedPos[k]] > sup) {
+            removeIndex(sortedPos[k--] + cste);
+        }
+        hi.set(k);
+    }
 
-        } else {
-            computeMinMaxValue();
+    /**
+     * Remove the indexes having a given value.
+     */
+    private void filterFromValue(int v) throws ContradictionException {
+        int from = lo.get();
+        int to = hi.get();
+        //First position having a value >= v
+        while (from < to) {
+            int m = (from + to) >>> 1;
+            if (lval[sortedPos[m]] < v) {
+                from = m + 1;
+            } else {
+                to = m;
+            }
+        }
+        for (int k = from; k <= hi.get() && lval[sortedPos[k]] == v; k++) {
+            removeIndex(sortedPos[k] + cste);
         }
-        // todo : <hcambaza> : why it does not perform AC on the value variable ?
     }
 
-    private void computeMinMaxValue() throws ContradictionException{
+    /**
+     * Compute the supports of the value bounds and update the value variable.
+     */
+    private void updateSupports() throws ContradictionException {
         int minVal = Integer.MAX_VALUE;
         int maxVal = Integer.MIN_VALUE;
+        int minIdx = -1;
+        int maxIdx = -1;
         DisposableIntIterator iter = this.v0.getDomain().getIterator();
-        boolean isDsc = true;
-        boolean isAsc = true;
-        int prev = this.lval[v0.getInf() - cste];
         try {
             while (iter.hasNext()) {
                 int index = iter.next();
                 int val = this.lval[index - cste];
                 if (minVal > val) {
                     minVal = val;
+                    minIdx = index;
                 }
                 if (maxVal < val) {
                     maxVal = val;
+                    maxIdx = index;
                 }
-                if (sortType == Sort.detect) {
-                    if (val > prev) {
-                        isDsc = false;
-                    }
-                    if (val < prev) {
-                        isAsc = false;
-                    }
-                }
-                prev = val;
             }
-            if (sortType == Sort.detect) {
-                if (isDsc) {
-                    sortType = Sort.descending;
-                } else if (isAsc) {
-                    sortType = Sort.ascending;
-                } else {
-                    sortType = Sort.none;
-                }
-            }
-            this.v1.updateInf(minVal, this, false);
-            this.v1.updateSup(maxVal, this, false);
         } finally {
             iter.dispose();
         }
-    }
-
-    protected void updateIndexFromValue() throws ContradictionException {
-        int minFeasibleIndex = Math.max(cste, this.v0.getInf());
-        int maxFeasibleIndex = Math.min(this.v0.getSup(), lval.length - 1 + cste);
-
-        if (minFeasibleIndex > maxFeasibleIndex) {
-            this.fail();
-        }
-
-        boolean forceAwake = !this.v1.hasEnumeratedDomain();
-
-        while ((this.v0.canBeInstantiatedTo(minFeasibleIndex))
-                && !(this.v1.canBeInstantiatedTo(lval[minFeasibleIndex - this.cste]))) {
-            minFeasibleIndex++;
-        }
-
-        this.v0.updateInf(minFeasibleIndex, this, forceAwake);
-
-        while ((this.v0.canBeInstantiatedTo(maxFeasibleIndex))
-                && !(this.v1.canBeInstantiatedTo(lval[maxFeasibleIndex - this.cste]))) {
-            maxFeasibleIndex--;
-        }
-        this.v0.updateSup(maxFeasibleIndex, this, forceAwake);
-
-        if (this.v0.hasEnumeratedDomain()) {
-            for (int i = minFeasibleIndex + 1; i <= maxFeasibleIndex - 1; i++) {
-                if (this.v0.canBeInstantiatedTo(i) && !(this.v1.canBeInstantiatedTo(this.lval[i - this.cste]))) {
-                    this.v0.removeVal(i, this, forceAwake);
-                }
-            }
+        if (minIdx < 0) {
+            fail();
         }
+        minSupport.set(minIdx);
+        maxSupport.set(maxIdx);
+        this.v1.updateInf(minVal, this, false);
+        this.v1.updateSup(maxVal, this, false);
     }
 
-    @Override
-    public void awake() throws ContradictionException {
-        this.updateIndexFromValue();
-        this.updateValueFromIndex();
+    private boolean supportsLost() {
+        return !v0.canBeInstantiatedTo(minSupport.get()) || !v0.canBeInstantiatedTo(maxSupport.get());
     }
 
     @Override
     public void awakeOnInst(int i) throws ContradictionException {
         if (i == 0) {
             this.v1.instantiate(this.lval[this.v0.getVal() - this.cste], this, false);
+        } else {
+            filterFromValueBounds();
         }
     }
 
+    @Override
+    public void awakeOnInf(int i) throws ContradictionException {
+        if (i == 0) {
+            if (supportsLost()) {
+                updateSupports();
+            }
+        } else {
+            filterFromValueBounds();
+        }
+    }
+
+    @Override
+    public void awakeOnSup(int i) throws ContradictionException {
+        awakeOnInf(i);
+    }
+
     @Override
     public void awakeOnRem(int i, int x) throws ContradictionException {
         if (i == 0) {
-            this.updateValueFromIndex();
+            if (x == minSupport.get() || x == maxSupport.get()) {
+                updateSupports();
+            }
         } else {
-            this.updateIndexFromValue();
+            filterFromValue(x);
         }
     }
 
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package btrplace.solver.choco.chocoUtil;
+
+import choco.cp.solver.variables.integer.IntVarEvent;
+import choco.kernel.solver.ContradictionException;
+import choco.kernel.solver.constraints.integer.AbstractLargeIntSConstraint;
+import choco.kernel.solver.variables.integer.IntDomainVar;
+
+/**
+ * A constraint to bound an objective variable with a bound that can be tightened during the search.
+ * For a minimization problem, the objective must be lower or equals to the bound, while
+ * for a maximization problem, it must be greater or equals to the bound.
+ * <p/>
+ * The bound is not stored in the solver environment so it survives the backtracks.
+ * It is then enforced again each time one of the watched variables is instantiated.
+ * The check is constant-time, so the constraint can be posted over all the variables
+ * of the problem.
+ * <p/>
+ * As the bound is not restored on backtrack, it can only be relaxed once the search is
+ * restarted from a state where the objective was not yet restricted. See {@link #relax(int)}.
+ *
+ * @author Fabien Hermenier
+ */
+public class ObjectiveBound extends AbstractLargeIntSConstraint {
+
+    private boolean minimize;
+
+    private int bound;
+
+    /**
+     * Make a new constraint.
+     *
+     * @param obj      the objective variable
+     * @param vs       the other variables to watch
+     * @param minimize {@code true} for a minimization problem, {@code false} for a maximization problem
+     */
+    public ObjectiveBound(IntDomainVar obj, IntDomainVar[] vs, boolean minimize) {
+        super(prepend(obj, vs));
+        this.minimize = minimize;
+        bound = minimize ? obj.getSup() : obj.getInf();
+    }
+
+    private static IntDomainVar[] prepend(IntDomainVar obj, IntDomainVar[] vs) {
+        IntDomainVar[] all = new IntDomainVar[vs.length + 1];
+        all[0] = obj;
+        System.arraycopy(vs, 0, all, 1, vs.length);
+        return all;
+    }
+
+    /**
+     * Get the current bound.
+     *
+     * @return the bound
+     */
+    public int getBound() {
+        return bound;
+    }
+
+    /**
+     * Tighten the bound.
+     * A bound that is looser than the current one is ignored.
+     *
+     * @param b the new bound
+     * @return {@code true} iff the bound has been tightened
+     */
+    public boolean tighten(int b) {
+        if (minimize ? b < bound : b > bound) {
+            bound = b;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Relax the bound.
+     * A bound that is tighter than the current one is ignored.
+     * The solutions pruned with the previous bound are not restored, so the search
+     * must be restarted to consider them.
+     *
+     * @param b the new bound
+     * @return {@code true} iff the bound has been relaxed
+     */
+    public boolean relax(int b) {
+        if (minimize ? b > bound : b < bound) {
+            bound = b;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Indicates the direction of the bound.
+     *
+     * @return {@code true} for a minimization problem, {@code false} for a maximization problem
+     */
+    public boolean isMinimizing() {
+        return minimize;
+    }
+
+    @Override
+    public int getFilteredEventMask(int idx) {
+        return IntVarEvent.INSTINT_MASK;
+    }
+
+    @Override
+    public void awake() throws ContradictionException {
+        propagate();
+    }
+
+    @Override
+    public void propagate() throws ContradictionException {
+        if (minimize) {
+            vars[0].updateSup(bound, this, false);
+        } else {
+            vars[0].updateInf(bound, this, false);
+        }
+    }
+
+    @Override
+    public void awakeOnInst(int idx) throws ContradictionException {
+        propagate();
+    }
+
+    @Override
+    public boolean isSatisfied(int[] tuple) {
+        return minimize ? tuple[0] <= bound : tuple[0] >= bound;
+    }
+
+    @Override
+    public String pretty() {
+        return vars[0].getName() + (minimize ? " <= " : " >= ") + bound;
+    }
+}
@@ -32,6 +32,11 @@ import gnu.trove.TIntArrayList;
 
 /**
  * Kind of a precedence constraint when there is multiple resources.
+ * <p/>
+ * The horizons of the resources are maintained incrementally.
+ * As the LB of an end variable can only increase, the horizon LB is updated in constant time.
+ * For the horizon UB, a task whose end UB is the horizon UB is remembered, so the horizon UB is
+ * only recomputed when the UB of this task decreases.
  *
  * @author Fabien Hermenier
  */
@@ -57,6 +62,11 @@ public class Precedences extends AbstractLargeIntSConstraint {
      */
     private IStateInt[] horizonUB;
 
+    /**
+     * For each resource, a task having the horizon upper bound as end UB. {@code -1} if no task.
+     */
+    private IStateInt[] ubWitness;
+
     private IEnvironment env;
 
     /**
@@ -82,6 +92,7 @@ public class Precedences extends AbstractLargeIntSConstraint {
         //TODO: reduce the array size, to reduce memory footprint
         horizonLB = new IStateInt[host.getSup() + 1];
         horizonUB = new IStateInt[host.getSup() + 1];
+        ubWitness = new IStateInt[host.getSup() + 1];
         endsByHost = new int[host.getSup() + 1][];
 
         TIntArrayList[] l = new TIntArrayList[endsByHost.length];
@@ -89,6 +100,7 @@ public class Precedences extends AbstractLargeIntSConstraint {
         for (int i = 0; i < horizonUB.length; i++) {
             horizonLB[i] = env.makeInt(0);
             horizonUB[i] = env.makeInt(0);
+            ubWitness[i] = env.makeInt(-1);
             l[i] = new TIntArrayList();
         }
 
@@ -99,7 +111,10 @@ public class Precedences extends AbstractLargeIntSConstraint {
             if (p < horizonUB.length) {
                 //The other is on a possible host
                 horizonLB[p].set(Math.max(lb, horizonLB[p].get()));
-                horizonUB[p].set(Math.max(ub, horizonUB[p].get()));
+                if (ubWitness[p].get() < 0 || ub > horizonUB[p].get()) {
+                    horizonUB[p].set(ub);
+                    ubWitness[p].set(i);
+                }
                 l[p].add(i);
             }
         }
@@ -124,7 +139,7 @@ public class Precedences extends AbstractLargeIntSConstraint {
         switch (idx) {
             case 0:
                 //The host variable has been instantiated, so its LB can be updated to the LB of the host.
-                start.setInf(horizonLB[idx].get());
+                start.setInf(horizonLB[host.getVal()].get());
                 break;
             case 1:
                 //The moment the task starts has been instantiated
@@ -134,10 +149,16 @@ public class Precedences extends AbstractLargeIntSConstraint {
                 try {
                     while (it.hasNext()) {
                         int h = it.next();
+                        if (horizonUB[h].get() <= st) {
+                            //All the other tasks already end on time
+                            continue;
+                        }
                         for (int i : endsByHost[h]) {
                             //The task can go on the resource
                             //the other task must end after this one, so we adjust its UB
-                            othersEnd[i].setSup(st);
+                            if (othersEnd[i].getSup() > st) {
+                                othersEnd[i].setSup(st);
+                            }
                         }
                     }
                 } finally {
@@ -148,8 +169,9 @@ public class Precedences extends AbstractLargeIntSConstraint {
                 //The moment a placed tasks ends
                 int o = idx - 2;
                 int h = othersHost[o];
-                recomputeHorizonForHost(h);
-                //We recompute the horizon of the associated host
+                //We update the horizon of the associated host
+                increaseHorizonLB(o);
+                decreaseHorizonUB(o);
 
                 if (host.isInstantiatedTo(h)) {
                     start.setInf(horizonLB[h].get());
@@ -173,16 +195,38 @@ public class Precedences extends AbstractLargeIntSConstraint {
         constAwake(false);
     }
 
-    private void recomputeHorizonForHost(int h) {
-        if (h < horizonUB.length) {
-            int lb = 0, ub = 0;
+    /**
+     * Update the horizon LB of the host of a task once the LB of its end increased.
+     *
+     * @param o the task index
+     */
+    private void increaseHorizonLB(int o) {
+        int h = othersHost[o];
+        if (h < horizonLB.length && othersEnd[o].getInf() > horizonLB[h].get()) {
+            horizonLB[h].set(othersEnd[o].getInf());
+        }
+    }
+
+    /**
+     * Update the horizon UB of the host of a task once the UB of its end decreased.
+     * The UB is recomputed only if the task was the witness of the horizon UB.
+     *
+     * @param o the task index
+     */
+    private void decreaseHorizonUB(int o) {
+        int h = othersHost[o];
+        if (h < horizonUB.length && ubWitness[h].get() == o && othersEnd[o].getSup() < horizonUB[h].get()) {
+            int ub = 0;
+            int w = -1;
             for (int id : endsByHost[h]) {
-                IntDomainVar end = othersEnd[id];
-                lb = Math.max(end.getInf(), lb);
-                ub = Math.max(end.getSup(), ub);
+                int s = othersEnd[id].getSup();
+                if (w < 0 || s > ub) {
+                    ub = s;
+                    w = id;
+                }
             }
-            horizonLB[h].set(lb);
             horizonUB[h].set(ub);
+            ubWitness[h].set(w);
         }
     }
 
@@ -191,7 +235,7 @@ public class Precedences extends AbstractLargeIntSConstraint {
         if (idx >= 2) {
             int o = idx - 2;
             int h = othersHost[o];
-            recomputeHorizonForHost(h);
+            increaseHorizonLB(o);
             if (host.isInstantiatedTo(h)) {
                 start.setInf(horizonLB[h].get());
             }
@@ -202,9 +246,7 @@ public class Precedences extends AbstractLargeIntSConstraint {
     @Override
     public void awakeOnSup(int idx) throws ContradictionException {
         if (idx >= 2) {
-            int o = idx - 2;
-            int h = othersHost[o];
-            recomputeHorizonForHost(h);
+            decreaseHorizonUB(idx - 2);
         }
         constAwake(false);
     }
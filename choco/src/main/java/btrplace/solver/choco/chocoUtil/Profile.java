@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.chocoUtil;
+
+import java.util.Arrays;
+
+/**
+ * A resource profile on preallocated primitive arrays.
+ * The usage variations are stored as events that are sorted by moment
+ * then accumulated to get the absolute usage at each distinct moment.
+ * The arrays are re-used from one computation to another and only grow
+ * when there is more events than ever.
+ *
+ * @author Fabien Hermenier
+ */
+final class Profile {
+
+    private int nbDims;
+
+    /**
+     * The events. The moment in the 32 upper bits, the event index in the lower bits.
+     */
+    private long[] events;
+
+    /**
+     * The usage variation of each event, per dimension.
+     */
+    private int[][] deltas;
+
+    private int nbEvents;
+
+    /**
+     * The distinct moments, in ascending order.
+     */
+    private int[] moments;
+
+    /**
+     * The absolute usage at each moment, per dimension.
+     */
+    private int[][] usages;
+
+    private int nbMoments;
+
+    public Profile(int nbDims, int capacity) {
+        this.nbDims = nbDims;
+        int c = Math.max(capacity, 1);
+        events = new long[c];
+        moments = new int[c];
+        deltas = new int[nbDims][c];
+        usages = new int[nbDims][c];
+    }
+
+    public void reset() {
+        nbEvents = 0;
+        nbMoments = 0;
+    }
+
+    private int newEvent(int t) {
+        if (nbEvents == events.length) {
+            int c = events.length * 2;
+            events = Arrays.copyOf(events, c);
+            moments = Arrays.copyOf(moments, c);
+            for (int i = 0; i < nbDims; i++) {
+                deltas[i] = Arrays.copyOf(deltas[i], c);
+                usages[i] = Arrays.copyOf(usages[i], c);
+            }
+        }
+        events[nbEvents] = ((long) t << 32) | nbEvents;
+        return nbEvents++;
+    }
+
+    /**
+     * Add an usage variation.
+     *
+     * @param t the moment
+     * @param d the variation for each dimension
+     */
+    public void add(int t, int[] d) {
+        int e = newEvent(t);
+        for (int i = 0; i < nbDims; i++) {
+            deltas[i][e] = d[i];
+        }
+    }
+
+    /**
+     * Add the usage variation of an element.
+     *
+     * @param t      the moment
+     * @param usages the usages of the elements, per dimension
+     * @param j      the element index
+     * @param sign   {@code 1} for an increasing usage, {@code -1} for a decreasing usage
+     */
+    public void add(int t, int[][] usages, int j, int sign) {
+        int e = newEvent(t);
+        for (int i = 0; i < nbDims; i++) {
+            deltas[i][e] = sign * usages[i][j];
+        }
+    }
+
+    /**
+     * Sort the events and accumulate them into the absolute usage at each moment.
+     */
+    public void build() {
+        Arrays.sort(events, 0, nbEvents);
+        nbMoments = 0;
+        for (int k = 0; k < nbEvents; k++) {
+            int t = (int) (events[k] >> 32);
+            int e = (int) (events[k] & 0xFFFFFFFFL);
+            if (nbMoments == 0 || moments[nbMoments - 1] != t) {
+                moments[nbMoments] = t;
+                for (int i = 0; i < nbDims; i++) {
+                    usages[i][nbMoments] = nbMoments == 0 ? 0 : usages[i][nbMoments - 1];
+                }
+                nbMoments++;
+            }
+            for (int i = 0; i < nbDims; i++) {
+                usages[i][nbMoments - 1] += deltas[i][e];
+            }
+        }
+    }
+
+    /**
+     * Get the number of distinct moments.
+     *
+     * @return a positive integer
+     */
+    public int size() {
+        return nbMoments;
+    }
+
+    /**
+     * Get a moment.
+     *
+     * @param x the moment index, between 0 and {@code size() - 1}
+     * @return the moment
+     */
+    public int moment(int x) {
+        return moments[x];
+    }
+
+    /**
+     * Get the absolute usage at a moment.
+     *
+     * @param dim the dimension
+     * @param x   the moment index, between 0 and {@code size() - 1}
+     * @return the usage
+     */
+    public int usage(int dim, int x) {
+        return usages[dim][x];
+    }
+
+    public String pretty(int dim) {
+        StringBuilder b = new StringBuilder();
+        for (int x = 0; x < nbMoments; x++) {
+            b.append(moments[x]).append(':').append(usages[dim][x]);
+            if (x != nbMoments - 1) {
+                b.append(' ');
+            }
+        }
+        return b.toString();
+    }
+}
@@ -0,0 +1,164 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.chocoUtil;
+
+import choco.kernel.memory.IEnvironment;
+import choco.kernel.memory.IStateInt;
+
+import java.util.Arrays;
+
+/**
+ * Reversible sparse sets to store the candidate items of each bin.
+ * The memory usage is proportional to the initial number of (item, bin) candidate
+ * pairs rather than to the number of bins times the number of items.
+ * Each pair costs about 12 bytes (its slot in the candidates of the bin, the bin index
+ * and the position for the item) while a bitset costs 1 bit per pair. So the sparse sets
+ * only use less memory when the initial domains of the items are sparse.
+ * <p/>
+ * The candidates of a bin are stored in an array where the remaining candidates come first.
+ * A removal swaps the item with the last remaining candidate and decreases
+ * the number of remaining candidates. So only one integer per bin is trailed.
+ * The candidates of a bin are not ordered.
+ *
+ * @author Fabien Hermenier
+ */
+public class SparseCandidates {
+
+    /**
+     * The candidate items of each bin, the remaining candidates first. [nbBins][]
+     */
+    private int[][] items;
+
+    /**
+     * The number of remaining candidates of each bin. [nbBins]
+     */
+    private IStateInt[] sizes;
+
+    /**
+     * The initial candidate bins of each item, in ascending order. [nbItems][]
+     */
+    private int[][] itemBins;
+
+    /**
+     * The position of each item in the candidates of its bins.
+     * Same order as {@link #itemBins}. [nbItems][]
+     */
+    private int[][] positions;
+
+    /**
+     * Make new sets of candidates.
+     *
+     * @param env    the solver environment
+     * @param nbBins the number of bins
+     * @param bins   the initial candidate bins of each item, in ascending order
+     */
+    public SparseCandidates(IEnvironment env, int nbBins, int[][] bins) {
+        itemBins = bins;
+        int[] counts = new int[nbBins];
+        for (int[] bs : bins) {
+            for (int b : bs) {
+                counts[b]++;
+            }
+        }
+        items = new int[nbBins][];
+        sizes = new IStateInt[nbBins];
+        for (int b = 0; b < nbBins; b++) {
+            items[b] = new int[counts[b]];
+            sizes[b] = env.makeInt(counts[b]);
+            counts[b] = 0;
+        }
+        positions = new int[bins.length][];
+        for (int i = 0; i < bins.length; i++) {
+            positions[i] = new int[bins[i].length];
+            for (int x = 0; x < bins[i].length; x++) {
+                int b = bins[i][x];
+                positions[i][x] = counts[b];
+                items[b][counts[b]++] = i;
+            }
+        }
+    }
+
+    /**
+     * Check if an item is a candidate for a bin.
+     *
+     * @param bin  the bin index
+     * @param item the item index
+     * @return {@code true} iff the item is a remaining candidate
+     */
+    public boolean contains(int bin, int item) {
+        int x = Arrays.binarySearch(itemBins[item], bin);
+        return x >= 0 && positions[item][x] < sizes[bin].get();
+    }
+
+    /**
+     * Remove an item from the candidates of a bin.
+     *
+     * @param bin  the bin index
+     * @param item the item index
+     * @return {@code true} iff the item was a candidate
+     */
+    public boolean remove(int bin, int item) {
+        int x = Arrays.binarySearch(itemBins[item], bin);
+        if (x < 0) {
+            return false;
+        }
+        int p = positions[item][x];
+        int last = sizes[bin].get() - 1;
+        if (p > last) {
+            return false;
+        }
+        int other = items[bin][last];
+        items[bin][last] = item;
+        items[bin][p] = other;
+        positions[other][Arrays.binarySearch(itemBins[other], bin)] = p;
+        positions[item][x] = last;
+        sizes[bin].add(-1);
+        return true;
+    }
+
+    /**
+     * Get the number of remaining candidates of a bin.
+     *
+     * @param bin the bin index
+     * @return a positive number
+     */
+    public int size(int bin) {
+        return sizes[bin].get();
+    }
+
+    /**
+     * Check if a bin has no remaining candidates.
+     *
+     * @param bin the bin index
+     * @return {@code true} iff there is no candidates
+     */
+    public boolean isEmpty(int bin) {
+        return sizes[bin].get() == 0;
+    }
+
+    /**
+     * Get a remaining candidate of a bin.
+     *
+     * @param bin the bin index
+     * @param k   the position of the candidate, between 0 and {@code size(bin) - 1}
+     * @return the item index
+     */
+    public int get(int bin, int k) {
+        return items[bin][k];
+    }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.chocoUtil;
+
+import choco.cp.solver.variables.integer.IntVarEvent;
+import choco.kernel.solver.ContradictionException;
+import choco.kernel.solver.constraints.integer.AbstractLargeIntSConstraint;
+import choco.kernel.solver.variables.integer.IntDomainVar;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A constraint to stop a search from another thread.
+ * As the solver ignores the interruptions, the constraint checks a shared flag
+ * each time one of its variables is instantiated and fails once the flag is set.
+ * The search then ends quickly without any new solution.
+ * <p/>
+ * The check is constant-time, so the constraint can be posted over all the variables
+ * of the problem.
+ *
+ * @author Fabien Hermenier
+ */
+public class StopSwitch extends AbstractLargeIntSConstraint {
+
+    private AtomicBoolean stop;
+
+    /**
+     * Make a new constraint.
+     *
+     * @param vs the variables to watch
+     * @param s  the flag to check. The search stops once it is set to {@code true}
+     */
+    public StopSwitch(IntDomainVar[] vs, AtomicBoolean s) {
+        super(vs);
+        stop = s;
+    }
+
+    @Override
+    public int getFilteredEventMask(int idx) {
+        return IntVarEvent.INSTINT_MASK;
+    }
+
+    @Override
+    public void awake() throws ContradictionException {
+        propagate();
+    }
+
+    @Override
+    public void propagate() throws ContradictionException {
+        if (stop.get()) {
+            fail();
+        }
+    }
+
+    @Override
+    public void awakeOnInst(int idx) throws ContradictionException {
+        propagate();
+    }
+
+    @Override
+    public boolean isSatisfied(int[] tuple) {
+        return true;
+    }
+
+    @Override
+    public String pretty() {
+        return "stopSwitch(" + stop.get() + ")";
+    }
+}
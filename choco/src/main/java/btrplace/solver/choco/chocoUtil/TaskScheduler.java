@@ -21,6 +21,7 @@ import choco.cp.solver.variables.integer.IntVarEvent;
 import choco.kernel.common.logging.ChocoLogging;
 import choco.kernel.common.util.tools.ArrayUtils;
 import choco.kernel.memory.IEnvironment;
+import choco.kernel.memory.IStateBool;
 import choco.kernel.memory.IStateInt;
 import choco.kernel.memory.IStateIntVector;
 import choco.kernel.solver.ContradictionException;
@@ -39,6 +40,15 @@ import java.util.logging.Level;
  * There is only 2 kind of tasks. cTasks that are already placed and necessarily starts at 0 and dTasks that
  * are not placed but end necessarily at the end of the schedule.
  * Inspired by the cumulatives constraint.
+ * <p/>
+ * By default, the filtering is incremental. Once all the dTasks are placed, every resource is checked.
+ * Then, only the resources hosting a task whose variables changed since the
+ * last propagation are checked again. The bounds of the moments are watched so the
+ * changes made by the other constraints are filtered without waiting for an instantiation.
+ * Otherwise, every resource is checked at each propagation.
+ * <p/>
+ * With the eager filtering, the resources are also checked while some dTasks are not placed, using only
+ * the placed ones. This detects the overloaded resources and reduces the start moments earlier in the search.
  *
  * @author Fabien Hermenier
  */
@@ -70,6 +80,20 @@ public class TaskScheduler extends AbstractLargeIntSConstraint {
 
     private IStateIntVector[] vIns;
 
+    /**
+     * The resources to check at the next propagation.
+     */
+    private BitSet dirty;
+
+    /**
+     * Indicates if all the resources have been checked since all the dTasks were placed.
+     */
+    private IStateBool allChecked;
+
+    private boolean eager = false;
+
+    private boolean incremental = true;
+
     /**
      * Make a new constraint.
      *
@@ -118,6 +142,7 @@ public class TaskScheduler extends AbstractLargeIntSConstraint {
         int nbCTasks = cUsages[0].length;
 
         scheds = new LocalTaskScheduler[nbResources];
+        dirty = new BitSet(nbResources);
 
         BitSet[] outs = new BitSet[scheds.length];
         for (int i = 0; i < scheds.length; i++) {
@@ -163,6 +188,7 @@ public class TaskScheduler extends AbstractLargeIntSConstraint {
     public void awake() throws ContradictionException {
 
         this.toInstantiate = env.makeInt(dHosters.length);
+        this.allChecked = env.makeBool(false);
 
         //Check whether some hosting variable are already instantiated
         for (int i = 0; i < dHosters.length; i++) {
@@ -174,34 +200,130 @@ public class TaskScheduler extends AbstractLargeIntSConstraint {
         }
     }
 
+    /**
+     * State if the resources must be checked while some dTasks are not placed.
+     *
+     * @param b {@code true} to enable the eager filtering
+     */
+    public void setEagerFiltering(boolean b) {
+        eager = b;
+    }
+
+    /**
+     * Indicates if the resources are checked while some dTasks are not placed.
+     *
+     * @return {@code true} iff the eager filtering is enabled
+     */
+    public boolean isEagerFiltering() {
+        return eager;
+    }
+
+    /**
+     * State if only the resources that changed since the last propagation must be checked.
+     *
+     * @param b {@code true} to enable the incremental filtering. {@code false} to check every resource
+     */
+    public void setIncrementalFiltering(boolean b) {
+        incremental = b;
+    }
+
+    /**
+     * Indicates if only the resources that changed since the last propagation are checked.
+     *
+     * @return {@code true} iff the incremental filtering is enabled
+     */
+    public boolean isIncrementalFiltering() {
+        return incremental;
+    }
+
     @Override
     public void propagate() throws ContradictionException {
+        if (!incremental) {
+            dirty.set(0, scheds.length);
+        }
         if (isFull2()) {
-            for (int i = 0; i < scheds.length; i++) {
+            if (!allChecked.get()) {
+                allChecked.set(true);
+                dirty.set(0, scheds.length);
+            }
+            for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+                dirty.clear(i);
                 if (!scheds[i].propagate()) {
                     fail();
                 }
             }
+        } else if (eager) {
+            for (int i = dirty.nextSetBit(0); i >= 0; i = dirty.nextSetBit(i + 1)) {
+                dirty.clear(i);
+                if (!scheds[i].propagateEarly()) {
+                    fail();
+                }
+            }
         }
     }
 
     @Override
     public void awakeOnInst(int idx) throws ContradictionException {
-        if (idx < dHosters.length) {
+        int nbD = dHosters.length;
+        int nbC = cHosters.length;
+        if (idx < nbD) {
             toInstantiate.add(-1);
             int nIdx = vars[idx].getVal();
             vIns[nIdx].add(idx);
+            dirty.set(nIdx);
+        } else if (idx < nbD + nbC) {
+            //The cTasks are placed from the beginning
+            return;
+        } else {
+            markDirty(idx);
         }
         this.constAwake(false);
     }
 
+    @Override
+    public void awakeOnInf(int idx) throws ContradictionException {
+        markDirty(idx);
+        this.constAwake(false);
+    }
+
+    @Override
+    public void awakeOnSup(int idx) throws ContradictionException {
+        markDirty(idx);
+        this.constAwake(false);
+    }
+
+    /**
+     * Mark the resource related to a moment that changed.
+     *
+     * @param idx the index of the moment variable
+     */
+    private void markDirty(int idx) {
+        int nbD = dHosters.length;
+        int nbC = cHosters.length;
+        if (idx < nbD + 2 * nbC) {
+            dirty.set(cHosters[idx - nbD - nbC].getVal());
+        } else if (idx < 2 * nbD + 2 * nbC) {
+            int j = idx - nbD - 2 * nbC;
+            if (dHosters[j].isInstantiated()) {
+                dirty.set(dHosters[j].getVal());
+            }
+        } else {
+            //earlyStarts then lastEnds
+            dirty.set((idx - 2 * nbD - 2 * nbC) % nbResources);
+        }
+    }
+
     private boolean isFull2() {
         return toInstantiate.get() == 0;
     }
 
     @Override
     public int getFilteredEventMask(int idx) {
-        return IntVarEvent.INSTINT_MASK;
+        if (idx < dHosters.length + cHosters.length) {
+            return IntVarEvent.INSTINT_MASK;
+        }
+        //The moments
+        return IntVarEvent.INSTINT_MASK + IntVarEvent.BOUNDS_MASK;
     }
 
     @Override
@@ -134,9 +134,11 @@ public class CAmong implements ChocoConstraint {
                     //In any case, the VMs cannot go to nodes that are in no groups
                     new CFence(new Fence(runnings, new HashSet<>(possibleNodes))).inject(rp);
                     //We link the VM placement variable with the group variable
+                    //The table is the same for every VM so it is sorted only once
+                    int[] sorted = MyElement.sortPositions(grps);
                     for (VM vm : runnings) {
                         IntDomainVar assign = rp.getVMAction(vm).getDSlice().getHoster();
-                        SConstraint c = new MyElement(assign, grps, vmGrpId, 0, MyElement.Sort.detect);
+                        SConstraint c = new MyElement(rp.getSolver().getEnvironment(), assign, grps, vmGrpId, 0, sorted);
                         rp.getSolver().post(c);
                     }
                 } else {
@@ -40,6 +40,7 @@ import choco.kernel.solver.Configuration;
 import choco.kernel.solver.ContradictionException;
 import choco.kernel.solver.ResolutionPolicy;
 import choco.kernel.solver.constraints.SConstraint;
+import choco.kernel.solver.search.ValSelector;
 import choco.kernel.solver.variables.integer.IntDomainVar;
 
 import java.util.*;
@@ -57,11 +58,33 @@ public class CMinMTTR implements btrplace.solver.choco.constraint.CObjective {
 
     private ReconfigurationProblem rp;
 
+    private CapacityAwareVMPlacement.Policy policy;
+
     /**
      * Make a new objective.
+     * The VMs are placed using a {@link CapacityAwareVMPlacement.Policy#WORST_FIT} policy.
      */
     public CMinMTTR() {
+        this(CapacityAwareVMPlacement.Policy.WORST_FIT);
+    }
+
+    /**
+     * Make a new objective.
+     *
+     * @param po the policy to use to place the VMs
+     */
+    public CMinMTTR(CapacityAwareVMPlacement.Policy po) {
         costConstraints = new ArrayList<>();
+        policy = po;
+    }
+
+    /**
+     * Get the policy used to place the VMs.
+     *
+     * @return the policy
+     */
+    public CapacityAwareVMPlacement.Policy getPlacementPolicy() {
+        return policy;
     }
 
     @Override
@@ -142,13 +165,13 @@ public class CMinMTTR implements btrplace.solver.choco.constraint.CObjective {
         }
         Map<IntDomainVar, VM> pla = VMPlacementUtils.makePlacementMap(p);
 
-        s.addGoal(new AssignVar(new MovingVMs("movingVMs", p, map, vmsToExclude), new RandomVMPlacement("movingVMs", p, pla, true)));
+        s.addGoal(new AssignVar(new MovingVMs("movingVMs", p, map, vmsToExclude), placement(p, pla)));
         HostingVariableSelector selectForBads = new HostingVariableSelector("selectForBads", p, ActionModelUtils.getDSlices(badActions), schedHeuristic);
-        s.addGoal(new AssignVar(selectForBads, new RandomVMPlacement("selectForBads", p, pla, true)));
+        s.addGoal(new AssignVar(selectForBads, placement(p, pla)));
 
 
         HostingVariableSelector selectForGoods = new HostingVariableSelector("selectForGoods", p, ActionModelUtils.getDSlices(goodActions), schedHeuristic);
-        s.addGoal(new AssignVar(selectForGoods, new RandomVMPlacement("selectForGoods", p, pla, true)));
+        s.addGoal(new AssignVar(selectForGoods, placement(p, pla)));
 
         //VMs to run
         Set<VM> vmsToRun = new HashSet<>(map.getReadyVMs());
@@ -160,7 +183,7 @@ public class CMinMTTR implements btrplace.solver.choco.constraint.CObjective {
             runActions[i++] = p.getVMAction(vm);
         }
         HostingVariableSelector selectForRuns = new HostingVariableSelector("selectForRuns", p, ActionModelUtils.getDSlices(runActions), schedHeuristic);
-        s.addGoal(new AssignVar(selectForRuns, new RandomVMPlacement("selectForRuns", p, pla, true)));
+        s.addGoal(new AssignVar(selectForRuns, placement(p, pla)));
 
         s.addGoal(new AssignVar(new StartingNodes("startingNodes", p, p.getNodeActions()), new MinVal()));
         ///SCHEDULING PROBLEM
@@ -170,6 +193,20 @@ public class CMinMTTR implements btrplace.solver.choco.constraint.CObjective {
         s.addGoal(new AssignVar(new StaticVarOrder(p.getSolver(), new IntDomainVar[]{p.getEnd(), cost}), new MinVal()));
     }
 
+    /**
+     * Make the heuristic to place the VMs.
+     * The VMs are placed according to the remaining capacity of the nodes,
+     * but they stay on their current node if possible.
+     * When a placement hint is available, it is followed first.
+     */
+    private ValSelector<IntDomainVar> placement(ReconfigurationProblem p, Map<IntDomainVar, VM> pla) {
+        ValSelector<IntDomainVar> fit = new CapacityAwareVMPlacement(p, pla, policy, true);
+        if (p.getPlacementHint() == null) {
+            return fit;
+        }
+        return new HintedVMPlacement(p, pla, p.getPlacementHint(), fit);
+    }
+
     @Override
     public Set<VM> getMisPlacedVMs(Model m) {
         return Collections.emptySet();
@@ -200,6 +237,26 @@ public class CMinMTTR implements btrplace.solver.choco.constraint.CObjective {
      * Builder associated to the constraint.
      */
     public static class Builder implements ChocoConstraintBuilder {
+
+        private CapacityAwareVMPlacement.Policy policy;
+
+        /**
+         * Make a new builder.
+         * The VMs are placed using a {@link CapacityAwareVMPlacement.Policy#WORST_FIT} policy.
+         */
+        public Builder() {
+            this(CapacityAwareVMPlacement.Policy.WORST_FIT);
+        }
+
+        /**
+         * Make a new builder.
+         *
+         * @param po the policy to use to place the VMs
+         */
+        public Builder(CapacityAwareVMPlacement.Policy po) {
+            policy = po;
+        }
+
         @Override
         public Class<? extends Constraint> getKey() {
             return MinMTTR.class;
@@ -207,7 +264,7 @@ public class CMinMTTR implements btrplace.solver.choco.constraint.CObjective {
 
         @Override
         public CMinMTTR build(Constraint cstr) {
-            return new CMinMTTR();
+            return new CMinMTTR(policy);
         }
     }
 }
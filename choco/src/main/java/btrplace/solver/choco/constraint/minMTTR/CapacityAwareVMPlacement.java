@@ -0,0 +1,219 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.constraint.minMTTR;
+
+import btrplace.model.VM;
+import btrplace.solver.choco.ReconfigurationProblem;
+import btrplace.solver.choco.view.CShareableResource;
+import btrplace.solver.choco.view.ChocoModelView;
+import choco.kernel.common.util.iterators.DisposableIntIterator;
+import choco.kernel.solver.search.ValSelector;
+import choco.kernel.solver.variables.integer.IntDomainVar;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A heuristic to place a VM on the node that fits the best its resource demands.
+ * The nodes are ranked according to their remaining slack over all the
+ * {@link CShareableResource} dimensions. The slack is the node capacity minus the lower bound of
+ * the node load that is maintained by the bin packing constraints so the ranking
+ * does not require any additional data structure.
+ * The nodes that cannot host the VM considering their slack are ranked last.
+ * The ties, including the case where there is no resource at all, are broken randomly.
+ * It is possible to force the VMs to stay on its current node if it is possible.
+ *
+ * @author Fabien Hermenier
+ */
+public class CapacityAwareVMPlacement implements ValSelector<IntDomainVar> {
+
+    /**
+     * The available policies to rank the nodes.
+     */
+    public static enum Policy {
+        /**
+         * Favor the nodes having the smallest slack once the VM is placed.
+         */
+        BEST_FIT,
+        /**
+         * Favor the nodes having the largest slack once the VM is placed.
+         */
+        WORST_FIT,
+        /**
+         * Favor the nodes where the slack is the most aligned with the VM demand.
+         */
+        DOT_PRODUCT
+    }
+
+    private boolean stay;
+
+    private ReconfigurationProblem rp;
+
+    private Map<IntDomainVar, VM> vmPlacement;
+
+    private Policy policy;
+
+    private IntDomainVar[][] loads;
+
+    private IntDomainVar[][] demands;
+
+    private int[][] capacities;
+
+    private Random rnd;
+
+    /**
+     * Make a new heuristic.
+     * The ties are broken using a generator seeded with {@code 0}.
+     *
+     * @param p           the problem to rely on
+     * @param pVarMapping a map to indicate the VM associated to each of the placement variable
+     * @param po          the policy to rank the nodes
+     * @param stayFirst   {@code true} to force an already VM to stay on its current node if possible
+     */
+    public CapacityAwareVMPlacement(ReconfigurationProblem p, Map<IntDomainVar, VM> pVarMapping, Policy po, boolean stayFirst) {
+        this(p, pVarMapping, po, stayFirst, 0);
+    }
+
+    /**
+     * Make a new heuristic.
+     *
+     * @param p           the problem to rely on
+     * @param pVarMapping a map to indicate the VM associated to each of the placement variable
+     * @param po          the policy to rank the nodes
+     * @param stayFirst   {@code true} to force an already VM to stay on its current node if possible
+     * @param seed        the seed of the generator that breaks the ties
+     */
+    public CapacityAwareVMPlacement(ReconfigurationProblem p, Map<IntDomainVar, VM> pVarMapping, Policy po, boolean stayFirst, long seed) {
+        rp = p;
+        vmPlacement = pVarMapping;
+        policy = po;
+        stay = stayFirst;
+        rnd = new Random(seed);
+    }
+
+    /**
+     * Get the policy used to rank the nodes.
+     *
+     * @return the policy
+     */
+    public Policy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Collect the node loads, the node capacities and the VM demands for each resource.
+     * The capacities are expressed in virtual units so they consider the overbooking ratios,
+     * that are fixed before the solving process.
+     */
+    private void collectDimensions() {
+        List<IntDomainVar[]> ls = new ArrayList<>();
+        List<IntDomainVar[]> ds = new ArrayList<>();
+        List<int[]> cs = new ArrayList<>();
+        for (ChocoModelView v : rp.getViews()) {
+            if (v instanceof CShareableResource) {
+                CShareableResource rc = (CShareableResource) v;
+                ls.add(rc.getVirtualUsage());
+                ds.add(rc.getVMsAllocation());
+                int[] capas = new int[rp.getNodes().length];
+                for (int n = 0; n < capas.length; n++) {
+                    double r = rc.getOverbookRatio(n).getSup();
+                    if (r == CShareableResource.UNCHECKED_RATIO) {
+                        r = 1;
+                    }
+                    capas[n] = (int) (rc.getSourceResource().getCapacity(rp.getNode(n)) * r);
+                }
+                cs.add(capas);
+            }
+        }
+        loads = ls.toArray(new IntDomainVar[ls.size()][]);
+        demands = ds.toArray(new IntDomainVar[ds.size()][]);
+        capacities = cs.toArray(new int[cs.size()][]);
+    }
+
+    /**
+     * Compute the score of a node for a VM. The lower, the better.
+     *
+     * @param vmIdx the VM index
+     * @param nIdx  the node index
+     * @return the score, or {@link Double#POSITIVE_INFINITY} if the node cannot host the VM
+     */
+    private double score(int vmIdx, int nIdx) {
+        double sc = 0;
+        for (int d = 0; d < loads.length; d++) {
+            int demand = Math.max(0, demands[d][vmIdx].getInf());
+            int free = capacities[d][nIdx] - loads[d][nIdx].getInf();
+            if (free < demand) {
+                return Double.POSITIVE_INFINITY;
+            }
+            double capa = Math.max(1, capacities[d][nIdx]);
+            switch (policy) {
+                case BEST_FIT:
+                    sc += (free - demand) / capa;
+                    break;
+                case WORST_FIT:
+                    sc -= (free - demand) / capa;
+                    break;
+                default:
+                    sc -= (demand / capa) * (free / capa);
+                    break;
+            }
+        }
+        return sc;
+    }
+
+    @Override
+    public int getBestVal(IntDomainVar x) {
+        VM vm = vmPlacement.get(x);
+        if (vm == null) {
+            return x.getInf();
+        }
+        if (stay && VMPlacementUtils.canStay(rp, vm)) {
+            return rp.getNode(rp.getSourceModel().getMapping().getVMLocation(vm));
+        }
+        if (x.isInstantiated()) {
+            return x.getVal();
+        }
+        if (loads == null) {
+            collectDimensions();
+        }
+        int vmIdx = rp.getVM(vm);
+        int best = -1;
+        double bestScore = 0;
+        int nbTies = 0;
+        DisposableIntIterator ite = x.getDomain().getIterator();
+        try {
+            while (ite.hasNext()) {
+                int n = ite.next();
+                double sc = score(vmIdx, n);
+                if (best == -1 || sc < bestScore) {
+                    best = n;
+                    bestScore = sc;
+                    nbTies = 1;
+                } else if (sc == bestScore && rnd.nextInt(++nbTies) == 0) {
+                    //Uniform choice among the best nodes
+                    best = n;
+                }
+            }
+        } finally {
+            ite.dispose();
+        }
+        return best;
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.constraint.minMTTR;
+
+import btrplace.model.Mapping;
+import btrplace.model.Node;
+import btrplace.model.VM;
+import btrplace.solver.choco.ReconfigurationProblem;
+import choco.kernel.solver.search.ValSelector;
+import choco.kernel.solver.variables.integer.IntDomainVar;
+
+import java.util.Map;
+
+/**
+ * A heuristic to place a VM on the node it is running on in a given mapping.
+ * When the VM is not running in the mapping, or when the node is no longer
+ * a possible value, the choice is delegated to another heuristic.
+ *
+ * @author Fabien Hermenier
+ */
+public class HintedVMPlacement implements ValSelector<IntDomainVar> {
+
+    private ReconfigurationProblem rp;
+
+    private Map<IntDomainVar, VM> vmPlacement;
+
+    private Mapping hint;
+
+    private ValSelector<IntDomainVar> fallback;
+
+    /**
+     * Make a new heuristic.
+     *
+     * @param p           the problem to rely on
+     * @param pVarMapping a map to indicate the VM associated to each of the placement variable
+     * @param m           the mapping to follow
+     * @param f           the heuristic to use when the mapping cannot be followed
+     */
+    public HintedVMPlacement(ReconfigurationProblem p, Map<IntDomainVar, VM> pVarMapping, Mapping m, ValSelector<IntDomainVar> f) {
+        rp = p;
+        vmPlacement = pVarMapping;
+        hint = m;
+        fallback = f;
+    }
+
+    @Override
+    public int getBestVal(IntDomainVar x) {
+        VM vm = vmPlacement.get(x);
+        if (vm != null && hint.isRunning(vm)) {
+            Node n = hint.getVMLocation(vm);
+            int nIdx = rp.getNode(n);
+            if (nIdx >= 0 && x.canBeInstantiatedTo(nIdx)) {
+                return nIdx;
+            }
+        }
+        return fallback.getBestVal(x);
+    }
+}
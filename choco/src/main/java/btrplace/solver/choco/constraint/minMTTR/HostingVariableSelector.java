@@ -20,6 +20,7 @@ package btrplace.solver.choco.constraint.minMTTR;
 import btrplace.solver.choco.ReconfigurationProblem;
 import btrplace.solver.choco.Slice;
 import btrplace.solver.choco.SliceUtils;
+import choco.kernel.memory.IStateInt;
 import choco.kernel.solver.search.integer.AbstractIntVarSelector;
 import choco.kernel.solver.variables.integer.IntDomainVar;
 
@@ -27,7 +28,10 @@ import java.util.List;
 
 /**
  * A variable selector that focuses the placement variables of slices.
- * Choco will try to instantiate the variables following the slice ordering
+ * Choco will try to instantiate the variables following the slice ordering.
+ * <p/>
+ * The index of the first variable that may not be instantiated is stored
+ * so the variables that are already instantiated are not browsed again.
  *
  * @author Fabien Hermenier
  */
@@ -39,6 +43,8 @@ public class HostingVariableSelector extends AbstractIntVarSelector {
 
     private OnStableNodeFirst schedHeuristic;
 
+    private IStateInt firstFree;
+
     /**
      * Make a new heuristic.
      * By default, the heuristic doesn't touch the scheduling constraints.
@@ -52,17 +58,21 @@ public class HostingVariableSelector extends AbstractIntVarSelector {
         this.schedHeuristic = sched;
         this.rp = p;
         label = dbgLbl;
+        firstFree = p.getSolver().getEnvironment().makeInt(0);
     }
 
     @Override
     public IntDomainVar selectVar() {
-        for (int i = 0; i < vars.length; i++) {
-            if (!vars[i].isInstantiated()) {
-                if (schedHeuristic != null) {
-                    schedHeuristic.invalidPlacement();
-                }
-                return vars[i];
+        int i = firstFree.get();
+        while (i < vars.length && vars[i].isInstantiated()) {
+            i++;
+        }
+        firstFree.set(i);
+        if (i < vars.length) {
+            if (schedHeuristic != null) {
+                schedHeuristic.invalidPlacement();
             }
+            return vars[i];
         }
         rp.getLogger().debug("{}: no more VMs to handle", label);
         return null;
@@ -23,10 +23,11 @@ import btrplace.model.VM;
 import btrplace.solver.choco.ReconfigurationProblem;
 import btrplace.solver.choco.Slice;
 import btrplace.solver.choco.actionModel.VMActionModel;
+import choco.kernel.memory.IStateInt;
 import choco.kernel.solver.search.integer.AbstractIntVarSelector;
 import choco.kernel.solver.variables.integer.IntDomainVar;
 
-import java.util.LinkedList;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
@@ -34,6 +35,9 @@ import java.util.Set;
 /**
  * A variable selector that focuses on the VMs that will be running
  * necessarily on a new node as their current location is disallowed.
+ * <p/>
+ * The index of the first VM that may not be placed is stored
+ * so the VMs that are already placed are not browsed again.
  *
  * @author Fabien Hermenier
  */
@@ -42,7 +46,9 @@ public class MovingVMs extends AbstractIntVarSelector {
     /**
      * The demanding slices to consider.
      */
-    private List<VMActionModel> actions;
+    private VMActionModel[] actions;
+
+    private IStateInt firstFree;
 
     private Mapping map;
 
@@ -65,18 +71,26 @@ public class MovingVMs extends AbstractIntVarSelector {
         map = m;
 
         this.rp = s;
-        this.actions = new LinkedList<>();
+        List<VMActionModel> as = new ArrayList<>();
         //Get all the involved slices
         for (VM vm : vms) {
             if (rp.getFutureRunningVMs().contains(vm)) {
-                actions.add(rp.getVMAction(vm));
+                as.add(rp.getVMAction(vm));
             }
         }
+        actions = as.toArray(new VMActionModel[as.size()]);
+        firstFree = s.getSolver().getEnvironment().makeInt(0);
     }
 
     @Override
     public IntDomainVar selectVar() {
-        for (VMActionModel a : actions) {
+        int i = firstFree.get();
+        while (i < actions.length && actions[i].getDSlice().getHoster().isInstantiated()) {
+            i++;
+        }
+        firstFree.set(i);
+        for (; i < actions.length; i++) {
+            VMActionModel a = actions[i];
             if (!a.getDSlice().getHoster().isInstantiated()) {
                 VM vm = a.getVM();
                 Node nId = map.getVMLocation(vm);
@@ -192,20 +192,19 @@ public class OnStableNodeFirst extends AbstractIntVarSelector {
 
     private IntDomainVar minInf() {
         IntDomainVar best = null;
-        for (int i = firstFree.get(); i < starts.length; i++) {
+        //Skip the leading moments that are already instantiated or not considered
+        int i = firstFree.get();
+        while (i < starts.length && (!isCandidate(i) || starts[i].isInstantiated())) {
+            i++;
+        }
+        firstFree.set(i);
+        for (; i < starts.length; i++) {
             IntDomainVar v = starts[i];
-            if (i < vms.size() - 1) {
-                VM vm = vms.get(i);
-                if (vm != null && v != null) {
-                    if (!v.isInstantiated()) {
-                        if (best == null || best.getInf() < v.getInf()) {
-                            best = v;
-                            if (best.getInf() == 0) {
-                                break;
-                            }
-                        }
-                    } else {
-                        firstFree.increment();
+            if (isCandidate(i) && !v.isInstantiated()) {
+                if (best == null || best.getInf() < v.getInf()) {
+                    best = v;
+                    if (best.getInf() == 0) {
+                        break;
                     }
                 }
             }
@@ -217,6 +216,10 @@ public class OnStableNodeFirst extends AbstractIntVarSelector {
         return best;
     }
 
+    private boolean isCandidate(int i) {
+        return i < vms.size() - 1 && vms.get(i) != null && starts[i] != null;
+    }
+
     /**
      * Get the earliest un-instantiated start moment
      *
@@ -19,11 +19,14 @@ package btrplace.solver.choco.constraint.minMTTR;
 
 import btrplace.solver.choco.ReconfigurationProblem;
 import btrplace.solver.choco.actionModel.NodeActionModel;
+import choco.kernel.memory.IStateInt;
 import choco.kernel.solver.search.integer.AbstractIntVarSelector;
 import choco.kernel.solver.variables.integer.IntDomainVar;
 
 /**
  * Very basic variable selector that focus the moment where node actions consume.
+ * The index of the first action that may not be scheduled is stored
+ * so the actions that are already scheduled are not browsed again.
  *
  * @author Fabien Hermenier
  */
@@ -35,6 +38,8 @@ public class StartingNodes extends AbstractIntVarSelector {
 
     private ReconfigurationProblem rp;
 
+    private IStateInt firstFree;
+
     /**
      * Make a new heuristic.
      *
@@ -47,14 +52,18 @@ public class StartingNodes extends AbstractIntVarSelector {
         actions = nodeActions;
         this.lbl = l;
         this.rp = p;
+        firstFree = p.getSolver().getEnvironment().makeInt(0);
     }
 
     @Override
     public IntDomainVar selectVar() {
-        for (NodeActionModel na : actions) {
-            if (!na.getStart().isInstantiated()) {
-                return na.getStart();
-            }
+        int i = firstFree.get();
+        while (i < actions.length && actions[i].getStart().isInstantiated()) {
+            i++;
+        }
+        firstFree.set(i);
+        if (i < actions.length) {
+            return actions[i].getStart();
         }
         rp.getLogger().debug("{} - no more nodes to handle", lbl);
         return null;
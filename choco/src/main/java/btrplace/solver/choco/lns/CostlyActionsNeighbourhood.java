@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.lns;
+
+import btrplace.model.VM;
+import btrplace.plan.ReconfigurationPlan;
+import btrplace.plan.event.Action;
+import btrplace.plan.event.VMEvent;
+
+import java.util.*;
+
+/**
+ * A neighbourhood that releases the VMs having the most costly actions,
+ * i.e. the actions that end the latest in the incumbent plan.
+ * To diversify the neighbourhoods, the VMs are picked at random
+ * among the twice as many VMs having the most costly actions.
+ *
+ * @author Fabien Hermenier
+ */
+public class CostlyActionsNeighbourhood implements Neighbourhood {
+
+    @Override
+    public Set<VM> select(ReconfigurationPlan incumbent, Set<VM> candidates, int size, Random rnd) {
+        final Map<VM, Integer> ends = new HashMap<>();
+        for (Action a : incumbent.getActions()) {
+            if (a instanceof VMEvent && candidates.contains(((VMEvent) a).getVM())) {
+                ends.put(((VMEvent) a).getVM(), a.getEnd());
+            }
+        }
+        List<VM> l = new ArrayList<>(candidates);
+        //Shuffle first so the VMs having the same cost are not always picked in the same order
+        Collections.shuffle(l, rnd);
+        Collections.sort(l, new Comparator<VM>() {
+            @Override
+            public int compare(VM v1, VM v2) {
+                return end(ends, v2) - end(ends, v1);
+            }
+        });
+        List<VM> pool = l.subList(0, size >= l.size() / 2 ? l.size() : 2 * size);
+        Collections.shuffle(pool, rnd);
+        return new HashSet<>(pool.subList(0, Math.min(size, pool.size())));
+    }
+
+    private static int end(Map<VM, Integer> ends, VM vm) {
+        Integer e = ends.get(vm);
+        return e == null ? 0 : e;
+    }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.lns;
+
+import btrplace.model.VM;
+import btrplace.plan.ReconfigurationPlan;
+
+import java.util.Random;
+import java.util.Set;
+
+/**
+ * A policy to select the VMs to release during one iteration
+ * of a large neighbourhood search.
+ * The other VMs are kept on their host in the current solution.
+ *
+ * @author Fabien Hermenier
+ */
+public interface Neighbourhood {
+
+    /**
+     * Select the VMs to release.
+     *
+     * @param incumbent  the best plan computed so far
+     * @param candidates the VMs that can be released
+     * @param size       the maximum number of VMs to release
+     * @param rnd        the random number generator to use
+     * @return a subset of the candidates
+     */
+    Set<VM> select(ReconfigurationPlan incumbent, Set<VM> candidates, int size, Random rnd);
+}
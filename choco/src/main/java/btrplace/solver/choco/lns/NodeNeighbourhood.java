@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.lns;
+
+import btrplace.model.Mapping;
+import btrplace.model.Node;
+import btrplace.model.VM;
+import btrplace.plan.ReconfigurationPlan;
+
+import java.util.*;
+
+/**
+ * A neighbourhood that releases all the VMs related to some nodes chosen at random.
+ * A VM is related to a node if it is hosted on it at the beginning or at the end of the incumbent plan.
+ * Nodes are picked until the number of VMs to release is reached.
+ *
+ * @author Fabien Hermenier
+ */
+public class NodeNeighbourhood implements Neighbourhood {
+
+    @Override
+    public Set<VM> select(ReconfigurationPlan incumbent, Set<VM> candidates, int size, Random rnd) {
+        Mapping src = incumbent.getOrigin().getMapping();
+        Mapping dst = incumbent.getResult().getMapping();
+        Map<Node, List<VM>> byNode = new HashMap<>();
+        for (VM vm : candidates) {
+            relate(byNode, src, vm);
+            relate(byNode, dst, vm);
+        }
+        List<Node> nodes = new ArrayList<>(byNode.keySet());
+        Collections.shuffle(nodes, rnd);
+        Set<VM> res = new HashSet<>();
+        for (Node n : nodes) {
+            for (VM vm : byNode.get(n)) {
+                if (res.size() == size) {
+                    return res;
+                }
+                res.add(vm);
+            }
+        }
+        return res;
+    }
+
+    private static void relate(Map<Node, List<VM>> byNode, Mapping m, VM vm) {
+        if (!m.contains(vm)) {
+            return;
+        }
+        Node n = m.getVMLocation(vm);
+        if (n == null) {
+            return;
+        }
+        List<VM> l = byNode.get(n);
+        if (l == null) {
+            l = new ArrayList<>();
+            byNode.put(n, l);
+        }
+        l.add(vm);
+    }
+}
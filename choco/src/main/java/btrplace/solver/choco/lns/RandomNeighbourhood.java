@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.lns;
+
+import btrplace.model.VM;
+import btrplace.plan.ReconfigurationPlan;
+
+import java.util.*;
+
+/**
+ * A neighbourhood that releases VMs chosen at random.
+ *
+ * @author Fabien Hermenier
+ */
+public class RandomNeighbourhood implements Neighbourhood {
+
+    @Override
+    public Set<VM> select(ReconfigurationPlan incumbent, Set<VM> candidates, int size, Random rnd) {
+        List<VM> l = new ArrayList<>(candidates);
+        Collections.shuffle(l, rnd);
+        return new HashSet<>(l.subList(0, Math.min(size, l.size())));
+    }
+}
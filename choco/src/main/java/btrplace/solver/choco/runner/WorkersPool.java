@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.runner;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A long-lived pool of workers to run solving tasks.
+ * A same pool can be shared among successive solving processes
+ * to prevent from the creation of new threads each time.
+ * <p/>
+ * The pool reports some metrics about its activity: the number of queued tasks,
+ * the number of active workers and the number of rejected tasks.
+ * The pool must be shut down explicitly once it is no longer needed.
+ *
+ * @author Fabien Hermenier
+ */
+public class WorkersPool {
+
+    private ThreadPoolExecutor exe;
+
+    private AtomicLong nbRejected;
+
+    /**
+     * Make a new pool with an unbounded queue of tasks.
+     * Workers are daemon threads.
+     *
+     * @param nbWorkers the number of workers. Must be >= 1
+     */
+    public WorkersPool(int nbWorkers) {
+        this(nbWorkers, Integer.MAX_VALUE, new DaemonThreadFactory());
+    }
+
+    /**
+     * Make a new pool.
+     *
+     * @param nbWorkers the number of workers. Must be >= 1
+     * @param capacity  the maximum number of tasks waiting for a worker. Must be >= 1
+     * @param f         the factory to create the workers
+     */
+    public WorkersPool(int nbWorkers, int capacity, ThreadFactory f) {
+        nbRejected = new AtomicLong(0);
+        exe = new ThreadPoolExecutor(nbWorkers, nbWorkers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<Runnable>(capacity), f, new CountingRejectionHandler());
+    }
+
+    /**
+     * Get the executor that runs the tasks.
+     *
+     * @return an executor service
+     */
+    public ExecutorService getExecutorService() {
+        return exe;
+    }
+
+    /**
+     * Get the number of workers.
+     *
+     * @return a number >= 1
+     */
+    public int getNbWorkers() {
+        return exe.getMaximumPoolSize();
+    }
+
+    /**
+     * Get the number of tasks waiting for a worker.
+     *
+     * @return a positive number
+     */
+    public int getQueueDepth() {
+        return exe.getQueue().size();
+    }
+
+    /**
+     * Get the approximate number of workers that are executing tasks.
+     *
+     * @return a positive number
+     */
+    public int getActiveWorkers() {
+        return exe.getActiveCount();
+    }
+
+    /**
+     * Get the number of tasks that have been rejected as the pool was
+     * saturated or shut down.
+     *
+     * @return a positive number
+     */
+    public long getRejectedTasks() {
+        return nbRejected.get();
+    }
+
+    /**
+     * Get the approximate number of tasks that have been completed.
+     *
+     * @return a positive number
+     */
+    public long getCompletedTasks() {
+        return exe.getCompletedTaskCount();
+    }
+
+    /**
+     * Shutdown the pool.
+     * Tasks already submitted are executed but no new task is accepted.
+     */
+    public void shutdown() {
+        exe.shutdown();
+    }
+
+    /**
+     * Indicates if the pool has been shut down.
+     *
+     * @return {@code true} iff the pool is shut down
+     */
+    public boolean isShutdown() {
+        return exe.isShutdown();
+    }
+
+    @Override
+    public String toString() {
+        return "workers: " + getNbWorkers() + ", active: " + getActiveWorkers()
+                + ", queued: " + getQueueDepth() + ", completed: " + getCompletedTasks()
+                + ", rejected: " + getRejectedTasks();
+    }
+
+    /**
+     * Reject a task like the {@link ThreadPoolExecutor.AbortPolicy}
+     * but count the rejections.
+     */
+    private class CountingRejectionHandler implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor e) {
+            nbRejected.incrementAndGet();
+            throw new RejectedExecutionException("Task rejected by the pool (" + WorkersPool.this + ")");
+        }
+    }
+
+    /**
+     * A factory that creates named daemon threads so a
+     * pool that is not shutdown does not prevent the JVM to exit.
+     */
+    private static class DaemonThreadFactory implements ThreadFactory {
+
+        private static final AtomicInteger POOL_NUMBER = new AtomicInteger(1);
+
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        private final String prefix;
+
+        public DaemonThreadFactory() {
+            prefix = "btrplace-pool-" + POOL_NUMBER.getAndIncrement() + "-worker-";
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread t = new Thread(r, prefix + threadNumber.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        }
+    }
+}
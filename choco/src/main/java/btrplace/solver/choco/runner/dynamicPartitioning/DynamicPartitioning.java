@@ -0,0 +1,389 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.runner.dynamicPartitioning;
+
+import btrplace.model.Instance;
+import btrplace.model.Mapping;
+import btrplace.model.Model;
+import btrplace.model.Node;
+import btrplace.plan.DefaultReconfigurationPlan;
+import btrplace.plan.ReconfigurationPlan;
+import btrplace.plan.event.Action;
+import btrplace.solver.SolverException;
+import btrplace.solver.choco.ChocoReconfigurationAlgorithmParams;
+import btrplace.solver.choco.DefaultChocoReconfigurationAlgorithmParams;
+import btrplace.solver.choco.UnknownFeasibilityException;
+import btrplace.solver.choco.runner.InstanceResult;
+import btrplace.solver.choco.runner.InstanceSolver;
+import btrplace.solver.choco.runner.WorkersPool;
+import btrplace.solver.choco.runner.single.InstanceSolverRunner;
+import btrplace.solver.choco.runner.staticPartitioning.FixedNodeSetsPartitioning;
+import btrplace.solver.choco.runner.staticPartitioning.StaticPartitioning;
+import btrplace.solver.choco.runner.staticPartitioning.splitter.ConstraintSplitterMapper;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * A solver that decompose an instance into multiple disjoint
+ * sub-instances that are solved in parallel by a pool of workers.
+ * <p/>
+ * The initial decomposition is made by a {@link StaticPartitioning}.
+ * Each sub-instance is first solved with a limited amount of time.
+ * If no solution is computed within this time limit, the
+ * sub-instance is split again into smaller sub-instances that are in
+ * turn pushed to the pool so idle workers can pick them up.
+ * A sub-instance that cannot be split anymore is solved with the remaining time.
+ * <p/>
+ * The workers are created for each solving process unless a long-lived
+ * {@link WorkersPool} is provided through the parameters of the reconfiguration algorithm.
+ * <p/>
+ * The resulting reconfiguration plan is composed by all the sub
+ * reconfiguration plans. Each sub-instance must then have a solution.
+ *
+ * @author Fabien Hermenier
+ */
+public class DynamicPartitioning implements InstanceSolver {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger("DynamicPartitioning");
+
+    /**
+     * The default time limit, in seconds, to solve a partition before refining it.
+     */
+    public static final int DEFAULT_REFINE_TIME_LIMIT = 5;
+
+    private StaticPartitioning initial;
+
+    private int workersCount;
+
+    private int refineTimeLimit;
+
+    private int minPartSize;
+
+    /**
+     * Make a new partitioning algorithm.
+     * The number of workers is set to the number of available cores.
+     *
+     * @param p the partitioning algorithm that computes the initial partitions
+     */
+    public DynamicPartitioning(StaticPartitioning p) {
+        initial = p;
+        workersCount = Runtime.getRuntime().availableProcessors();
+        refineTimeLimit = DEFAULT_REFINE_TIME_LIMIT;
+        minPartSize = 2;
+    }
+
+    /**
+     * Get the algorithm that computes the initial partitions.
+     *
+     * @return the partitioning algorithm
+     */
+    public StaticPartitioning getInitialPartitioning() {
+        return initial;
+    }
+
+    /**
+     * Get the number of workers that are used to solve instances.
+     *
+     * @return a number >= 1
+     */
+    public int getWorkersCount() {
+        return workersCount;
+    }
+
+    /**
+     * Set the number of workers that solve instances.
+     * It is ignored when a {@link WorkersPool} is declared in the parameters.
+     *
+     * @param s a number >= 1
+     */
+    public void setWorkersCount(int s) {
+        this.workersCount = s;
+    }
+
+    /**
+     * Get the time limit given to a partition to be solved before being refined.
+     *
+     * @return a time limit in seconds
+     */
+    public int getRefineTimeLimit() {
+        return refineTimeLimit;
+    }
+
+    /**
+     * Set the time limit given to a partition to be solved before being refined.
+     *
+     * @param t a time limit in seconds. Must be > 0
+     */
+    public void setRefineTimeLimit(int t) {
+        this.refineTimeLimit = t;
+    }
+
+    /**
+     * Get the minimum number of nodes a partition must have to be refined.
+     *
+     * @return a number >= 2
+     */
+    public int getMinPartitionSize() {
+        return minPartSize;
+    }
+
+    /**
+     * Set the minimum number of nodes a partition must have to be refined.
+     *
+     * @param s a number >= 2
+     */
+    public void setMinPartitionSize(int s) {
+        this.minPartSize = s;
+    }
+
+    @Override
+    public InstanceResult solve(ChocoReconfigurationAlgorithmParams cra, Instance orig) throws SolverException {
+        long start = System.currentTimeMillis();
+        long splitDuration = -System.currentTimeMillis();
+        List<Instance> partitions = initial.split(cra, orig);
+        splitDuration += System.currentTimeMillis();
+
+        int nbVMs = 0;
+        Mapping origMapping = orig.getModel().getMapping();
+        for (Node n : origMapping.getOnlineNodes()) {
+            nbVMs += origMapping.getRunningVMs(n).size();
+            nbVMs += origMapping.getSleepingVMs(n).size();
+        }
+        nbVMs += origMapping.getReadyVMs().size();
+        int nbNodes = origMapping.getOnlineNodes().size() + origMapping.getOfflineNodes().size();
+        int nbConstraints = orig.getSatConstraints().size();
+
+        long deadline = cra.getTimeLimit() > 0 ? start + cra.getTimeLimit() * 1000L : -1;
+        int nbRefinements = 0;
+
+        WorkersPool p = cra.getWorkersPool();
+        ExecutorService exe;
+        int nbWorkers;
+        if (p == null) {
+            exe = Executors.newFixedThreadPool(workersCount);
+            nbWorkers = workersCount;
+        } else {
+            exe = p.getExecutorService();
+            nbWorkers = p.getNbWorkers();
+        }
+        CompletionService<Outcome> completionService = new ExecutorCompletionService<>(exe);
+        List<InstanceResult> results = new ArrayList<>(partitions.size());
+        Set<Future<Outcome>> running = new HashSet<>();
+        long duration = -System.currentTimeMillis();
+        try {
+            for (Instance i : partitions) {
+                running.add(completionService.submit(new PartitionTask(cra, i, deadline)));
+            }
+            while (!running.isEmpty()) {
+                Future<Outcome> f = completionService.take();
+                running.remove(f);
+                Outcome o;
+                try {
+                    o = f.get();
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof SolverException) {
+                        throw (SolverException) cause;
+                    }
+                    throw new SolverException(orig.getModel(), ex.getMessage(), ex);
+                }
+                if (o.subParts != null) {
+                    nbRefinements++;
+                    for (Instance i : o.subParts) {
+                        running.add(completionService.submit(new PartitionTask(cra, i, deadline)));
+                    }
+                } else {
+                    results.add(o.result);
+                }
+            }
+        } catch (RejectedExecutionException ex) {
+            throw new SolverException(orig.getModel(), ex.getMessage(), ex);
+        } catch (InterruptedException e) {
+            throw new SolverException(orig.getModel(), e.getMessage(), e);
+        } finally {
+            //Stop the remaining partitions on a failure
+            for (Future<Outcome> f : running) {
+                f.cancel(true);
+            }
+            if (p == null) {
+                exe.shutdown();
+            }
+        }
+        duration += System.currentTimeMillis();
+
+        boolean solved = true;
+        for (InstanceResult res : results) {
+            if (res.getPlan() == null) {
+                solved = false;
+            }
+        }
+
+        DynamicPartitioningStatistics stats = new DynamicPartitioningStatistics(cra, nbNodes,
+                nbVMs,
+                nbConstraints,
+                start,
+                splitDuration,
+                duration,
+                nbWorkers,
+                results.size(),
+                nbRefinements
+        );
+
+        InstanceResult res = new InstanceResult(solved ? new DefaultReconfigurationPlan(orig.getModel()) : null, stats);
+        merge(res, results);
+        return res;
+    }
+
+    private void merge(InstanceResult merged, Collection<InstanceResult> results) throws SolverException {
+        ReconfigurationPlan plan = merged.getPlan();
+        //Only if there is a solution
+        for (InstanceResult result : results) {
+            if (result.getPlan() != null && plan != null) {
+                for (Action a : result.getPlan()) {
+                    if (!plan.add(a)) {
+                        throw new SolverException(merged.getPlan().getOrigin(),
+                                "Unable to add action '" + a + "' while merging the sub-plans");
+                    }
+                }
+            }
+            ((DynamicPartitioningStatistics) merged.getStatistics()).addPartitionStatistics(result.getStatistics());
+        }
+    }
+
+    /**
+     * Split a partition into smaller ones.
+     * The partition model is cloned first so the refinement does not alter
+     * the models shared with the other workers.
+     *
+     * @param ps the solver parameters
+     * @param i  the partition to split
+     * @return the resulting partitions, {@code null} if the partition cannot be split
+     */
+    private List<Instance> refine(ChocoReconfigurationAlgorithmParams ps, Instance i) {
+        Model mo = i.getModel().clone();
+        List<Node> ns = new ArrayList<>(mo.getMapping().getAllNodes());
+        Collection<Collection<Node>> parts = new ArrayList<>(2);
+        parts.add(new HashSet<>(ns.subList(0, ns.size() / 2)));
+        parts.add(new HashSet<>(ns.subList(ns.size() / 2, ns.size())));
+
+        FixedNodeSetsPartitioning splitter = new FixedNodeSetsPartitioning(parts);
+        if (initial instanceof FixedNodeSetsPartitioning) {
+            splitter.setSplitterMapper(((FixedNodeSetsPartitioning) initial).getSplitterMapper());
+        } else {
+            splitter.setSplitterMapper(ConstraintSplitterMapper.newBundle());
+        }
+        try {
+            return splitter.split(ps, new Instance(mo, i.getSatConstraints(), i.getOptConstraint()));
+        } catch (SolverException ex) {
+            LOGGER.debug("Unable to refine a partition: {}", ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Make the parameters to solve a partition within a given time limit.
+     *
+     * @param ps the original parameters
+     * @param t  the time limit in seconds. {@code <= 0} for no time limit
+     * @return a copy of the parameters
+     */
+    private static ChocoReconfigurationAlgorithmParams withTimeLimit(ChocoReconfigurationAlgorithmParams ps, int t) {
+        return new DefaultChocoReconfigurationAlgorithmParams(ps).setTimeLimit(t);
+    }
+
+    /**
+     * Get the remaining time before the deadline.
+     *
+     * @param deadline the deadline in the epoch format. {@code -1} for no deadline
+     * @return the remaining time in seconds, at least 1. {@code -1} if there is no deadline
+     */
+    private static int remainingTime(long deadline) {
+        if (deadline < 0) {
+            return -1;
+        }
+        long r = (deadline - System.currentTimeMillis()) / 1000;
+        return (int) Math.max(1, r);
+    }
+
+    /**
+     * The outcome of a partition task: either a result, or
+     * the smaller partitions to solve instead.
+     */
+    private static class Outcome {
+
+        private InstanceResult result;
+
+        private List<Instance> subParts;
+
+        public Outcome(InstanceResult r, List<Instance> parts) {
+            result = r;
+            subParts = parts;
+        }
+    }
+
+    /**
+     * A task that solves a partition.
+     * A partition that is not solved within the refinement time limit
+     * is split and the resulting partitions are returned so they can be
+     * pushed to the pool in turn.
+     */
+    private class PartitionTask implements Callable<Outcome> {
+
+        private ChocoReconfigurationAlgorithmParams params;
+
+        private Instance part;
+
+        private long deadline;
+
+        public PartitionTask(ChocoReconfigurationAlgorithmParams ps, Instance i, long d) {
+            params = ps;
+            part = i;
+            deadline = d;
+        }
+
+        @Override
+        public Outcome call() throws SolverException {
+            int remaining = remainingTime(deadline);
+            if (part.getModel().getMapping().getNbNodes() >= minPartSize
+                    && (remaining < 0 || remaining > refineTimeLimit)) {
+                ChocoReconfigurationAlgorithmParams ps = withTimeLimit(params, refineTimeLimit);
+                InstanceResult r = null;
+                try {
+                    r = new InstanceSolverRunner(ps, part).call();
+                } catch (UnknownFeasibilityException ex) {
+                    //No solution computed before the time limit. Any other error is a real one
+                    LOGGER.debug("No solution for a partition within {} second(s)", refineTimeLimit);
+                }
+                if (r != null && (r.getPlan() != null || !r.getStatistics().hitTimeout())) {
+                    //Solved, or proven without solution
+                    return new Outcome(r, null);
+                }
+                List<Instance> subParts = refine(params, part);
+                if (subParts != null) {
+                    return new Outcome(null, subParts);
+                }
+                remaining = remainingTime(deadline);
+            }
+            return new Outcome(new InstanceSolverRunner(withTimeLimit(params, remaining), part).call(), null);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.runner.dynamicPartitioning;
+
+import btrplace.solver.choco.ChocoReconfigurationAlgorithmParams;
+import btrplace.solver.choco.runner.staticPartitioning.StaticPartitioningStatistics;
+
+/**
+ * Statistics for a solving process partitioned dynamically.
+ * The partitions that are reported are the final ones, once
+ * refined.
+ *
+ * @author Fabien Hermenier
+ */
+public class DynamicPartitioningStatistics extends StaticPartitioningStatistics {
+
+    private int nbRefinements;
+
+    /**
+     * Make the statistics.
+     *
+     * @param ps            the standard parameters for the solving process
+     * @param nbNodes       the number of nodes in the model
+     * @param nbVMs         the number of VMs in the model
+     * @param nbConstraints the number of satisfaction-oriented constraints.
+     * @param st            the moment the computation started, epoch format
+     * @param splitDuration the duration of the initial splitting process in milliseconds
+     * @param duration      the solving process duration in milliseconds
+     * @param nbWorkers     the number of workers to solve the partitions in parallel
+     * @param nbParts       the number of partitions that were finally solved
+     * @param nbRefinements the number of partitions that have been split again
+     */
+    public DynamicPartitioningStatistics(ChocoReconfigurationAlgorithmParams ps, int nbNodes, int nbVMs, int nbConstraints,
+                                         long st, long splitDuration, long duration, int nbWorkers, int nbParts, int nbRefinements) {
+        super(ps, nbNodes, nbVMs, nbConstraints, st, splitDuration, duration, nbWorkers, nbParts);
+        this.nbRefinements = nbRefinements;
+    }
+
+    /**
+     * Get the number of partitions that have been split again
+     * as they were not solved within the refinement time limit.
+     *
+     * @return a positive number
+     */
+    public int getNbRefinements() {
+        return nbRefinements;
+    }
+
+    @Override
+    public String toString() {
+        return super.toString() + "\n" + nbRefinements + " refined partition(s)";
+    }
+}
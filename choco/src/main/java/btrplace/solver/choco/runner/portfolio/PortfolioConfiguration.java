@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.runner.portfolio;
+
+import btrplace.solver.choco.ChocoReconfigurationAlgorithmParams;
+
+/**
+ * A configuration of the solving process raced by a {@link PortfolioRunner}.
+ *
+ * @author Fabien Hermenier
+ */
+public interface PortfolioConfiguration {
+
+    /**
+     * Make the parameters of the solving process from the parameters
+     * given to the portfolio.
+     * The given parameters must not be modified.
+     *
+     * @param ps the parameters given to the portfolio
+     * @return the parameters to use for this configuration
+     */
+    ChocoReconfigurationAlgorithmParams configure(ChocoReconfigurationAlgorithmParams ps);
+}
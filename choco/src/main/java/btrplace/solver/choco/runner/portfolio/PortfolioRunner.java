@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.runner.portfolio;
+
+import btrplace.model.Instance;
+import btrplace.solver.SolverException;
+import btrplace.solver.choco.ChocoReconfigurationAlgorithmParams;
+import btrplace.solver.choco.runner.InstanceResult;
+import btrplace.solver.choco.runner.InstanceSolver;
+import btrplace.solver.choco.runner.SolutionStatistics;
+import btrplace.solver.choco.runner.WorkersPool;
+import btrplace.solver.choco.runner.single.InstanceSolverRunner;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/**
+ * A solver that races several configurations of the solving process
+ * on a same instance.
+ * <p/>
+ * Each {@link PortfolioConfiguration} is solved concurrently by a {@link InstanceSolverRunner}.
+ * When the optimisation is disabled, the first computed solution is returned.
+ * Otherwise, the first solution that is proven optimal is returned, or the
+ * best solution computed by all the configurations within their time limit.
+ * A configuration only stops the race with a proof, of optimality or of the absence of solution,
+ * when it does not rely on the repair mode, as a repair mode that manages a subset of the VMs
+ * cannot prove anything for the whole instance.
+ * Once the result is known, the remaining runners are stopped.
+ * <p/>
+ * Except the first one, each configuration solves its own copy of the model.
+ * By default, the portfolio races the repair mode against the
+ * rebuild mode.
+ *
+ * @author Fabien Hermenier
+ */
+public class PortfolioRunner implements InstanceSolver {
+
+    private List<PortfolioConfiguration> configurations;
+
+    private WorkersPool pool;
+
+    private int winner = -1;
+
+    /**
+     * Make a new portfolio that races the repair and the rebuild modes.
+     */
+    public PortfolioRunner() {
+        configurations = new ArrayList<>();
+        configurations.add(new RepairConfiguration(true));
+        configurations.add(new RepairConfiguration(false));
+    }
+
+    /**
+     * Make a new portfolio.
+     *
+     * @param cfgs the configurations to race. Must not be empty
+     */
+    public PortfolioRunner(List<PortfolioConfiguration> cfgs) {
+        configurations = new ArrayList<>(cfgs);
+    }
+
+    /**
+     * Get the raced configurations.
+     *
+     * @return a list of configurations
+     */
+    public List<PortfolioConfiguration> getConfigurations() {
+        return configurations;
+    }
+
+    /**
+     * Add a configuration to race.
+     *
+     * @param c the configuration to add
+     */
+    public void addConfiguration(PortfolioConfiguration c) {
+        configurations.add(c);
+    }
+
+    /**
+     * Set the pool of workers that run the configurations.
+     * When no pool is set, the pool declared in the parameters is used if any,
+     * otherwise, a one-time pool with one worker per configuration is created.
+     *
+     * @param p the pool to use. {@code null} to unset the pool
+     */
+    public void setWorkersPool(WorkersPool p) {
+        pool = p;
+    }
+
+    /**
+     * Get the pool of workers that run the configurations.
+     *
+     * @return the pool. {@code null} if no pool was set
+     */
+    public WorkersPool getWorkersPool() {
+        return pool;
+    }
+
+    /**
+     * Get the configuration that provided the result of the last solving process.
+     *
+     * @return the index of the configuration in {@link #getConfigurations()}. {@code -1} if none
+     */
+    public int getLastWinner() {
+        return winner;
+    }
+
+    @Override
+    public InstanceResult solve(ChocoReconfigurationAlgorithmParams cra, Instance orig) throws SolverException {
+        winner = -1;
+        if (configurations.isEmpty()) {
+            throw new SolverException(orig.getModel(), "No configuration to race");
+        }
+
+        WorkersPool p = pool != null ? pool : cra.getWorkersPool();
+        ExecutorService exe = p == null ? Executors.newFixedThreadPool(configurations.size()) : p.getExecutorService();
+        CompletionService<InstanceResult> completionService = new ExecutorCompletionService<>(exe);
+        Map<Future<InstanceResult>, Integer> running = new IdentityHashMap<>(configurations.size());
+        InstanceSolverRunner[] runners = new InstanceSolverRunner[configurations.size()];
+        boolean[] repair = new boolean[configurations.size()];
+
+        InstanceResult best = null;
+        int bestIdx = -1;
+        InstanceResult unsolved = null;
+        int unsolvedIdx = -1;
+        Throwable failure = null;
+        try {
+            for (int x = 0; x < configurations.size(); x++) {
+                ChocoReconfigurationAlgorithmParams ps = configurations.get(x).configure(cra);
+                Instance i = x == 0 ? orig : new Instance(orig.getModel().clone(), orig.getSatConstraints(), orig.getOptConstraint());
+                repair[x] = ps.doRepair();
+                runners[x] = new InstanceSolverRunner(ps, i);
+                runners[x].setStoppable(true);
+                running.put(completionService.submit(runners[x]), x);
+            }
+
+            while (!running.isEmpty()) {
+                Future<InstanceResult> f = completionService.take();
+                int idx = running.remove(f);
+                InstanceResult res;
+                try {
+                    res = f.get();
+                } catch (ExecutionException ex) {
+                    LOGGER.debug("Configuration '{}' failed: {}", configurations.get(idx), ex.getMessage());
+                    if (failure == null) {
+                        failure = ex.getCause() != null ? ex.getCause() : ex;
+                    }
+                    continue;
+                }
+                if (res == null) {
+                    continue;
+                }
+                if (res.getPlan() == null) {
+                    if (unsolved == null || !res.getStatistics().hitTimeout()) {
+                        unsolved = res;
+                        unsolvedIdx = idx;
+                    }
+                    if (!repair[idx] && !res.getStatistics().hitTimeout()) {
+                        //Proven without solution
+                        break;
+                    }
+                    continue;
+                }
+                if (best == null || objective(res) < objective(best)) {
+                    best = res;
+                    bestIdx = idx;
+                }
+                if (!cra.doOptimize() || (!repair[idx] && !res.getStatistics().hitTimeout())) {
+                    //Fast enough, or proven optimal. The repair mode only proves the optimality
+                    //for the VMs it manages
+                    break;
+                }
+            }
+        } catch (RejectedExecutionException ex) {
+            throw new SolverException(orig.getModel(), ex.getMessage(), ex);
+        } catch (InterruptedException ex) {
+            throw new SolverException(orig.getModel(), ex.getMessage(), ex);
+        } finally {
+            //The solver ignores the interruptions so the runners have to be stopped explicitly
+            for (Map.Entry<Future<InstanceResult>, Integer> e : running.entrySet()) {
+                runners[e.getValue()].stop();
+                e.getKey().cancel(true);
+            }
+            if (p == null) {
+                exe.shutdownNow();
+            }
+        }
+
+        if (best != null) {
+            winner = bestIdx;
+            return best;
+        }
+        if (unsolved != null) {
+            winner = unsolvedIdx;
+            return unsolved;
+        }
+        if (failure instanceof SolverException) {
+            throw (SolverException) failure;
+        }
+        throw new SolverException(orig.getModel(), failure != null ? failure.getMessage() : "No configuration terminated", failure);
+    }
+
+    /**
+     * Get the objective value of the last solution of a result.
+     *
+     * @param res the result
+     * @return the objective value. {@link Integer#MAX_VALUE} if the solutions have no objective
+     */
+    private static int objective(InstanceResult res) {
+        List<SolutionStatistics> sols = res.getStatistics().getSolutions();
+        if (sols.isEmpty() || !sols.get(sols.size() - 1).hasObjective()) {
+            return Integer.MAX_VALUE;
+        }
+        return sols.get(sols.size() - 1).getOptValue();
+    }
+}
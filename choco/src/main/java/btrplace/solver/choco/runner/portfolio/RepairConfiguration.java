@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.runner.portfolio;
+
+import btrplace.solver.choco.ChocoReconfigurationAlgorithmParams;
+import btrplace.solver.choco.DefaultChocoReconfigurationAlgorithmParams;
+
+/**
+ * A configuration that enables or disables the repair mode.
+ *
+ * @author Fabien Hermenier
+ */
+public class RepairConfiguration implements PortfolioConfiguration {
+
+    private boolean repair;
+
+    /**
+     * Make a new configuration.
+     *
+     * @param b {@code true} to enable the repair mode
+     */
+    public RepairConfiguration(boolean b) {
+        repair = b;
+    }
+
+    /**
+     * Indicates if the repair mode is enabled.
+     *
+     * @return {@code true} iff the repair mode is enabled
+     */
+    public boolean doRepair() {
+        return repair;
+    }
+
+    @Override
+    public ChocoReconfigurationAlgorithmParams configure(ChocoReconfigurationAlgorithmParams ps) {
+        return new DefaultChocoReconfigurationAlgorithmParams(ps).doRepair(repair);
+    }
+
+    @Override
+    public String toString() {
+        return "repair(" + repair + ")";
+    }
+}
@@ -18,6 +18,7 @@
 package btrplace.solver.choco.runner.single;
 
 import btrplace.model.Instance;
+import btrplace.model.Mapping;
 import btrplace.model.Model;
 import btrplace.model.Node;
 import btrplace.model.VM;
@@ -26,21 +27,26 @@ import btrplace.plan.ReconfigurationPlan;
 import btrplace.plan.ReconfigurationPlanChecker;
 import btrplace.plan.ReconfigurationPlanCheckerException;
 import btrplace.solver.SolverException;
+import btrplace.solver.choco.BinPackingBuilder;
 import btrplace.solver.choco.ChocoReconfigurationAlgorithmParams;
 import btrplace.solver.choco.DefaultReconfigurationProblemBuilder;
 import btrplace.solver.choco.ReconfigurationProblem;
+import btrplace.solver.choco.Slice;
+import btrplace.solver.choco.chocoUtil.StopSwitch;
 import btrplace.solver.choco.constraint.ChocoConstraint;
 import btrplace.solver.choco.constraint.ChocoConstraintBuilder;
+import btrplace.solver.choco.lns.Neighbourhood;
 import btrplace.solver.choco.runner.InstanceResult;
 import btrplace.solver.choco.runner.SolutionStatistics;
+import choco.cp.solver.CPSolver;
 import choco.kernel.common.logging.ChocoLogging;
 import choco.kernel.common.logging.Verbosity;
 import choco.kernel.solver.ContradictionException;
-import choco.kernel.solver.Solution;
-import choco.kernel.solver.search.measure.IMeasures;
+import choco.kernel.solver.variables.integer.IntDomainVar;
 
 import java.util.*;
 import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * A basic solver that solve a whole instance.
@@ -50,6 +56,12 @@ import java.util.concurrent.Callable;
  */
 public class InstanceSolverRunner implements Callable<InstanceResult> {
 
+    /**
+     * The maximum number of consecutive iterations without improvement
+     * for a large neighbourhood search without time limit.
+     */
+    public static final int MAX_LNS_FAILURES = 10;
+
     private ChocoReconfigurationAlgorithmParams params;
 
     private ReconfigurationProblem rp;
@@ -66,6 +78,26 @@ public class InstanceSolverRunner implements Callable<InstanceResult> {
 
     private long start;
 
+    private int incumbentCost;
+
+    private AtomicBoolean stopped;
+
+    private boolean stoppable = false;
+
+    /**
+     * The search measures, summed over the first solving process and the iterations
+     * of the large neighbourhood search.
+     */
+    private long searchTime;
+
+    private int nbNodes;
+
+    private int nbBacktracks;
+
+    private boolean limitReached;
+
+    private List<SolutionStatistics> solutions;
+
     /**
      * Make a new runner.
      *
@@ -77,12 +109,172 @@ public class InstanceSolverRunner implements Callable<InstanceResult> {
         obj = i.getOptConstraint();
         origin = i.getModel();
         params = ps;
+        stopped = new AtomicBoolean(false);
+    }
+
+    /**
+     * State if the search must be stoppable using {@link #stop()}.
+     * This posts a constraint that checks the stop request at each instantiation
+     * so it should only be enabled when the runner may be stopped, for example while racing other runners.
+     * Otherwise, {@link #stop()} is only considered between the solving steps.
+     *
+     * @param b {@code true} to make the search stoppable
+     */
+    public void setStoppable(boolean b) {
+        stoppable = b;
+    }
+
+    /**
+     * Indicates if the search can be stopped using {@link #stop()}.
+     *
+     * @return {@code true} iff the search is stoppable
+     */
+    public boolean isStoppable() {
+        return stoppable;
+    }
+
+    /**
+     * Stop the solving process.
+     * The solver ignores the interruptions, so this method must be used
+     * to stop a runner from another thread. A stopped runner returns no solution.
+     *
+     * @see #setStoppable(boolean)
+     */
+    public void stop() {
+        stopped.set(true);
+    }
+
+    /**
+     * Indicates if the runner has been stopped.
+     *
+     * @return {@code true} iff {@link #stop()} has been called
+     */
+    public boolean isStopped() {
+        return stopped.get();
     }
 
     @Override
     public InstanceResult call() throws SolverException {
         rp = null;
         start = System.currentTimeMillis();
+        searchTime = 0;
+        nbNodes = 0;
+        nbBacktracks = 0;
+        limitReached = false;
+        solutions = new ArrayList<>();
+        Neighbourhood lns = params.doOptimize() ? params.getNeighbourhood() : null;
+
+        //With a large neighbourhood search, we only look for a first solution before improving it
+        ReconfigurationPlan p = solve(params.getTimeLimit(), params.doOptimize() && lns == null);
+        if (rp != null) {
+            recordSearch();
+            solutions.addAll(rp.getSolutionsStatistics());
+        }
+        if (p != null && lns != null && rp.getSolver().getObjective() != null) {
+            p = improve(p, lns);
+        }
+        //The statistics cover the whole solving process, even without solutions
+        return new InstanceResult(p, makeStatistics());
+    }
+
+    /**
+     * Add the measures of the last search to the measures of the solving process.
+     * Each search restarts the counters of the problem.
+     */
+    private void recordSearch() {
+        searchTime += rp.getSearchTime();
+        nbNodes += rp.getNbSearchNodes();
+        nbBacktracks += rp.getNbSearchBacktracks();
+        limitReached |= rp.isSearchLimitReached();
+    }
+
+    /**
+     * Improve a solution using a large neighbourhood search.
+     * The problem is built once. At each iteration, the solver state is restored, the VMs that are
+     * not in the neighbourhood are fixed on their host in the incumbent plan and the objective must be
+     * strictly improved. Each iteration stops at the first improving solution.
+     * The neighbourhoods are selected using a random generator seeded with
+     * {@link ChocoReconfigurationAlgorithmParams#getNeighbourhoodSeed()}.
+     * The search stops once the time limit is reached. Without time limit, it stops
+     * after {@link #MAX_LNS_FAILURES} consecutive iterations without improvement.
+     *
+     * The search also stops when a neighbourhood covering all the candidates has no improving
+     * solution, as the incumbent is then proved optimal.
+     *
+     * @param first the first solution
+     * @param lns   the neighbourhood to use
+     * @return the best plan
+     * @throws SolverException if an error occurred
+     */
+    private ReconfigurationPlan improve(ReconfigurationPlan first, Neighbourhood lns) throws SolverException {
+        ReconfigurationPlan best = first;
+        incumbentCost = getObjectiveValue();
+        Set<VM> candidates = new HashSet<>(rp.getManageableVMs());
+        candidates.retainAll(rp.getFutureRunningVMs());
+        Random rnd = new Random(params.getNeighbourhoodSeed());
+        int nbFailures = 0;
+        while (!candidates.isEmpty() && !stopped.get()) {
+            int timeLimit = 0;
+            if (params.getTimeLimit() > 0) {
+                long remaining = start + params.getTimeLimit() * 1000L - System.currentTimeMillis();
+                if (remaining < 1000) {
+                    break;
+                }
+                timeLimit = (int) (remaining / 1000);
+            } else if (nbFailures >= MAX_LNS_FAILURES) {
+                break;
+            }
+            Set<VM> free = lns.select(best, candidates, params.getNeighbourhoodSize(), rnd);
+            rp.resetSearch();
+            ReconfigurationPlan p = null;
+            if (stickToIncumbent(best, free)) {
+                p = rp.solveAgain(timeLimit);
+                recordSearch();
+                if (p != null) {
+                    checkSatisfaction2(p, cstrs);
+                }
+            }
+            if (p == null) {
+                nbFailures++;
+            } else {
+                nbFailures = 0;
+                best = p;
+                incumbentCost = getObjectiveValue();
+                solutions.add(new SolutionStatistics(nbNodes,
+                        nbBacktracks,
+                        System.currentTimeMillis() - start,
+                        incumbentCost));
+            }
+            //Each iteration stops at its first improving solution so only a failure proves the optimality
+            if (p == null && free.containsAll(candidates) && !rp.isSearchLimitReached()) {
+                break;
+            }
+        }
+        return best;
+    }
+
+    private IntDomainVar[] getIntVars() {
+        CPSolver s = rp.getSolver();
+        IntDomainVar[] vs = new IntDomainVar[s.getNbIntVars()];
+        for (int i = 0; i < vs.length; i++) {
+            vs[i] = s.getIntVarQuick(i);
+        }
+        return vs;
+    }
+
+    private int getObjectiveValue() {
+        return ((IntDomainVar) rp.getSolver().getObjective()).getVal();
+    }
+
+    /**
+     * Build and solve a reconfiguration problem.
+     *
+     * @param timeLimit the time limit in seconds
+     * @param optimize  {@code true} to optimize the solution
+     * @return the computed plan, {@code null} if there is no solution
+     * @throws SolverException if an error occurred
+     */
+    private ReconfigurationPlan solve(int timeLimit, boolean optimize) throws SolverException {
         coreRPDuration = -System.currentTimeMillis();
         //Build the RP. As VM state management is not possible
         //We extract VM-state related constraints first.
@@ -148,6 +340,7 @@ public class InstanceSolverRunner implements Callable<InstanceResult> {
             rpb.labelVariables();
         }
         rp = rpb.build();
+        rp.setPlacementHint(params.getPlacementHint());
 
         //Set the maximum duration
         try {
@@ -162,29 +355,68 @@ public class InstanceSolverRunner implements Callable<InstanceResult> {
         speRPDuration = -System.currentTimeMillis();
         for (ChocoConstraint ccstr : cConstraints) {
             if (!ccstr.inject(rp)) {
-                return new InstanceResult(null, makeStatistics());
+                return null;
             }
         }
 
         //The objective
         cObj.inject(rp);
+
+        if (params.doSymmetryBreaking()) {
+            BinPackingBuilder bpb = rp.getBinPackingBuilder();
+            bpb.setSymmetryBreaking(true);
+            for (SatConstraint cstr : cstrs) {
+                bpb.distinguish(cstr.getInvolvedNodes());
+            }
+        }
+        rp.getTaskSchedulerBuilder().setEagerFiltering(params.doEagerScheduling());
+        rp.setSolutionPoolCapacity(params.getSolutionPoolCapacity());
         speRPDuration += System.currentTimeMillis();
         rp.getLogger().debug("{} ms to build the core-RP + {} ms to tune it", coreRPDuration, speRPDuration);
 
         rp.getLogger().debug("{} nodes; {} VMs; {} constraints", rp.getNodes().length, rp.getVMs().length, cstrs.size());
-        rp.getLogger().debug("optimize: {}; timeLimit: {}; manageableVMs: {}", params.doOptimize(), params.getTimeLimit(), rp.getManageableVMs().size());
+        rp.getLogger().debug("optimize: {}; timeLimit: {}; manageableVMs: {}", optimize, timeLimit, rp.getManageableVMs().size());
 
         stateVerbosity();
 
+        if (stopped.get()) {
+            return null;
+        }
+        if (stoppable) {
+            rp.getSolver().post(new StopSwitch(getIntVars(), stopped));
+        }
+
         //The actual solving process
-        ReconfigurationPlan p = rp.solve(params.getTimeLimit(), params.doOptimize());
+        ReconfigurationPlan p = rp.solve(timeLimit, optimize);
+        if (p != null) {
+            checkSatisfaction2(p, cstrs);
+        }
+        return p;
+    }
 
-        //No solutions, but still some statistics
-        if (p == null) {
-            return new InstanceResult(null, makeStatistics());
+    /**
+     * Keep the VMs that are not released on their host in the incumbent plan,
+     * and state the solution must be strictly better than the incumbent one.
+     * The restrictions are undone by the next call to {@link ReconfigurationProblem#resetSearch()}.
+     *
+     * @param incumbent the plan to improve
+     * @param free      the released VMs
+     * @return {@code false} if the problem is trivially not solvable
+     */
+    private boolean stickToIncumbent(ReconfigurationPlan incumbent, Set<VM> free) {
+        Mapping dst = incumbent.getResult().getMapping();
+        try {
+            for (VM vm : rp.getFutureRunningVMs()) {
+                Slice s = rp.getVMAction(vm).getDSlice();
+                if (s != null && !free.contains(vm)) {
+                    s.getHoster().setVal(rp.getNode(dst.getVMLocation(vm)));
+                }
+            }
+            ((IntDomainVar) rp.getSolver().getObjective()).setSup(incumbentCost - 1);
+        } catch (ContradictionException e) {
+            return false;
         }
-        checkSatisfaction2(p, cstrs);
-        return new InstanceResult(p, makeStatistics());
+        return true;
     }
 
     /**
@@ -265,29 +497,15 @@ public class InstanceSolverRunner implements Callable<InstanceResult> {
                 cstrs.size(),
                 rp.getManageableVMs().size(),
                 start,
-                rp.getSolver().getTimeCount(),
-                rp.getSolver().getNodeCount(),
-                rp.getSolver().getBackTrackCount(),
-                rp.getSolver().isEncounteredLimit(),
+                searchTime,
+                nbNodes,
+                nbBacktracks,
+                limitReached,
                 coreRPDuration,
                 speRPDuration);
 
-        if (rp.getSolver().getSearchStrategy() != null) {
-            for (Solution s : rp.getSolver().getSearchStrategy().getStoredSolutions()) {
-                IMeasures m = s.getMeasures();
-                SolutionStatistics sol;
-                if (m.getObjectiveValue() != null) {
-                    sol = new SolutionStatistics(m.getNodeCount(),
-                            m.getBackTrackCount(),
-                            m.getTimeCount(),
-                            m.getObjectiveValue().intValue());
-                } else {
-                    sol = new SolutionStatistics(m.getNodeCount(),
-                            m.getBackTrackCount(),
-                            m.getTimeCount());
-                }
-                st.addSolution(sol);
-            }
+        for (SolutionStatistics sol : solutions) {
+            st.addSolution(sol);
         }
         return st;
     }
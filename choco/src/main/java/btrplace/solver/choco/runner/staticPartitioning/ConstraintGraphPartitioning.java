@@ -0,0 +1,484 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.runner.staticPartitioning;
+
+import btrplace.model.*;
+import btrplace.model.constraint.*;
+import btrplace.solver.SolverException;
+import btrplace.solver.choco.ChocoReconfigurationAlgorithmParams;
+import gnu.trove.list.array.TIntArrayList;
+import gnu.trove.map.hash.TIntDoubleHashMap;
+import gnu.trove.map.hash.TIntIntHashMap;
+import gnu.trove.set.hash.TIntHashSet;
+
+import java.util.*;
+
+/**
+ * An extension of {@link FixedNodeSetsPartitioning} where
+ * the partitions of nodes are computed from the hypergraph
+ * of the constraints to reduce the number of constraints that spread over
+ * multiple partitions.
+ * <p/>
+ * Each constraint is an hyperedge that connects the nodes it involves
+ * and the nodes hosting the VMs it involves. The hyperedges of the
+ * <i>sticky</i> constraints, i.e. the constraints that cannot be split
+ * without removing solutions, are never cut. By default, the sticky constraints are
+ * {@link Among}, {@link Gather}, {@link MaxOnline} and {@link SequentialVMTransitions}.
+ * <p/>
+ * The partitioning heuristic is multilevel: the hypergraph is coarsened
+ * by merging the nodes connected by sticky constraints, then the most connected
+ * groups of nodes. The coarsest hypergraph is partitioned to balance the
+ * estimated solving cost of each partition (see {@link LoadBalancedPartitioning#estimateCosts(ChocoReconfigurationAlgorithmParams, Instance)}).
+ * The partitioning is then projected back and refined at each level by
+ * moving groups of nodes that reduce the number of cut constraints
+ * while keeping the partitions balanced.
+ *
+ * @author Fabien Hermenier
+ */
+public class ConstraintGraphPartitioning extends FixedNodeSetsPartitioning {
+
+    /**
+     * The default allowed imbalance between the partitions.
+     */
+    public static final double DEFAULT_IMBALANCE = 0.1;
+
+    private int nbParts;
+
+    private double imbalance;
+
+    private Set<Class<? extends SatConstraint>> sticky;
+
+    /**
+     * Make a new partitioning algorithm.
+     *
+     * @param nb the maximum number of partitions to compute
+     */
+    public ConstraintGraphPartitioning(int nb) {
+        super(Collections.<Collection<Node>>singleton(new HashSet<Node>()));
+        this.nbParts = nb;
+        imbalance = DEFAULT_IMBALANCE;
+        sticky = new HashSet<>();
+        sticky.add(Among.class);
+        sticky.add(Gather.class);
+        sticky.add(MaxOnline.class);
+        sticky.add(SequentialVMTransitions.class);
+    }
+
+    /**
+     * Get the maximum number of partitions to compute.
+     *
+     * @return a value > 0
+     */
+    public int getNbPartitions() {
+        return nbParts;
+    }
+
+    /**
+     * Set the maximum number of partitions to compute.
+     *
+     * @param nb a value > 0
+     */
+    public void setNbPartitions(int nb) {
+        this.nbParts = nb;
+    }
+
+    /**
+     * Get the allowed imbalance between the partitions.
+     *
+     * @return a ratio >= 0
+     */
+    public double getImbalance() {
+        return imbalance;
+    }
+
+    /**
+     * Set the allowed imbalance between the partitions.
+     * With a ratio {@code r}, the cost of a partition should not
+     * exceed {@code (1 + r)} times the average partition cost.
+     *
+     * @param r a ratio >= 0
+     */
+    public void setImbalance(double r) {
+        this.imbalance = r;
+    }
+
+    /**
+     * Get the classes of the constraints that must not be cut.
+     * The returned set can be modified to customize the partitioning.
+     *
+     * @return a mutable set of constraint classes
+     */
+    public Set<Class<? extends SatConstraint>> getStickyConstraints() {
+        return sticky;
+    }
+
+    @Override
+    public SplitResult splitInstance(ChocoReconfigurationAlgorithmParams ps, Instance i) throws SolverException {
+        return splitInstance(ps, i, makePartitions(ps, i));
+    }
+
+    private List<Collection<Node>> makePartitions(ChocoReconfigurationAlgorithmParams ps, Instance i) {
+        Mapping map = i.getModel().getMapping();
+        List<Node> nodes = new ArrayList<>(map.getAllNodes());
+        Collections.sort(nodes, new Comparator<Node>() {
+            @Override
+            public int compare(Node n1, Node n2) {
+                return n1.id() - n2.id();
+            }
+        });
+        TIntIntHashMap index = new TIntIntHashMap(nodes.size());
+        for (int x = 0; x < nodes.size(); x++) {
+            index.put(nodes.get(x).id(), x);
+        }
+        TIntDoubleHashMap costs = LoadBalancedPartitioning.estimateCosts(ps, i);
+        double[] weights = new double[nodes.size()];
+        double total = 0;
+        for (int x = 0; x < weights.length; x++) {
+            weights[x] = costs.get(nodes.get(x).id());
+            total += weights[x];
+        }
+
+        //The hyperedges. The sticky ones are contracted immediately
+        int[] clusters = new int[nodes.size()];
+        for (int x = 0; x < clusters.length; x++) {
+            clusters[x] = x;
+        }
+        List<int[]> softEdges = new ArrayList<>();
+        for (SatConstraint cstr : i.getSatConstraints()) {
+            int[] e = span(cstr, map, index);
+            if (e.length < 2) {
+                continue;
+            }
+            if (sticky.contains(cstr.getClass())) {
+                for (int x = 1; x < e.length; x++) {
+                    union(clusters, e[0], e[x]);
+                }
+            } else {
+                softEdges.add(e);
+            }
+        }
+
+        //Level 0: the sticky clusters. They will never be split
+        int[] level0 = new int[nodes.size()];
+        int nbGroups = relabel(clusters, level0);
+
+        int nb = Math.max(1, Math.min(nbParts, nodes.size()));
+        double maxLoad = total / nb * (1 + imbalance);
+
+        //Coarsening
+        List<int[]> levels = new ArrayList<>();
+        levels.add(level0);
+        int[] cur = level0;
+        while (nbGroups > nb) {
+            int[] next = new int[nodes.size()];
+            int nbNext = coarsen(cur, nbGroups, weights, softEdges, maxLoad / 2, next);
+            if (nbNext == nbGroups) {
+                break;
+            }
+            levels.add(next);
+            cur = next;
+            nbGroups = nbNext;
+        }
+
+        //Initial partitioning of the coarsest level, then uncoarsening
+        int[] partOfGroup = initialPartitioning(groupWeights(cur, nbGroups, weights), nb);
+        int[] partOfNode = new int[nodes.size()];
+        for (int x = 0; x < partOfNode.length; x++) {
+            partOfNode[x] = partOfGroup[cur[x]];
+        }
+        for (int l = levels.size() - 1; l >= 0; l--) {
+            refine(levels.get(l), weights, softEdges, partOfNode, nb, maxLoad);
+        }
+
+        List<Collection<Node>> res = new ArrayList<>(nb);
+        for (int p = 0; p < nb; p++) {
+            res.add(new HashSet<Node>());
+        }
+        for (int x = 0; x < partOfNode.length; x++) {
+            res.get(partOfNode[x]).add(nodes.get(x));
+        }
+        for (Iterator<Collection<Node>> ite = res.iterator(); ite.hasNext(); ) {
+            if (ite.next().isEmpty()) {
+                ite.remove();
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Get the nodes a constraint is spread over.
+     *
+     * @return the distinct indexes of the nodes
+     */
+    private static int[] span(SatConstraint cstr, Mapping map, TIntIntHashMap index) {
+        TIntHashSet s = new TIntHashSet();
+        for (Node n : cstr.getInvolvedNodes()) {
+            if (index.containsKey(n.id())) {
+                s.add(index.get(n.id()));
+            }
+        }
+        for (VM v : cstr.getInvolvedVMs()) {
+            Node n = map.getVMLocation(v);
+            if (n != null && index.containsKey(n.id())) {
+                s.add(index.get(n.id()));
+            }
+        }
+        return s.toArray();
+    }
+
+    private static int find(int[] parents, int x) {
+        int r = x;
+        while (parents[r] != r) {
+            r = parents[r];
+        }
+        //Path compression
+        while (parents[x] != r) {
+            int nx = parents[x];
+            parents[x] = r;
+            x = nx;
+        }
+        return r;
+    }
+
+    private static void union(int[] parents, int x, int y) {
+        int rx = find(parents, x);
+        int ry = find(parents, y);
+        if (rx != ry) {
+            parents[Math.max(rx, ry)] = Math.min(rx, ry);
+        }
+    }
+
+    /**
+     * Give consecutive identifiers to the groups.
+     *
+     * @param parents the union-find structure
+     * @param groups  the group of each node, filled by the method
+     * @return the number of groups
+     */
+    private static int relabel(int[] parents, int[] groups) {
+        TIntIntHashMap ids = new TIntIntHashMap();
+        for (int x = 0; x < parents.length; x++) {
+            int r = find(parents, x);
+            if (!ids.containsKey(r)) {
+                ids.put(r, ids.size());
+            }
+            groups[x] = ids.get(r);
+        }
+        return ids.size();
+    }
+
+    private static double[] groupWeights(int[] groups, int nbGroups, double[] weights) {
+        double[] w = new double[nbGroups];
+        for (int x = 0; x < groups.length; x++) {
+            w[groups[x]] += weights[x];
+        }
+        return w;
+    }
+
+    /**
+     * Get the hyperedges in terms of groups.
+     * The edges that are internal to a group are ignored.
+     */
+    private static List<int[]> groupEdges(int[] groups, List<int[]> edges) {
+        List<int[]> res = new ArrayList<>(edges.size());
+        TIntHashSet s = new TIntHashSet();
+        for (int[] e : edges) {
+            s.clear();
+            for (int x : e) {
+                s.add(groups[x]);
+            }
+            if (s.size() >= 2) {
+                res.add(s.toArray());
+            }
+        }
+        return res;
+    }
+
+    /**
+     * Merge the pairs of groups that are the most connected, using a heavy-edge matching.
+     *
+     * @param groups    the current groups
+     * @param nbGroups  the current number of groups
+     * @param weights   the node weights
+     * @param edges     the hyperedges
+     * @param maxWeight the maximum weight of a merged group
+     * @param next      the resulting groups, filled by the method
+     * @return the resulting number of groups
+     */
+    private static int coarsen(int[] groups, int nbGroups, double[] weights, List<int[]> edges, double maxWeight, int[] next) {
+        double[] w = groupWeights(groups, nbGroups, weights);
+
+        //Connectivity between groups, each hyperedge is modelled as a path
+        TIntIntHashMap[] adj = new TIntIntHashMap[nbGroups];
+        for (int g = 0; g < nbGroups; g++) {
+            adj[g] = new TIntIntHashMap();
+        }
+        for (int[] e : groupEdges(groups, edges)) {
+            for (int x = 1; x < e.length; x++) {
+                adj[e[x - 1]].adjustOrPutValue(e[x], 1, 1);
+                adj[e[x]].adjustOrPutValue(e[x - 1], 1, 1);
+            }
+        }
+
+        int[] match = new int[nbGroups];
+        Arrays.fill(match, -1);
+        for (int g = 0; g < nbGroups; g++) {
+            if (match[g] >= 0) {
+                continue;
+            }
+            int best = -1;
+            int bestConn = 0;
+            for (int o : adj[g].keys()) {
+                int conn = adj[g].get(o);
+                if (match[o] < 0 && o != g && w[g] + w[o] <= maxWeight
+                        && (conn > bestConn || (conn == bestConn && o < best))) {
+                    best = o;
+                    bestConn = conn;
+                }
+            }
+            match[g] = g;
+            if (best >= 0) {
+                match[best] = g;
+            }
+        }
+
+        int[] parents = new int[nbGroups];
+        for (int g = 0; g < nbGroups; g++) {
+            parents[g] = match[g];
+        }
+        int[] merged = new int[nbGroups];
+        int nb = relabel(parents, merged);
+        for (int x = 0; x < groups.length; x++) {
+            next[x] = merged[groups[x]];
+        }
+        return nb;
+    }
+
+    /**
+     * Dispatch the groups, from the heaviest to the lightest, into the lightest partition.
+     *
+     * @return the partition of each group
+     */
+    private static int[] initialPartitioning(final double[] w, int nb) {
+        Integer[] order = new Integer[w.length];
+        for (int g = 0; g < w.length; g++) {
+            order[g] = g;
+        }
+        Arrays.sort(order, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer g1, Integer g2) {
+                int c = Double.compare(w[g2], w[g1]);
+                return c != 0 ? c : g1 - g2;
+            }
+        });
+        double[] loads = new double[nb];
+        int[] parts = new int[w.length];
+        for (int g : order) {
+            int lightest = 0;
+            for (int p = 1; p < nb; p++) {
+                if (loads[p] < loads[lightest]) {
+                    lightest = p;
+                }
+            }
+            parts[g] = lightest;
+            loads[lightest] += w[g];
+        }
+        return parts;
+    }
+
+    /**
+     * Refine the partitioning at a given level.
+     * Groups are moved when this reduces the number of cut hyperedges
+     * without exceeding the maximum load, or when this reduces the imbalance
+     * without increasing the number of cut hyperedges.
+     */
+    private static void refine(int[] groups, double[] weights, List<int[]> edges, int[] partOfNode, int nb, double maxLoad) {
+        if (nb == 1) {
+            return;
+        }
+        int nbGroups = 0;
+        for (int g : groups) {
+            nbGroups = Math.max(nbGroups, g + 1);
+        }
+        double[] w = groupWeights(groups, nbGroups, weights);
+        int[] partOfGroup = new int[nbGroups];
+        for (int x = 0; x < groups.length; x++) {
+            partOfGroup[groups[x]] = partOfNode[x];
+        }
+        double[] loads = new double[nb];
+        for (int g = 0; g < nbGroups; g++) {
+            loads[partOfGroup[g]] += w[g];
+        }
+
+        List<int[]> gEdges = groupEdges(groups, edges);
+        int[][] counts = new int[gEdges.size()][nb];
+        TIntArrayList[] incidence = new TIntArrayList[nbGroups];
+        for (int g = 0; g < nbGroups; g++) {
+            incidence[g] = new TIntArrayList();
+        }
+        for (int e = 0; e < gEdges.size(); e++) {
+            for (int g : gEdges.get(e)) {
+                counts[e][partOfGroup[g]]++;
+                incidence[g].add(e);
+            }
+        }
+
+        for (int g = 0; g < nbGroups; g++) {
+            int from = partOfGroup[g];
+            int bestTo = -1;
+            int bestGain = 0;
+            for (int to = 0; to < nb; to++) {
+                if (to == from || loads[to] + w[g] > maxLoad) {
+                    continue;
+                }
+                int gain = 0;
+                for (int x = 0; x < incidence[g].size(); x++) {
+                    int e = incidence[g].get(x);
+                    if (counts[e][from] == 1) {
+                        gain++;
+                    }
+                    if (counts[e][to] == 0) {
+                        gain--;
+                    }
+                }
+                boolean balancing = loads[to] + w[g] < loads[from];
+                if (gain < 0 || (gain == 0 && !balancing)) {
+                    continue;
+                }
+                if (bestTo < 0 || gain > bestGain || (gain == bestGain && loads[to] < loads[bestTo])) {
+                    bestTo = to;
+                    bestGain = gain;
+                }
+            }
+            if (bestTo >= 0) {
+                for (int x = 0; x < incidence[g].size(); x++) {
+                    int e = incidence[g].get(x);
+                    counts[e][from]--;
+                    counts[e][bestTo]++;
+                }
+                loads[from] -= w[g];
+                loads[bestTo] += w[g];
+                partOfGroup[g] = bestTo;
+            }
+        }
+
+        for (int x = 0; x < groups.length; x++) {
+            partOfNode[x] = partOfGroup[groups[x]];
+        }
+    }
+}
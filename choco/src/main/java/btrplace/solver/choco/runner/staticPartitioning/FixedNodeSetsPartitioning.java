@@ -22,12 +22,14 @@ import btrplace.model.constraint.Running;
 import btrplace.model.constraint.SatConstraint;
 import btrplace.solver.SolverException;
 import btrplace.solver.choco.ChocoReconfigurationAlgorithmParams;
+import btrplace.solver.choco.runner.WorkersPool;
 import btrplace.solver.choco.runner.staticPartitioning.splitter.ConstraintSplitterMapper;
 import gnu.trove.map.hash.TIntIntHashMap;
 import gnu.trove.set.hash.THashSet;
 import gnu.trove.set.hash.TIntHashSet;
 
 import java.util.*;
+import java.util.concurrent.*;
 
 /**
  * A partitioning algorithm to split an instance
@@ -41,6 +43,13 @@ import java.util.*;
  * splitters available through the {@link ConstraintSplitterMapper}.
  * The {@link btrplace.model.constraint.OptConstraint} is re-used
  * for each sub-instance.
+ * <p/>
+ * When there is a lot of constraints, they are split in parallel by chunks.
+ * Each chunk is split into its own set of constraints per partition. These
+ * sets are then merged into the sub-instances in the chunks order so the
+ * result does not depend on the scheduling of the workers. The chunks are
+ * split using the {@link WorkersPool} of the partitioning algorithm or of the
+ * parameters, if any.
  *
  * @author Fabien Hermenier
  */
@@ -50,6 +59,13 @@ public class FixedNodeSetsPartitioning extends StaticPartitioning {
 
     private ConstraintSplitterMapper cstrMapper;
 
+    private int chunkSize;
+
+    /**
+     * The default minimum number of constraints in a chunk.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1000;
+
     /**
      * Make a new partitioning algorithm.
      * By default, the partition algorithm use the {@link ConstraintSplitterMapper}
@@ -65,6 +81,27 @@ public class FixedNodeSetsPartitioning extends StaticPartitioning {
         }
         partitions = parts;
         cstrMapper = ConstraintSplitterMapper.newBundle();
+        chunkSize = DEFAULT_CHUNK_SIZE;
+    }
+
+    /**
+     * Get the minimum number of constraints in a chunk to split in parallel.
+     *
+     * @return a number >= 1
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Set the minimum number of constraints in a chunk to split in parallel.
+     * The constraints are split sequentially when there is not enough constraints
+     * for at least two chunks.
+     *
+     * @param s a number >= 1
+     */
+    public void setChunkSize(int s) {
+        this.chunkSize = s;
     }
 
     /**
@@ -111,11 +148,31 @@ public class FixedNodeSetsPartitioning extends StaticPartitioning {
 
     @Override
     public List<Instance> split(ChocoReconfigurationAlgorithmParams ps, Instance i) throws SolverException {
+        return splitInstance(ps, i).getInstances();
+    }
+
+    @Override
+    public SplitResult splitInstance(ChocoReconfigurationAlgorithmParams ps, Instance i) throws SolverException {
+        return splitInstance(ps, i, partitions);
+    }
+
+    /**
+     * Split an instance using given node partitions.
+     * The partitions are passed as a value so that concurrent solving processes
+     * computing their own partitions do not alter the partitions of this algorithm.
+     *
+     * @param ps    the parameters for the solver
+     * @param i     the instance to split
+     * @param nodes the disjoint sets of nodes to rely on
+     * @return the disjoint instances
+     * @throws SolverException if an error prevent the splitting process
+     */
+    protected SplitResult splitInstance(ChocoReconfigurationAlgorithmParams ps, Instance i, Collection<Collection<Node>> nodes) throws SolverException {
         Model mo = i.getModel();
 
         SynchronizedElementBuilder eb = new SynchronizedElementBuilder(mo);
 
-        List<Instance> parts = new ArrayList<>(partitions.size());
+        List<Instance> parts = new ArrayList<>(nodes.size());
 
         //nb of VMs
         int nbVMs = i.getModel().getMapping().getNbVMs();
@@ -127,8 +184,8 @@ public class FixedNodeSetsPartitioning extends StaticPartitioning {
 
         Set<VM> toLaunch = getVMsToLaunch(i);
 
-        for (Collection<Node> s : partitions) {
-            SubModel partModel = new SubModel(mo, eb, s, new HashSet<VM>(toLaunch.size() / partitions.size()));
+        for (Collection<Node> s : nodes) {
+            SubModel partModel = new SubModel(mo, eb, s, new HashSet<VM>(toLaunch.size() / nodes.size()));
 
             parts.add(new Instance(partModel, new THashSet<SatConstraint>(), i.getOptConstraint()));
 
@@ -152,13 +209,114 @@ public class FixedNodeSetsPartitioning extends StaticPartitioning {
         }
 
         //Split the constraints
-        for (SatConstraint cstr : i.getSatConstraints()) {
-            if (!cstrMapper.split(cstr, i, parts, vmPosition, nodePosition)) {
-                throw new SolverException(i.getModel(), "Unable to split " + cstr);
+        long cstrSplitDuration = -System.currentTimeMillis();
+        splitConstraints(ps, i, parts, vmPosition, nodePosition);
+        cstrSplitDuration += System.currentTimeMillis();
+
+        return new SplitResult(parts, cstrSplitDuration);
+    }
+
+    private void splitConstraints(ChocoReconfigurationAlgorithmParams ps, Instance i, List<Instance> parts, TIntIntHashMap vmPosition, TIntIntHashMap nodePosition) throws SolverException {
+        List<SatConstraint> cstrs = new ArrayList<>(i.getSatConstraints());
+        WorkersPool pool = getWorkersPool() != null ? getWorkersPool() : ps.getWorkersPool();
+        int nbWorkers = pool != null ? pool.getNbWorkers() : getWorkersCount();
+        int nbChunks = Math.min(nbWorkers, cstrs.size() / Math.max(1, chunkSize));
+        if (nbChunks <= 1) {
+            new ChunkSplitter(i, cstrs, parts, vmPosition, nodePosition).call();
+            return;
+        }
+
+        int size = (cstrs.size() + nbChunks - 1) / nbChunks;
+        List<ChunkSplitter> chunks = new ArrayList<>(nbChunks);
+        for (int from = 0; from < cstrs.size(); from += size) {
+            List<SatConstraint> sub = cstrs.subList(from, Math.min(cstrs.size(), from + size));
+            chunks.add(new ChunkSplitter(i, sub, accumulators(i, parts), vmPosition, nodePosition));
+        }
+
+        //The current thread splits the first chunk, then the chunks no worker has started yet.
+        //This way, the split cannot wait forever for busy workers.
+        ExecutorService exe = pool != null ? pool.getExecutorService() : Executors.newFixedThreadPool(chunks.size() - 1);
+        List<FutureTask<List<Instance>>> tasks = new ArrayList<>(chunks.size() - 1);
+        try {
+            for (ChunkSplitter c : chunks.subList(1, chunks.size())) {
+                FutureTask<List<Instance>> t = new FutureTask<>(c);
+                tasks.add(t);
+                try {
+                    exe.execute(t);
+                } catch (RejectedExecutionException ex) {
+                    //Saturated pool, the chunk will be split by the current thread
+                }
+            }
+            merge(parts, chunks.get(0).call());
+            for (FutureTask<List<Instance>> t : tasks) {
+                t.run();
+                merge(parts, t.get());
+            }
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof SolverException) {
+                throw (SolverException) ex.getCause();
+            }
+            throw new SolverException(i.getModel(), ex.getMessage(), ex.getCause());
+        } catch (InterruptedException ex) {
+            throw new SolverException(i.getModel(), ex.getMessage(), ex);
+        } finally {
+            for (FutureTask<List<Instance>> t : tasks) {
+                t.cancel(true);
+            }
+            if (pool == null) {
+                exe.shutdownNow();
             }
         }
+    }
+
+    /**
+     * Make the accumulators that collect the constraints of a chunk.
+     * Each accumulator shares the model of its partition but has its own constraints.
+     */
+    private static List<Instance> accumulators(Instance i, List<Instance> parts) {
+        List<Instance> acc = new ArrayList<>(parts.size());
+        for (Instance p : parts) {
+            acc.add(new Instance(p.getModel(), i.getOptConstraint()));
+        }
+        return acc;
+    }
+
+    private static void merge(List<Instance> parts, List<Instance> acc) {
+        for (int x = 0; x < parts.size(); x++) {
+            parts.get(x).getSatConstraints().addAll(acc.get(x).getSatConstraints());
+        }
+    }
+
+    /**
+     * Split a chunk of constraints into partitions that are confined to the chunk.
+     */
+    private class ChunkSplitter implements Callable<List<Instance>> {
+
+        private Instance origin;
+
+        private List<SatConstraint> cstrs;
+
+        private List<Instance> parts;
+
+        private TIntIntHashMap vmPosition, nodePosition;
+
+        public ChunkSplitter(Instance i, List<SatConstraint> cs, List<Instance> ps, TIntIntHashMap vmPos, TIntIntHashMap nodePos) {
+            origin = i;
+            cstrs = cs;
+            parts = ps;
+            vmPosition = vmPos;
+            nodePosition = nodePos;
+        }
 
-        return parts;
+        @Override
+        public List<Instance> call() throws SolverException {
+            for (SatConstraint cstr : cstrs) {
+                if (!cstrMapper.split(cstr, origin, parts, vmPosition, nodePosition)) {
+                    throw new SolverException(origin.getModel(), "Unable to split " + cstr);
+                }
+            }
+            return parts;
+        }
     }
 
     private Set<VM> getVMsToLaunch(Instance i) {
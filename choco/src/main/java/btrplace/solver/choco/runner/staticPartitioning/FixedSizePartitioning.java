@@ -68,11 +68,10 @@ public class FixedSizePartitioning extends FixedNodeSetsPartitioning {
     }
 
     @Override
-    public List<Instance> split(ChocoReconfigurationAlgorithmParams ps, Instance i) throws SolverException {
+    public SplitResult splitInstance(ChocoReconfigurationAlgorithmParams ps, Instance i) throws SolverException {
         Mapping map = i.getModel().getMapping();
 
-        setPartitions(random ? randomPartitions(map) : linearPartitions(map));
-        return super.split(ps, i);
+        return splitInstance(ps, i, random ? randomPartitions(map) : linearPartitions(map));
     }
 
     private static Random rnd = new Random();
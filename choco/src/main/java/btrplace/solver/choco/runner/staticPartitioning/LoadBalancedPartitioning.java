@@ -0,0 +1,198 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.runner.staticPartitioning;
+
+import btrplace.model.*;
+import btrplace.model.constraint.SatConstraint;
+import btrplace.model.view.ModelView;
+import btrplace.model.view.ShareableResource;
+import btrplace.solver.SolverException;
+import btrplace.solver.choco.ChocoReconfigurationAlgorithmParams;
+import btrplace.solver.choco.constraint.ChocoConstraint;
+import gnu.trove.map.hash.TIntDoubleHashMap;
+
+import java.util.*;
+
+/**
+ * An extension of {@link FixedNodeSetsPartitioning} where
+ * the partitions of nodes are computed to have
+ * a similar estimated solving cost.
+ * <p/>
+ * The cost of a node grows with the number of VMs it hosts, with
+ * its resource pressure, computed from the {@link ShareableResource} views, and
+ * with the number of constraints that involve the node or its VMs. When the
+ * algorithm only repairs the model, the misplaced VMs are also taken into account.
+ * <p/>
+ * Nodes are then dispatched, from the most to the least costly one, into
+ * the partition having the lowest cost at the moment.
+ *
+ * @author Fabien Hermenier
+ */
+public class LoadBalancedPartitioning extends FixedNodeSetsPartitioning {
+
+    private int nbParts;
+
+    /**
+     * Make a new partitioning algorithm.
+     *
+     * @param nb the number of partitions to compute
+     */
+    public LoadBalancedPartitioning(int nb) {
+        super(Collections.<Collection<Node>>singleton(new HashSet<Node>()));
+        this.nbParts = nb;
+    }
+
+    /**
+     * Get the number of partitions to compute.
+     *
+     * @return a value > 0
+     */
+    public int getNbPartitions() {
+        return nbParts;
+    }
+
+    /**
+     * Set the number of partitions to compute.
+     *
+     * @param nb a value > 0
+     */
+    public void setNbPartitions(int nb) {
+        this.nbParts = nb;
+    }
+
+    @Override
+    public SplitResult splitInstance(ChocoReconfigurationAlgorithmParams ps, Instance i) throws SolverException {
+        return splitInstance(ps, i, balancedPartitions(i.getModel().getMapping(), estimateCosts(ps, i)));
+    }
+
+    /**
+     * Estimate the solving cost of each node.
+     *
+     * @param ps the parameters of the solver
+     * @param i  the instance to analyse
+     * @return the cost of every node. Format {@code Node#id() -> cost}
+     */
+    public static TIntDoubleHashMap estimateCosts(ChocoReconfigurationAlgorithmParams ps, Instance i) {
+        Model mo = i.getModel();
+        Mapping map = mo.getMapping();
+        TIntDoubleHashMap costs = new TIntDoubleHashMap(map.getNbNodes());
+
+        List<ShareableResource> rcs = new ArrayList<>();
+        for (ModelView v : mo.getViews()) {
+            if (v instanceof ShareableResource) {
+                rcs.add((ShareableResource) v);
+            }
+        }
+
+        for (Node n : map.getAllNodes()) {
+            double c = 1;
+            if (map.isOnline(n)) {
+                Set<VM> running = map.getRunningVMs(n);
+                int nbVMs = running.size() + map.getSleepingVMs(n).size();
+                c += nbVMs + nbVMs * pressure(rcs, n, running);
+            }
+            costs.put(n.id(), c);
+        }
+
+        //The constraint density
+        for (SatConstraint cstr : i.getSatConstraints()) {
+            Set<Node> involved = new HashSet<>(cstr.getInvolvedNodes());
+            for (VM v : cstr.getInvolvedVMs()) {
+                Node n = map.getVMLocation(v);
+                if (n != null) {
+                    involved.add(n);
+                }
+            }
+            for (Node n : involved) {
+                costs.adjustValue(n.id(), 1);
+            }
+        }
+
+        //The misplaced VMs, only when the algorithm repairs the model
+        if (ps.doRepair()) {
+            Set<VM> misplaced = new HashSet<>();
+            for (SatConstraint cstr : i.getSatConstraints()) {
+                ChocoConstraint cc = ps.getConstraintMapper().map(cstr);
+                if (cc != null) {
+                    misplaced.addAll(cc.getMisPlacedVMs(mo));
+                }
+            }
+            for (VM v : misplaced) {
+                Node n = map.getVMLocation(v);
+                if (n != null) {
+                    costs.adjustValue(n.id(), 1);
+                }
+            }
+        }
+        return costs;
+    }
+
+    /**
+     * Get the pressure on a node, i.e. the highest ratio between
+     * the consumption of its running VMs and its capacity among all the resources.
+     *
+     * @param rcs the resources
+     * @param n   the node
+     * @param vms the VMs running on the node
+     * @return the pressure on the node. {@code 0} when no resource is declared
+     */
+    private static double pressure(List<ShareableResource> rcs, Node n, Set<VM> vms) {
+        double p = 0;
+        for (ShareableResource rc : rcs) {
+            int capa = rc.getCapacity(n);
+            if (capa > 0) {
+                p = Math.max(p, (double) rc.sumConsumptions(vms, true) / capa);
+            }
+        }
+        return p;
+    }
+
+    private List<Collection<Node>> balancedPartitions(Mapping map, final TIntDoubleHashMap costs) {
+        List<Node> nodes = new ArrayList<>(map.getAllNodes());
+        //Most costly nodes first, node identifier to break ties
+        Collections.sort(nodes, new Comparator<Node>() {
+            @Override
+            public int compare(Node n1, Node n2) {
+                int c = Double.compare(costs.get(n2.id()), costs.get(n1.id()));
+                return c != 0 ? c : n1.id() - n2.id();
+            }
+        });
+
+        int nb = Math.max(1, Math.min(nbParts, nodes.size()));
+        final double[] loads = new double[nb];
+        List<Collection<Node>> partOfNodes = new ArrayList<>(nb);
+        PriorityQueue<Integer> lightest = new PriorityQueue<>(nb, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer p1, Integer p2) {
+                int c = Double.compare(loads[p1], loads[p2]);
+                return c != 0 ? c : p1 - p2;
+            }
+        });
+        for (int p = 0; p < nb; p++) {
+            partOfNodes.add(new HashSet<Node>());
+            lightest.add(p);
+        }
+        for (Node n : nodes) {
+            int p = lightest.poll();
+            partOfNodes.get(p).add(n);
+            loads[p] += costs.get(n.id());
+            lightest.add(p);
+        }
+        return partOfNodes;
+    }
+}
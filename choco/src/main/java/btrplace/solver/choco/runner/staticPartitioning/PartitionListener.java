@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.runner.staticPartitioning;
+
+import btrplace.model.Instance;
+import btrplace.solver.choco.runner.InstanceResult;
+
+/**
+ * A listener that is notified each time a partition has been solved
+ * by a {@link StaticPartitioning} solver.
+ * This allows to start applying a sub-plan while the other
+ * partitions are still being solved.
+ * <p/>
+ * The listener is notified by the thread that coordinates the
+ * solving process so it must not block for a long time.
+ *
+ * @author Fabien Hermenier
+ */
+public interface PartitionListener {
+
+    /**
+     * Notify a partition has been solved.
+     *
+     * @param partition the solved partition
+     * @param res       the result of the solving process. The plan is {@code null}
+     *                  if the partition has no solution
+     */
+    void partitionSolved(Instance partition, InstanceResult res);
+}
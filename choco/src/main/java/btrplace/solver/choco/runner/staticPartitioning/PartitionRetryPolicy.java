@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.runner.staticPartitioning;
+
+import btrplace.solver.choco.ChocoReconfigurationAlgorithmParams;
+
+/**
+ * A policy to decide how a partition that failed must be solved again
+ * by a {@link StaticPartitioning} solver.
+ *
+ * @author Fabien Hermenier
+ */
+public interface PartitionRetryPolicy {
+
+    /**
+     * Get the parameters to use to solve again a partition.
+     *
+     * @param ps      the parameters used for the failing attempt
+     * @param attempt the number of the retry. {@code 1} for the first retry
+     * @return the parameters for the next attempt. {@code null} to stop retrying
+     */
+    ChocoReconfigurationAlgorithmParams retry(ChocoReconfigurationAlgorithmParams ps, int attempt);
+}
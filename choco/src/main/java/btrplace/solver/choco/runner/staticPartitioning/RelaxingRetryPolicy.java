@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.runner.staticPartitioning;
+
+import btrplace.solver.choco.ChocoReconfigurationAlgorithmParams;
+import btrplace.solver.choco.DefaultChocoReconfigurationAlgorithmParams;
+
+/**
+ * A retry policy that relaxes the parameters at each attempt.
+ * The repair mode is disabled so every VM can be managed, and
+ * the time limit, if any, is multiplied by a given factor.
+ * {@link StaticPartitioning} reduces this time limit to the time remaining
+ * before the deadline of the whole solving process.
+ *
+ * @author Fabien Hermenier
+ */
+public class RelaxingRetryPolicy implements PartitionRetryPolicy {
+
+    /**
+     * The default factor to apply on the time limit.
+     */
+    public static final double DEFAULT_TIME_LIMIT_FACTOR = 2;
+
+    private int maxRetries;
+
+    private double timeLimitFactor;
+
+    private boolean disableRepair;
+
+    /**
+     * Make a new policy.
+     *
+     * @param max the maximum number of retries for a partition
+     */
+    public RelaxingRetryPolicy(int max) {
+        maxRetries = max;
+        timeLimitFactor = DEFAULT_TIME_LIMIT_FACTOR;
+        disableRepair = true;
+    }
+
+    /**
+     * Get the maximum number of retries for a partition.
+     *
+     * @return a positive number
+     */
+    public int getMaxRetries() {
+        return maxRetries;
+    }
+
+    /**
+     * Get the factor that is applied on the time limit at each retry.
+     *
+     * @return a factor >= 1
+     */
+    public double getTimeLimitFactor() {
+        return timeLimitFactor;
+    }
+
+    /**
+     * Set the factor that is applied on the time limit at each retry.
+     *
+     * @param f a factor >= 1
+     * @return the current policy
+     */
+    public RelaxingRetryPolicy setTimeLimitFactor(double f) {
+        timeLimitFactor = f;
+        return this;
+    }
+
+    /**
+     * Indicate if the repair mode is disabled when retrying.
+     *
+     * @return {@code true} iff the repair mode is disabled
+     */
+    public boolean disableRepair() {
+        return disableRepair;
+    }
+
+    /**
+     * State if the repair mode has to be disabled when retrying.
+     *
+     * @param b {@code true} to disable the repair mode
+     * @return the current policy
+     */
+    public RelaxingRetryPolicy disableRepair(boolean b) {
+        disableRepair = b;
+        return this;
+    }
+
+    @Override
+    public ChocoReconfigurationAlgorithmParams retry(ChocoReconfigurationAlgorithmParams ps, int attempt) {
+        if (attempt > maxRetries) {
+            return null;
+        }
+        ChocoReconfigurationAlgorithmParams relaxed = new DefaultChocoReconfigurationAlgorithmParams(ps);
+        if (disableRepair) {
+            relaxed.doRepair(false);
+        }
+        if (ps.getTimeLimit() > 0) {
+            relaxed.setTimeLimit((int) Math.ceil(ps.getTimeLimit() * timeLimitFactor));
+        }
+        return relaxed;
+    }
+}
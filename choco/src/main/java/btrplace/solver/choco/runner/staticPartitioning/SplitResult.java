@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.runner.staticPartitioning;
+
+import btrplace.model.Instance;
+
+import java.util.List;
+
+/**
+ * The result of the splitting of an instance
+ * by a {@link StaticPartitioning}.
+ *
+ * @author Fabien Hermenier
+ */
+public class SplitResult {
+
+    private List<Instance> instances;
+
+    private long cstrSplitDuration;
+
+    /**
+     * Make a new result.
+     *
+     * @param parts the disjoint instances
+     * @param d     the time spent to split the constraints, in milliseconds
+     */
+    public SplitResult(List<Instance> parts, long d) {
+        instances = parts;
+        cstrSplitDuration = d;
+    }
+
+    /**
+     * Get the disjoint instances.
+     *
+     * @return a non-empty list
+     */
+    public List<Instance> getInstances() {
+        return instances;
+    }
+
+    /**
+     * Get the time spent to split the constraints.
+     *
+     * @return a duration in milliseconds. {@code 0} if not measured
+     */
+    public long getConstraintsSplitDuration() {
+        return cstrSplitDuration;
+    }
+}
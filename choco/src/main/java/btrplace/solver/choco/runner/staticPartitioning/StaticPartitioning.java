@@ -25,14 +25,14 @@ import btrplace.plan.ReconfigurationPlan;
 import btrplace.plan.event.Action;
 import btrplace.solver.SolverException;
 import btrplace.solver.choco.ChocoReconfigurationAlgorithmParams;
+import btrplace.solver.choco.DefaultChocoReconfigurationAlgorithmParams;
 import btrplace.solver.choco.runner.InstanceResult;
 import btrplace.solver.choco.runner.InstanceSolver;
 import btrplace.solver.choco.runner.SolvingStatistics;
+import btrplace.solver.choco.runner.WorkersPool;
 import btrplace.solver.choco.runner.single.InstanceSolverRunner;
 
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.List;
+import java.util.*;
 import java.util.concurrent.*;
 
 /**
@@ -44,6 +44,9 @@ import java.util.concurrent.*;
  * <p/>
  * The solving process relies on a master/worker paradigm with a number
  * of workers equals to the number of available cores by default.
+ * The workers are created for each solving process unless a long-lived
+ * {@link WorkersPool} is provided either to the partitioning algorithm
+ * or through the parameters of the reconfiguration algorithm.
  *
  * @author Fabien Hermenier
  */
@@ -51,6 +54,10 @@ public abstract class StaticPartitioning implements InstanceSolver {
 
     private int workersCount;
 
+    private WorkersPool pool;
+
+    private PartitionRetryPolicy retryPolicy;
+
     /**
      * Get the number of workers that are used to solve instances.
      *
@@ -69,6 +76,50 @@ public abstract class StaticPartitioning implements InstanceSolver {
         this.workersCount = s;
     }
 
+    /**
+     * Get the pool of workers that is used to solve instances.
+     *
+     * @return the pool. {@code null} if no pool has been set
+     */
+    public WorkersPool getWorkersPool() {
+        return pool;
+    }
+
+    /**
+     * Set the pool of workers to use to solve instances.
+     * When set, the pool is used instead of the pool declared in the
+     * parameters of the reconfiguration algorithm, if any. The pool is not shut down
+     * at the end of the solving process.
+     *
+     * @param p the pool to use. {@code null} to create new workers for each solving process
+     */
+    public void setWorkersPool(WorkersPool p) {
+        this.pool = p;
+    }
+
+    /**
+     * Get the policy that decides how to retry the partitions that failed.
+     *
+     * @return the policy. {@code null} if the partitions are never retried
+     */
+    public PartitionRetryPolicy getRetryPolicy() {
+        return retryPolicy;
+    }
+
+    /**
+     * Set the policy that decides how to retry the partitions that failed.
+     * A partition fails when it has no solution or when the solver
+     * was not able to state about its feasibility. Only the failing
+     * partitions are solved again. When the parameters have a time limit, the
+     * time limit of a retry is reduced to the time remaining for the whole
+     * solving process and no retry is made once this time is over.
+     *
+     * @param r the policy to use. {@code null} to never retry
+     */
+    public void setRetryPolicy(PartitionRetryPolicy r) {
+        this.retryPolicy = r;
+    }
+
     /**
      * Make a new partitioning algorithm.
      * The number of workers is set to the number of available cores.
@@ -79,13 +130,59 @@ public abstract class StaticPartitioning implements InstanceSolver {
 
     @Override
     public InstanceResult solve(ChocoReconfigurationAlgorithmParams cra, Instance orig) throws SolverException {
+        return solve(cra, orig, null);
+    }
+
+    /**
+     * Solve an instance asynchronously.
+     * The splitting and the solving process are coordinated by a dedicated thread
+     * while the partitions are solved by the workers. The coordinator never occupies a worker
+     * of the pool as it waits for partitions that may still be queued: concurrent solving
+     * processes sharing a small pool could otherwise take every worker and never complete.
+     * The listener, if any, is notified each time a partition is solved so the resulting sub-plans
+     * can be exploited before the end of the whole solving process.
+     * Cancelling the returned future stops the partitions that are being solved
+     * and cancels the partitions that are not solved yet.
+     *
+     * @param cra  the parameters to consider
+     * @param orig the instance to solve
+     * @param l    the listener to notify. May be {@code null}
+     * @return the future result of the solving process
+     */
+    public Future<InstanceResult> solveAsync(final ChocoReconfigurationAlgorithmParams cra, final Instance orig, final PartitionListener l) {
+        Callable<InstanceResult> coordinator = new Callable<InstanceResult>() {
+            @Override
+            public InstanceResult call() throws SolverException {
+                return solve(cra, orig, l);
+            }
+        };
+        ExecutorService exe = Executors.newSingleThreadExecutor();
+        try {
+            return exe.submit(coordinator);
+        } finally {
+            exe.shutdown();
+        }
+    }
+
+    private InstanceResult solve(ChocoReconfigurationAlgorithmParams cra, Instance orig, PartitionListener l) throws SolverException {
         long start = System.currentTimeMillis();
         long splitDuration = -System.currentTimeMillis();
-        List<Instance> partitions = split(cra, orig);
+        SplitResult split = splitInstance(cra, orig);
         splitDuration += System.currentTimeMillis();
+        List<Instance> partitions = split.getInstances();
+        long cstrSplitDuration = split.getConstraintsSplitDuration();
 
-        ExecutorService exe = Executors.newFixedThreadPool(this.workersCount);
-        CompletionService<InstanceResult> completionService = new ExecutorCompletionService<>(exe);
+        WorkersPool p = pool != null ? pool : cra.getWorkersPool();
+        ExecutorService exe;
+        int nbWorkers;
+        if (p == null) {
+            exe = Executors.newFixedThreadPool(this.workersCount);
+            nbWorkers = workersCount;
+        } else {
+            exe = p.getExecutorService();
+            nbWorkers = p.getNbWorkers();
+        }
+        BlockingQueue<AttemptTask> completed = new LinkedBlockingQueue<>();
         List<InstanceResult> results = new ArrayList<>(partitions.size());
 
         int nbVMs = 0;
@@ -98,26 +195,67 @@ public abstract class StaticPartitioning implements InstanceSolver {
         int nbNodes = origMapping.getOnlineNodes().size() + origMapping.getOfflineNodes().size();
         int nbConstraints = orig.getSatConstraints().size();
 
+        long deadline = cra.getTimeLimit() > 0 ? start + cra.getTimeLimit() * 1000L : -1;
         long duration = -System.currentTimeMillis();
-        for (Instance partition : partitions) {
-            completionService.submit(new InstanceSolverRunner(cra, partition));
-        }
-
+        Set<AttemptTask> running = Collections.newSetFromMap(new IdentityHashMap<AttemptTask, Boolean>(partitions.size()));
         boolean solved = true;
-        for (int i = 0; i < partitions.size(); i++) {
-            try {
-                InstanceResult res = completionService.take().get();
+        int nbRetries = 0;
+        long retriesDuration = 0;
+        try {
+            for (Instance partition : partitions) {
+                submit(exe, new AttemptTask(new Attempt(partition, cra, 0), completed), running);
+            }
+
+            while (!running.isEmpty()) {
+                AttemptTask f = completed.take();
+                running.remove(f);
+                Attempt a = f.attempt;
+                InstanceResult res = null;
+                Throwable failure = null;
+                try {
+                    res = f.get();
+                } catch (ExecutionException ex) {
+                    failure = ex.getCause() != null ? ex.getCause() : ex;
+                }
+                if (a.number > 0) {
+                    retriesDuration += a.duration;
+                }
+                if ((failure != null || res.getPlan() == null) && retryPolicy != null) {
+                    ChocoReconfigurationAlgorithmParams ps = withinDeadline(retryPolicy.retry(a.params, a.number + 1), deadline);
+                    if (ps != null) {
+                        LOGGER.debug("Retry #{} for a partition", a.number + 1);
+                        submit(exe, new AttemptTask(new Attempt(a.partition, ps, a.number + 1), completed), running);
+                        nbRetries++;
+                        continue;
+                    }
+                }
+                if (failure != null) {
+                    throw new SolverException(null, failure.getMessage(), failure);
+                }
                 if (res.getPlan() == null) {
                     solved = false;
                 }
                 results.add(res);
-            } catch (ExecutionException ignore) {
-                Throwable cause = ignore.getCause();
-                if (cause != null) {
-                    throw new SolverException(null, cause.getMessage(), cause);
+                if (l != null) {
+                    l.partitionSolved(a.partition, res);
+                }
+            }
+        } catch (RejectedExecutionException ex) {
+            //Saturated or shutdown pool. The partitions already submitted are cancelled below
+            throw new SolverException(orig.getModel(), "Unable to submit a partition: " + ex.getMessage(), ex);
+        } catch (InterruptedException e) {
+            throw new SolverException(orig.getModel(), e.getMessage(), e);
+        } finally {
+            //Cancelled, rejected or failed. Stop the remaining partitions and free their place in the queue
+            for (AttemptTask t : running) {
+                t.attempt.stop();
+                t.cancel(true);
+                if (exe instanceof ThreadPoolExecutor) {
+                    ((ThreadPoolExecutor) exe).remove(t);
                 }
-            } catch (InterruptedException e) {
-                throw new SolverException(orig.getModel(), e.getMessage(), e);
+            }
+            if (p == null) {
+                exe.shutdown();
             }
         }
         duration += System.currentTimeMillis();
@@ -127,17 +265,39 @@ public abstract class StaticPartitioning implements InstanceSolver {
                 start,
                 splitDuration,
                 duration,
-                workersCount,
+                nbWorkers,
                 partitions.size()
         );
-
-        exe.shutdown();
+        stats.setRetries(nbRetries, retriesDuration);
+        stats.setConstraintsSplitDuration(cstrSplitDuration);
 
         InstanceResult res = new InstanceResult(solved ? new DefaultReconfigurationPlan(orig.getModel()) : null, stats);
         merge(res, results);
         return res;
     }
 
+    /**
+     * Clamp the time limit of a retry to the time remaining before the deadline
+     * of the whole solving process.
+     *
+     * @param ps       the parameters of the retry. May be {@code null}
+     * @param deadline the deadline in the epoch format. {@code -1} for no deadline
+     * @return the parameters to use, {@code null} if there is no time left for a retry
+     */
+    private static ChocoReconfigurationAlgorithmParams withinDeadline(ChocoReconfigurationAlgorithmParams ps, long deadline) {
+        if (ps == null || deadline < 0) {
+            return ps;
+        }
+        int remaining = (int) ((deadline - System.currentTimeMillis()) / 1000);
+        if (remaining < 1) {
+            return null;
+        }
+        if (ps.getTimeLimit() <= 0 || ps.getTimeLimit() > remaining) {
+            return new DefaultChocoReconfigurationAlgorithmParams(ps).setTimeLimit(remaining);
+        }
+        return ps;
+    }
+
     private void merge(InstanceResult merged, Collection<InstanceResult> results) throws SolverException {
         ReconfigurationPlan plan = merged.getPlan();
         //Only if there is a solution
@@ -155,6 +315,95 @@ public abstract class StaticPartitioning implements InstanceSolver {
         }
     }
 
+    private static void submit(ExecutorService exe, AttemptTask t, Set<AttemptTask> running) {
+        exe.execute(t);
+        running.add(t);
+    }
+
+    /**
+     * The task that runs an attempt on a worker.
+     * Once done, the task itself is queued so the coordinator
+     * can retrieve both the attempt and its result.
+     */
+    private static class AttemptTask extends FutureTask<InstanceResult> {
+
+        private Attempt attempt;
+
+        private BlockingQueue<AttemptTask> completed;
+
+        public AttemptTask(Attempt a, BlockingQueue<AttemptTask> q) {
+            super(a);
+            attempt = a;
+            completed = q;
+        }
+
+        @Override
+        protected void done() {
+            completed.add(this);
+        }
+    }
+
+    /**
+     * An attempt to solve a partition.
+     */
+    private static class Attempt implements Callable<InstanceResult> {
+
+        private Instance partition;
+
+        private ChocoReconfigurationAlgorithmParams params;
+
+        private int number;
+
+        /**
+         * The duration of the attempt in milliseconds.
+         * Safely published through the completion of the future.
+         */
+        private long duration;
+
+        private InstanceSolverRunner runner;
+
+        public Attempt(Instance i, ChocoReconfigurationAlgorithmParams ps, int nb) {
+            partition = i;
+            params = ps;
+            number = nb;
+            runner = new InstanceSolverRunner(params, partition);
+            runner.setStoppable(true);
+        }
+
+        @Override
+        public InstanceResult call() throws SolverException {
+            duration = -System.currentTimeMillis();
+            try {
+                return runner.call();
+            } finally {
+                duration += System.currentTimeMillis();
+            }
+        }
+
+        /**
+         * Stop the solving process of the partition.
+         * The solver ignores the interruptions so cancelling the task is not enough.
+         */
+        public void stop() {
+            runner.stop();
+        }
+    }
+
+    /**
+     * Split an instance into several disjoint instances and measure
+     * the time spent to split the constraints.
+     * By default, the instance is split using {@link #split(ChocoReconfigurationAlgorithmParams, Instance)}
+     * and the time spent to split the constraints is not measured.
+     *
+     * @param ps the parameters for the solver
+     * @param i  the instance to split
+     * @return the disjoint instances
+     * @throws SolverException if an error prevent the splitting process
+     */
+    public SplitResult splitInstance(ChocoReconfigurationAlgorithmParams ps, Instance i) throws SolverException {
+        return new SplitResult(split(ps, i), 0);
+    }
+
     /**
      * Split an instance into several disjoint instances.
      *
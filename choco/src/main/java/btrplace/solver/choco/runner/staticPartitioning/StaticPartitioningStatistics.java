@@ -37,7 +37,11 @@ public class StaticPartitioningStatistics implements SolvingStatistics {
 
     private int nbWorkers, nbSearchNodes, nbBacktracks, nbPartitions;
 
-    private long splitDuration, duration, start;
+    private long splitDuration, cstrSplitDuration, duration, start;
+
+    private int nbRetries;
+
+    private long retriesDuration;
 
     private boolean hitTimeout;
 
@@ -222,6 +226,35 @@ public class StaticPartitioningStatistics implements SolvingStatistics {
         partResults.add(stats);
     }
 
+    /**
+     * Set the retries that have been performed for the failing partitions.
+     *
+     * @param nb the number of retries
+     * @param d  the cumulated duration of the retries in milliseconds
+     */
+    public void setRetries(int nb, long d) {
+        nbRetries = nb;
+        retriesDuration = d;
+    }
+
+    /**
+     * Get the number of retries that have been performed for the failing partitions.
+     *
+     * @return a positive number
+     */
+    public int getNbRetries() {
+        return nbRetries;
+    }
+
+    /**
+     * Get the cumulated duration of the retries.
+     *
+     * @return a duration in milliseconds
+     */
+    public long getRetriesDuration() {
+        return retriesDuration;
+    }
+
     /**
      * Get the partition splitting duration in milliseconds.
      *
@@ -231,6 +264,25 @@ public class StaticPartitioningStatistics implements SolvingStatistics {
         return splitDuration;
     }
 
+    /**
+     * Set the time spent to split the constraints.
+     *
+     * @param d a duration in milliseconds
+     */
+    public void setConstraintsSplitDuration(long d) {
+        cstrSplitDuration = d;
+    }
+
+    /**
+     * Get the time spent to split the constraints.
+     * This duration is included in {@link #getSplitDuration()}.
+     *
+     * @return a positive value.
+     */
+    public long getConstraintsSplitDuration() {
+        return cstrSplitDuration;
+    }
+
     @Override
     public long getStart() {
         return start;
@@ -286,6 +338,9 @@ public class StaticPartitioningStatistics implements SolvingStatistics {
             b.append(" (").append(getNbManagedVMs()).append(" managed)");
         }
         b.append("; ").append(nbWorkers).append(" worker(s)").append(", ").append(nbPartitions).append(" partition(s)");
+        if (nbRetries > 0) {
+            b.append(", ").append(nbRetries).append(" retry(ies) (").append(retriesDuration).append("ms)");
+        }
         b.append("; ").append(nbConstraints).append(" constraint(s)");
 
         if (params.doOptimize()) {
@@ -0,0 +1,46 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco;
+
+import choco.cp.solver.CPSolver;
+import choco.kernel.solver.variables.integer.IntDomainVar;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link BinPackingBuilder}.
+ *
+ * @author Fabien Hermenier
+ */
+public class BinPackingBuilderTest {
+
+    @Test
+    public void testUseSparseCandidates() {
+        CPSolver s = new CPSolver();
+        int nbBins = 1000;
+        IntDomainVar[] full = new IntDomainVar[10];
+        IntDomainVar[] restricted = new IntDomainVar[10];
+        for (int i = 0; i < full.length; i++) {
+            full[i] = s.createEnumIntVar("f" + i, 0, nbBins - 1);
+            //2 candidate bins per item
+            restricted[i] = s.createEnumIntVar("r" + i, new int[]{i, i + 500});
+        }
+        Assert.assertFalse(BinPackingBuilder.useSparseCandidates(full, nbBins));
+        Assert.assertTrue(BinPackingBuilder.useSparseCandidates(restricted, nbBins));
+    }
+}
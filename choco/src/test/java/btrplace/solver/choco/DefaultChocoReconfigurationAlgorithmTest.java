@@ -25,7 +25,13 @@ import btrplace.solver.SolverException;
 import btrplace.solver.choco.actionModel.ActionModelUtils;
 import btrplace.solver.choco.constraint.ChocoConstraint;
 import btrplace.solver.choco.constraint.ChocoConstraintBuilder;
+import btrplace.solver.choco.lns.CostlyActionsNeighbourhood;
+import btrplace.solver.choco.lns.Neighbourhood;
+import btrplace.solver.choco.lns.NodeNeighbourhood;
+import btrplace.solver.choco.lns.RandomNeighbourhood;
+import btrplace.solver.choco.runner.SolutionStatistics;
 import btrplace.solver.choco.runner.SolvingStatistics;
+import btrplace.solver.choco.runner.WorkersPool;
 import btrplace.solver.choco.view.ModelViewMapper;
 import choco.cp.solver.CPSolver;
 import choco.cp.solver.constraints.global.AtMostNValue;
@@ -35,10 +41,7 @@ import choco.kernel.solver.variables.integer.IntDomainVar;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
-import java.util.Arrays;
-import java.util.Collections;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
 
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
@@ -73,6 +76,265 @@ public class DefaultChocoReconfigurationAlgorithmTest {
         ModelViewMapper m = new ModelViewMapper();
         cra.setViewMapper(m);
         Assert.assertEquals(cra.getViewMapper(), m);
+
+        Assert.assertNull(cra.getWorkersPool());
+        WorkersPool p = new WorkersPool(2);
+        cra.setWorkersPool(p);
+        Assert.assertEquals(cra.getWorkersPool(), p);
+        p.shutdown();
+
+        Assert.assertNull(cra.getPlacementHint());
+        Mapping hint = new DefaultMapping();
+        cra.setPlacementHint(hint);
+        Assert.assertEquals(cra.getPlacementHint(), hint);
+        cra.setPlacementHint(null);
+        Assert.assertNull(cra.getPlacementHint());
+        cra.setPlacementHint(hint);
+        cra.setPlacementHintFromPlan(null);
+        Assert.assertNull(cra.getPlacementHint());
+    }
+
+    @Test
+    public void testSolveWithSymmetryBreaking() throws SolverException {
+        Model mo = new DefaultModel();
+        Mapping map = mo.getMapping();
+        ShareableResource cpu = new ShareableResource("cpu", 6, 2);
+        Node n0 = mo.newNode();
+        map.addOnlineNode(n0);
+        map.addRunningVM(mo.newVM(), n0);
+        map.addRunningVM(mo.newVM(), n0);
+        Node banned = mo.newNode();
+        map.addOnlineNode(banned);
+        for (int i = 0; i < 4; i++) {
+            map.addOnlineNode(mo.newNode());
+        }
+        Set<VM> toRun = new HashSet<>();
+        for (int i = 0; i < 6; i++) {
+            VM v = mo.newVM();
+            map.addReadyVM(v);
+            toRun.add(v);
+        }
+        mo.attach(cpu);
+        VM first = toRun.iterator().next();
+        Set<SatConstraint> cstrs = new HashSet<>();
+        cstrs.add(new Running(toRun));
+        cstrs.add(new Ban(Collections.singleton(first), Collections.singleton(banned)));
+
+        ChocoReconfigurationAlgorithm cra = new DefaultChocoReconfigurationAlgorithm();
+        Assert.assertFalse(cra.doSymmetryBreaking());
+        cra.doSymmetryBreaking(true);
+        Assert.assertTrue(cra.doSymmetryBreaking());
+        ReconfigurationPlan plan = cra.solve(mo, cstrs);
+        Assert.assertNotNull(plan);
+        Mapping res = plan.getResult().getMapping();
+        Assert.assertEquals(res.getRunningVMs().size(), 8);
+        Assert.assertNotEquals(res.getVMLocation(first), banned);
+    }
+
+    @Test
+    public void testSolveWithEagerScheduling() throws SolverException {
+        Model mo = new DefaultModel();
+        Mapping map = mo.getMapping();
+        ShareableResource cpu = new ShareableResource("cpu", 4, 4);
+        Node n1 = mo.newNode();
+        Node n2 = mo.newNode();
+        Node n3 = mo.newNode();
+        map.addOnlineNode(n1);
+        map.addOnlineNode(n2);
+        map.addOnlineNode(n3);
+        VM vm1 = mo.newVM();
+        VM vm2 = mo.newVM();
+        map.addRunningVM(vm1, n1);
+        map.addRunningVM(vm2, n2);
+        mo.attach(cpu);
+        Set<SatConstraint> cstrs = new HashSet<>();
+        cstrs.add(new Fence(Collections.singleton(vm1), Collections.singleton(n2)));
+        cstrs.add(new Fence(Collections.singleton(vm2), Collections.singleton(n3)));
+
+        ChocoReconfigurationAlgorithm cra = new DefaultChocoReconfigurationAlgorithm();
+        cra.doOptimize(true);
+        ReconfigurationPlan lazy = cra.solve(mo, cstrs);
+        Assert.assertFalse(cra.doEagerScheduling());
+        cra.doEagerScheduling(true);
+        Assert.assertTrue(cra.doEagerScheduling());
+        ReconfigurationPlan eager = cra.solve(mo, cstrs);
+        Assert.assertNotNull(lazy);
+        Assert.assertNotNull(eager);
+        Assert.assertEquals(eager.getSize(), 2);
+        Assert.assertEquals(eager.getDuration(), lazy.getDuration());
+        //vm2 must leave n2 before vm1 arrives
+        Assert.assertEquals(eager.getResult().getMapping().getVMLocation(vm1), n2);
+    }
+
+    @Test
+    public void testSolveWithBoundedSolutionPool() throws SolverException {
+        Model mo = new DefaultModel();
+        Mapping map = mo.getMapping();
+        Node n1 = mo.newNode();
+        Node n2 = mo.newNode();
+        map.addOnlineNode(n1);
+        map.addOnlineNode(n2);
+        for (int i = 0; i < 6; i++) {
+            map.addRunningVM(mo.newVM(), n1);
+        }
+        Set<SatConstraint> cstrs = new HashSet<>();
+        cstrs.add(new Offline(Collections.singleton(n1)));
+
+        ChocoReconfigurationAlgorithm cra = new DefaultChocoReconfigurationAlgorithm();
+        cra.doOptimize(true);
+        Assert.assertEquals(cra.getSolutionPoolCapacity(), DefaultReconfigurationProblem.DEFAULT_SOLUTION_POOL_CAPACITY);
+        cra.setSolutionPoolCapacity(Integer.MAX_VALUE);
+        ReconfigurationPlan full = cra.solve(mo, cstrs);
+        List<SolutionStatistics> allSols = cra.getStatistics().getSolutions();
+        cra.setSolutionPoolCapacity(0);
+        Assert.assertEquals(cra.getSolutionPoolCapacity(), 1);
+        ReconfigurationPlan best = cra.solve(mo, cstrs);
+        Assert.assertNotNull(full);
+        Assert.assertNotNull(best);
+        Assert.assertEquals(best.getDuration(), full.getDuration());
+        //The statistics of every solution are kept, whatever the capacity of the pool
+        List<SolutionStatistics> sols = cra.getStatistics().getSolutions();
+        Assert.assertEquals(sols.size(), allSols.size());
+        for (int i = 0; i < sols.size(); i++) {
+            Assert.assertEquals(sols.get(i).getOptValue(), allSols.get(i).getOptValue());
+        }
+    }
+
+    @Test
+    public void testSolveWithLNS() throws SolverException {
+        Model mo = new DefaultModel();
+        Mapping map = mo.getMapping();
+        ShareableResource cpu = new ShareableResource("cpu", 4, 1);
+        List<Node> ns = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Node n = mo.newNode();
+            map.addOnlineNode(n);
+            ns.add(n);
+        }
+        for (int i = 0; i < 8; i++) {
+            map.addRunningVM(mo.newVM(), ns.get(i % 2));
+        }
+        mo.attach(cpu);
+        Set<SatConstraint> cstrs = new HashSet<>();
+        cstrs.add(new Offline(Collections.singleton(ns.get(0))));
+
+        ChocoReconfigurationAlgorithm cra = new DefaultChocoReconfigurationAlgorithm();
+        cra.doOptimize(true);
+        Assert.assertNull(cra.getNeighbourhood());
+        ReconfigurationPlan ref = cra.solve(mo, cstrs);
+        Assert.assertNotNull(ref);
+        cra.setNeighbourhoodSize(2);
+        Assert.assertEquals(cra.getNeighbourhoodSize(), 2);
+        for (Neighbourhood n : new Neighbourhood[]{new RandomNeighbourhood(), new NodeNeighbourhood(), new CostlyActionsNeighbourhood()}) {
+            cra.setNeighbourhood(n);
+            Assert.assertSame(cra.getNeighbourhood(), n);
+            ReconfigurationPlan p = cra.solve(mo, cstrs);
+            Assert.assertNotNull(p);
+            Assert.assertTrue(p.getResult().getMapping().isOffline(ns.get(0)));
+            Assert.assertFalse(cra.getStatistics().getSolutions().isEmpty());
+        }
+    }
+
+    /**
+     * The neighbourhood covers all the VMs so the large neighbourhood search must
+     * reach the optimal cost rather than stopping after its first improvement.
+     */
+    @Test
+    public void testLNSWithFullNeighbourhood() throws SolverException {
+        Model mo = new DefaultModel();
+        Mapping map = mo.getMapping();
+        ShareableResource cpu = new ShareableResource("cpu", 4, 1);
+        List<Node> ns = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Node n = mo.newNode();
+            map.addOnlineNode(n);
+            ns.add(n);
+        }
+        for (int i = 0; i < 8; i++) {
+            map.addRunningVM(mo.newVM(), ns.get(i % 2));
+        }
+        mo.attach(cpu);
+        Set<SatConstraint> cstrs = new HashSet<>();
+        cstrs.add(new Offline(Collections.singleton(ns.get(0))));
+
+        ChocoReconfigurationAlgorithm cra = new DefaultChocoReconfigurationAlgorithm();
+        cra.doOptimize(true);
+        Assert.assertNotNull(cra.solve(mo, cstrs));
+        List<SolutionStatistics> sols = cra.getStatistics().getSolutions();
+        int optimum = sols.get(sols.size() - 1).getOptValue();
+
+        cra.setNeighbourhood(new RandomNeighbourhood());
+        Assert.assertNotNull(cra.solve(mo, cstrs));
+        SolvingStatistics st = cra.getStatistics();
+        sols = st.getSolutions();
+        Assert.assertEquals(sols.get(sols.size() - 1).getOptValue(), optimum);
+        //The statistics cover the improvements
+        Assert.assertTrue(st.getNbSearchNodes() >= sols.get(sols.size() - 1).getNbNodes());
+    }
+
+    /**
+     * Two runs with the same seed must select the same neighbourhoods.
+     */
+    @Test
+    public void testLNSIsReproducible() throws SolverException {
+        Model mo = new DefaultModel();
+        Mapping map = mo.getMapping();
+        List<Node> ns = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Node n = mo.newNode();
+            map.addOnlineNode(n);
+            ns.add(n);
+        }
+        for (int i = 0; i < 8; i++) {
+            map.addRunningVM(mo.newVM(), ns.get(i % 2));
+        }
+        mo.attach(new ShareableResource("cpu", 4, 1));
+        Set<SatConstraint> cstrs = new HashSet<>();
+        cstrs.add(new Offline(Collections.singleton(ns.get(0))));
+
+        ChocoReconfigurationAlgorithm cra = new DefaultChocoReconfigurationAlgorithm();
+        cra.doOptimize(true);
+        cra.setNeighbourhood(new RandomNeighbourhood());
+        cra.setNeighbourhoodSize(2);
+        cra.setNeighbourhoodSeed(42);
+        Assert.assertEquals(cra.getNeighbourhoodSeed(), 42);
+        ReconfigurationPlan p1 = cra.solve(mo, cstrs);
+        int nb1 = cra.getStatistics().getSolutions().size();
+        ReconfigurationPlan p2 = cra.solve(mo, cstrs);
+        Assert.assertNotNull(p1);
+        Assert.assertEquals(p2.getResult().getMapping(), p1.getResult().getMapping());
+        Assert.assertEquals(p2.getDuration(), p1.getDuration());
+        Assert.assertEquals(cra.getStatistics().getSolutions().size(), nb1);
+    }
+
+    @Test
+    public void testSolveWithPlacementHint() throws SolverException {
+        Model mo = new DefaultModel();
+        Mapping map = mo.getMapping();
+        for (int i = 0; i < 5; i++) {
+            map.addOnlineNode(mo.newNode());
+        }
+        for (int i = 0; i < 4; i++) {
+            map.addReadyVM(mo.newVM());
+        }
+        Node target = map.getOnlineNodes().iterator().next();
+        Mapping hint = map.clone();
+        for (VM v : map.getReadyVMs()) {
+            hint.addRunningVM(v, target);
+        }
+
+        ChocoReconfigurationAlgorithm cra = new DefaultChocoReconfigurationAlgorithm();
+        cra.setPlacementHint(hint);
+        ReconfigurationPlan plan = cra.solve(mo, Collections.<SatConstraint>singleton(new Running(map.getReadyVMs())));
+        Assert.assertEquals(plan.getSize(), 4);
+        Mapping res = plan.getResult().getMapping();
+        for (VM v : map.getAllVMs()) {
+            Assert.assertEquals(res.getVMLocation(v), target);
+        }
+
+        //The plan is a hint for the next solving process
+        cra.setPlacementHintFromPlan(plan);
+        Assert.assertEquals(cra.getPlacementHint(), res);
     }
 
     @Test
@@ -24,6 +24,7 @@ import btrplace.plan.ReconfigurationPlan;
 import btrplace.solver.SolverException;
 import btrplace.solver.choco.actionModel.*;
 import btrplace.solver.choco.durationEvaluator.DurationEvaluators;
+import btrplace.solver.choco.runner.SolutionStatistics;
 import btrplace.solver.choco.view.CShareableResource;
 import btrplace.solver.choco.view.ChocoModelView;
 import btrplace.solver.choco.view.ChocoModelViewBuilder;
@@ -41,6 +42,7 @@ import org.testng.annotations.Test;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -767,6 +769,35 @@ public class DefaultReconfigurationProblemTest {
         }
     }
 
+    /**
+     * The counters are linked together through a global cardinality constraint.
+     *
+     * @throws SolverException
+     * @throws ContradictionException
+     */
+    @Test
+    public void testGlobalVMCounting() throws SolverException, ContradictionException {
+        Model mo = new DefaultModel();
+        Mapping map = mo.getMapping();
+        for (int i = 0; i < 3; i++) {
+            map.addOnlineNode(mo.newNode());
+        }
+        for (int i = 0; i < 6; i++) {
+            map.addReadyVM(mo.newVM());
+        }
+        ReconfigurationProblem rp = new DefaultReconfigurationProblemBuilder(mo)
+                .setNextVMsStates(new HashSet<VM>()
+                        , map.getAllVMs()
+                        , new HashSet<VM>()
+                        , new HashSet<VM>())
+                .build();
+        IntDomainVar[] counts = rp.getNbRunningVMs();
+        counts[0].setSup(2);
+        counts[1].setSup(2);
+        rp.getSolver().propagate();
+        Assert.assertEquals(counts[2].getInf(), 2);
+    }
+
     @Test
     public void testMaintainState() throws SolverException {
         Model mo = new DefaultModel();
@@ -874,6 +905,42 @@ public class DefaultReconfigurationProblemTest {
         Assert.assertEquals(usedNodes(dst), 1);
     }
 
+    /**
+     * The dichotomic alterer probes bounds that have no solution, so the search
+     * must be relaunched with a relaxed bound and the incumbent plan must be returned.
+     */
+    @Test
+    public void testMinimizationWithDichotomicAlterer() throws SolverException {
+        Model mo = new DefaultModel();
+        Mapping map = mo.getMapping();
+        for (int i = 0; i < 10; i++) {
+            Node n = mo.newNode();
+            VM vm = mo.newVM();
+            map.addOnlineNode(n);
+            map.addRunningVM(vm, n);
+        }
+        ReconfigurationProblem rp = new DefaultReconfigurationProblemBuilder(mo).labelVariables().build();
+        CPSolver s = rp.getSolver();
+        //At least 3 nodes, so the probes below 3 fail
+        IntDomainVar nbNodes = s.createBoundIntVar("nbNodes", 3, map.getAllNodes().size());
+        IntDomainVar[] hosters = SliceUtils.extractHosters(ActionModelUtils.getDSlices(rp.getVMActions()));
+        s.post(new AtMostNValue(hosters, nbNodes));
+        s.setObjective(nbNodes);
+        s.getConfiguration().putEnum(Configuration.RESOLUTION_POLICY, ResolutionPolicy.MINIMIZE);
+
+        DichotomicAlterer alt = new DichotomicAlterer(rp);
+        rp.setObjectiveAlterer(alt);
+        ReconfigurationPlan plan = rp.solve(0, true);
+        Assert.assertNotNull(plan);
+        Assert.assertTrue(usedNodes(plan.getResult().getMapping()) <= 3);
+        List<SolutionStatistics> sols = rp.getSolutionsStatistics();
+        Assert.assertEquals(sols.get(sols.size() - 1).getOptValue(), 3);
+        //Every value below 3 is proved unreachable
+        Assert.assertEquals(alt.getLimit(), 3);
+        Assert.assertFalse(rp.isSearchLimitReached());
+        Assert.assertTrue(rp.getNbSearchNodes() >= sols.get(sols.size() - 1).getNbNodes());
+    }
+
     /**
      * Test a maximization problem: use the maximum number of nodes to host VMs
      *
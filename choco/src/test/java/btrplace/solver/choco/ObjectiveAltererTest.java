@@ -20,6 +20,8 @@ package btrplace.solver.choco;
 import btrplace.model.DefaultModel;
 import btrplace.model.Model;
 import btrplace.solver.SolverException;
+import choco.kernel.solver.Configuration;
+import choco.kernel.solver.ResolutionPolicy;
 import choco.kernel.solver.variables.integer.IntDomainVar;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -47,4 +49,58 @@ public class ObjectiveAltererTest {
         Assert.assertEquals(oa.tryNewValue(25), 50);
         Assert.assertEquals(oa.tryNewValue(50), 100);
     }
+
+    @Test
+    public void testDefaultRelax() throws SolverException {
+        Model mo = new DefaultModel();
+        ReconfigurationProblem rp = new DefaultReconfigurationProblemBuilder(mo).build();
+        IntDomainVar obj = rp.getSolver().createBoundIntVar("obj", 10, 1000);
+        rp.getSolver().setObjective(obj);
+        ObjectiveAlterer oa = new ObjectiveAlterer(rp) {
+            @Override
+            public int tryNewValue(int currentValue) {
+                return currentValue / 2;
+            }
+        };
+        Assert.assertEquals(oa.relaxValue(25), 25);
+    }
+
+    @Test
+    public void testDichotomicMinimization() throws SolverException {
+        Model mo = new DefaultModel();
+        ReconfigurationProblem rp = new DefaultReconfigurationProblemBuilder(mo).build();
+        IntDomainVar obj = rp.getSolver().createBoundIntVar("obj", 10, 1000);
+        rp.getSolver().setObjective(obj);
+        rp.getSolver().getConfiguration().putEnum(Configuration.RESOLUTION_POLICY, ResolutionPolicy.MINIMIZE);
+        DichotomicAlterer oa = new DichotomicAlterer(rp);
+        Assert.assertEquals(oa.getLimit(), 10);
+        Assert.assertEquals(oa.tryNewValue(110), 59);
+        //No solution below 59, try between 60 and 109
+        Assert.assertEquals(oa.relaxValue(59), 84);
+        Assert.assertEquals(oa.getLimit(), 60);
+        Assert.assertEquals(oa.tryNewValue(70), 64);
+        Assert.assertEquals(oa.relaxValue(64), 67);
+        Assert.assertEquals(oa.relaxValue(67), 68);
+        Assert.assertEquals(oa.relaxValue(68), 69);
+        //70 is optimal
+        Assert.assertEquals(oa.relaxValue(69), 69);
+        Assert.assertEquals(oa.getLimit(), 70);
+    }
+
+    @Test
+    public void testDichotomicMaximization() throws SolverException {
+        Model mo = new DefaultModel();
+        ReconfigurationProblem rp = new DefaultReconfigurationProblemBuilder(mo).build();
+        IntDomainVar obj = rp.getSolver().createBoundIntVar("obj", 10, 1000);
+        rp.getSolver().setObjective(obj);
+        rp.getSolver().getConfiguration().putEnum(Configuration.RESOLUTION_POLICY, ResolutionPolicy.MAXIMIZE);
+        DichotomicAlterer oa = new DichotomicAlterer(rp);
+        Assert.assertEquals(oa.getLimit(), 1000);
+        Assert.assertEquals(oa.tryNewValue(100), 551);
+        Assert.assertEquals(oa.relaxValue(551), 326);
+        Assert.assertEquals(oa.tryNewValue(999), 1000);
+        //999 is optimal
+        Assert.assertEquals(oa.relaxValue(1000), 1000);
+        Assert.assertEquals(oa.getLimit(), 999);
+    }
 }
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2012 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package btrplace.solver.choco.chocoUtil;
+
+import java.util.Random;
+
+/**
+ * Micro-benchmark for the profiles computed by {@link AliasedCumulativesFiltering}.
+ * The profiles are compared to the ones computed using hash maps,
+ * as in the previous implementation.
+ *
+ * @author Fabien Hermenier
+ */
+public class AliasedCumulativesFilteringBench {
+
+    public static void main(String[] args) {
+        int nbRuns = 10000;
+        Random rnd = new Random(42);
+        for (int size = 10; size <= 1000; size *= 10) {
+            AliasedCumulativesFilteringTest.RandomInstance b = new AliasedCumulativesFilteringTest.RandomInstance(rnd, 2, size, size);
+            if (!b.check()) {
+                throw new IllegalStateException("Profiles mismatch");
+            }
+            //Warm up
+            for (int x = 0; x < nbRuns; x++) {
+                b.computeProfiles();
+                b.computeLegacyProfiles();
+            }
+            long st = System.nanoTime();
+            for (int x = 0; x < nbRuns; x++) {
+                b.computeProfiles();
+            }
+            long arrays = System.nanoTime() - st;
+            st = System.nanoTime();
+            for (int x = 0; x < nbRuns; x++) {
+                b.computeLegacyProfiles();
+            }
+            long maps = System.nanoTime() - st;
+            System.out.println(size + " slices: arrays= " + (arrays / nbRuns) + " ns; hash maps= " + (maps / nbRuns) + " ns");
+        }
+    }
+}
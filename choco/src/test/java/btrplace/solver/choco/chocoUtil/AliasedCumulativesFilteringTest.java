@@ -0,0 +1,237 @@
+/*
+ * Copyright (c) 2012 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package btrplace.solver.choco.chocoUtil;
+
+import choco.cp.solver.CPSolver;
+import choco.kernel.memory.IEnvironment;
+import choco.kernel.memory.IStateIntVector;
+import choco.kernel.solver.variables.integer.IntDomainVar;
+import gnu.trove.TIntIntHashMap;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+/**
+ * Unit tests for {@link AliasedCumulativesFiltering}.
+ *
+ * @author Fabien Hermenier
+ */
+public class AliasedCumulativesFilteringTest {
+
+    @Test
+    public void testProfiles() {
+        Random rnd = new Random(42);
+        for (int x = 0; x < 20; x++) {
+            RandomInstance i = new RandomInstance(rnd, 2, 30, 30);
+            Assert.assertTrue(i.check());
+        }
+    }
+
+    /**
+     * A random instance for the profiles computed by {@link AliasedCumulativesFiltering}.
+     * The profiles are compared to the ones computed using hash maps,
+     * as in the previous implementation.
+     */
+    static class RandomInstance {
+
+        private int nbDims;
+
+        private int[] capacities;
+
+        private int[][] cUsages, dUsages;
+
+        private IntDomainVar[] cEnds, dStarts;
+
+        private BitSet out;
+
+        private IStateIntVector vIn;
+
+        private int[] assocs, revAssocs;
+
+        private AliasedCumulativesFiltering filter;
+
+        /**
+         * Make a random instance.
+         *
+         * @param rnd    the random number generator
+         * @param nbDims the number of dimensions
+         * @param nbC    the number of consuming slices
+         * @param nbD    the number of demanding slices
+         */
+        public RandomInstance(Random rnd, int nbDims, int nbC, int nbD) {
+            CPSolver s = new CPSolver();
+            IEnvironment env = s.getEnvironment();
+            this.nbDims = nbDims;
+            capacities = new int[nbDims];
+            Arrays.fill(capacities, 100 * (nbC + nbD));
+            cUsages = new int[nbDims][nbC];
+            dUsages = new int[nbDims][nbD];
+            for (int i = 0; i < nbDims; i++) {
+                for (int j = 0; j < nbC; j++) {
+                    cUsages[i][j] = rnd.nextInt(10);
+                }
+                for (int j = 0; j < nbD; j++) {
+                    dUsages[i][j] = rnd.nextInt(10);
+                }
+            }
+            cEnds = new IntDomainVar[nbC];
+            out = new BitSet(nbC);
+            for (int j = 0; j < nbC; j++) {
+                int lb = rnd.nextInt(50);
+                cEnds[j] = s.createBoundIntVar("cEnd" + j, lb, lb + rnd.nextInt(20));
+                if (rnd.nextBoolean()) {
+                    out.set(j);
+                }
+            }
+            dStarts = new IntDomainVar[nbD];
+            vIn = env.makeIntVector();
+            for (int j = 0; j < nbD; j++) {
+                int lb = rnd.nextInt(50);
+                dStarts[j] = s.createBoundIntVar("dStart" + j, lb, lb + rnd.nextInt(20));
+                if (rnd.nextBoolean()) {
+                    vIn.add(j);
+                }
+            }
+            assocs = new int[nbD];
+            revAssocs = new int[nbC];
+            Arrays.fill(assocs, AliasedCumulativesFiltering.NO_ASSOCIATIONS);
+            Arrays.fill(revAssocs, AliasedCumulativesFiltering.NO_ASSOCIATIONS);
+            for (int j = 0; j < Math.min(nbC, nbD); j++) {
+                if (rnd.nextInt(3) == 0) {
+                    assocs[j] = j;
+                    revAssocs[j] = j;
+                }
+            }
+            filter = new AliasedCumulativesFiltering(env, capacities, cUsages, cEnds, out, dUsages, dStarts, vIn, assocs, revAssocs);
+        }
+
+        /**
+         * Compute the profiles using the filtering.
+         */
+        public void computeProfiles() {
+            filter.computeProfiles();
+        }
+
+        /**
+         * Compute the profiles using hash maps.
+         *
+         * @return the min and the max profiles, per dimension
+         */
+        public TIntIntHashMap[][] computeLegacyProfiles() {
+            TIntIntHashMap[] min = new TIntIntHashMap[nbDims];
+            TIntIntHashMap[] max = new TIntIntHashMap[nbDims];
+            for (int i = 0; i < nbDims; i++) {
+                int startup = 0;
+                for (int j = out.nextSetBit(0); j >= 0; j = out.nextSetBit(j + 1)) {
+                    startup += cUsages[i][j];
+                }
+                min[i] = new TIntIntHashMap();
+                max[i] = new TIntIntHashMap();
+                min[i].put(0, startup);
+                max[i].put(0, startup);
+            }
+            for (int j = out.nextSetBit(0); j >= 0; j = out.nextSetBit(j + 1)) {
+                boolean increasing = isIncreasing(j);
+                TIntIntHashMap[] atInf = increasing ? max : min;
+                TIntIntHashMap[] atSup = increasing ? min : max;
+                for (int i = 0; i < nbDims; i++) {
+                    int t = cEnds[j].getInf();
+                    atInf[i].put(t, atInf[i].get(t) - cUsages[i][j]);
+                    t = cEnds[j].getSup();
+                    atSup[i].put(t, atSup[i].get(t) - cUsages[i][j]);
+                }
+            }
+            for (int i = 0; i < nbDims; i++) {
+                for (int x = 0; x < vIn.size(); x++) {
+                    int j = vIn.get(x);
+                    int t = dStarts[j].getSup();
+                    min[i].put(t, min[i].get(t) + dUsages[i][j]);
+                    t = dStarts[j].getInf();
+                    max[i].put(t, max[i].get(t) + dUsages[i][j]);
+                }
+                toAbsolute(min[i]);
+                toAbsolute(max[i]);
+            }
+            return new TIntIntHashMap[][]{min, max};
+        }
+
+        private boolean isIncreasing(int j) {
+            int d = revAssocs[j];
+            if (d == AliasedCumulativesFiltering.NO_ASSOCIATIONS) {
+                return false;
+            }
+            boolean in = false;
+            for (int x = 0; x < vIn.size(); x++) {
+                if (vIn.get(x) == d) {
+                    in = true;
+                    break;
+                }
+            }
+            if (!in) {
+                return false;
+            }
+            for (int i = 0; i < nbDims; i++) {
+                if (dUsages[i][d] > cUsages[i][j]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static void toAbsolute(TIntIntHashMap changes) {
+            int[] moments = changes.keys();
+            Arrays.sort(moments);
+            for (int x = 1; x < moments.length; x++) {
+                changes.put(moments[x], changes.get(moments[x]) + changes.get(moments[x - 1]));
+            }
+        }
+
+        /**
+         * Check the profiles computed by the filtering are the same as the legacy ones.
+         *
+         * @return {@code true} iff the profiles are equals
+         */
+        public boolean check() {
+            computeProfiles();
+            TIntIntHashMap[][] legacy = computeLegacyProfiles();
+            return same(filter.getProfileMin(), legacy[0]) && same(filter.getProfileMax(), legacy[1]);
+        }
+
+        private boolean same(Profile p, TIntIntHashMap[] ref) {
+            int[] moments = ref[0].keys();
+            Arrays.sort(moments);
+            if (p.size() != moments.length) {
+                return false;
+            }
+            for (int x = 0; x < moments.length; x++) {
+                if (p.moment(x) != moments[x]) {
+                    return false;
+                }
+                for (int i = 0; i < nbDims; i++) {
+                    if (p.usage(i, x) != ref[i].get(moments[x])) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+    }
+}
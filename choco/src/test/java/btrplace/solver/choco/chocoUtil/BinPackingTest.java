@@ -22,10 +22,13 @@ import choco.cp.solver.CPSolver;
 import choco.cp.solver.constraints.integer.ElementV;
 import choco.cp.solver.search.BranchingFactory;
 import choco.kernel.common.util.tools.ArrayUtils;
+import choco.kernel.memory.IStateBitSet;
 import choco.kernel.solver.Configuration;
+import choco.kernel.solver.ContradictionException;
 import choco.kernel.solver.Solver;
 import choco.kernel.solver.constraints.SConstraint;
 import choco.kernel.solver.variables.integer.IntDomainVar;
+import gnu.trove.iterator.TIntIterator;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -58,6 +61,10 @@ public class BinPackingTest {
     }
 
     public void modelPack(int[] capa, int[] height) {
+        modelPack(capa, height, false);
+    }
+
+    public void modelPack(int[] capa, int[] height, boolean sparse) {
         int nBins = capa.length;
         int nItems = height.length;
         s = new CPSolver();
@@ -71,7 +78,7 @@ public class BinPackingTest {
             sizes[i] = s.createIntegerConstant("s" + i, height[i]);
             bins[i] = s.createEnumIntVar("b" + i, 0, nBins);
         }
-        SConstraint cPack = new BinPacking(s.getEnvironment(), loads, sizes, bins);
+        SConstraint cPack = new BinPacking(s.getEnvironment(), loads, sizes, bins, sparse);
         s.post(cPack);
         s.getConfiguration().putFalse(Configuration.STOP_AT_FIRST_SOLUTION);
     }
@@ -121,6 +128,73 @@ public class BinPackingTest {
         testPack(24);
     }
 
+    @Test(sequential = true)
+    public void testSparseCandidates() {
+        modelPack(new int[]{5, 5, 5}, new int[]{2, 2, 2}, true);
+        s.addGoal(BranchingFactory.minDomMinVal(s, bins));
+        testPack(24);
+
+        modelPack(new int[]{7, 4, 3}, new int[]{3, 3, 2, 2, 1}, true);
+        s.addGoal(BranchingFactory.minDomMinVal(s, bins));
+        s.getConfiguration().putFalse(Configuration.STOP_AT_FIRST_SOLUTION);
+        s.launch();
+        int nbSparse = s.getNbSolutions();
+        s.clear();
+
+        modelPack(new int[]{7, 4, 3}, new int[]{3, 3, 2, 2, 1}, false);
+        s.addGoal(BranchingFactory.minDomMinVal(s, bins));
+        testPack(nbSparse);
+    }
+
+    @Test
+    public void testGetSparseCandidates() throws ContradictionException {
+        BinPacking[] bps = new BinPacking[2];
+        CPSolver[] cps = new CPSolver[2];
+        for (int x = 0; x < 2; x++) {
+            CPSolver cp = new CPSolver();
+            cps[x] = cp;
+            IntDomainVar[] ls = new IntDomainVar[3];
+            IntDomainVar[] ss = new IntDomainVar[4];
+            IntDomainVar[] bs = new IntDomainVar[4];
+            for (int i = 0; i < ls.length; i++) {
+                ls[i] = cp.createBoundIntVar("l" + i, 0, 5);
+            }
+            for (int i = 0; i < bs.length; i++) {
+                ss[i] = cp.createIntegerConstant("s" + i, i + 1);
+                bs[i] = cp.createEnumIntVar("b" + i, 0, ls.length - 1);
+            }
+            bs[1].removeVal(2, null, false);
+            bps[x] = new BinPacking(cp.getEnvironment(), ls, ss, bs, x == 1);
+            cp.post(bps[x]);
+            cp.propagate();
+        }
+        for (int b = 0; b < 3; b++) {
+            IStateBitSet full = bps[0].getCandidates(b);
+            IStateBitSet fromIt = cps[0].getEnvironment().makeBitSet(4);
+            TIntIterator it = bps[0].iterateCandidates(b);
+            while (it.hasNext()) {
+                fromIt.set(it.next());
+            }
+            Assert.assertEquals(fromIt.cardinality(), full.cardinality(), "bin " + b);
+            it = bps[1].iterateCandidates(b);
+            int nb = 0;
+            while (it.hasNext()) {
+                Assert.assertTrue(full.get(it.next()), "bin " + b);
+                nb++;
+            }
+            Assert.assertEquals(nb, full.cardinality(), "bin " + b);
+        }
+    }
+
+    @Test(expectedExceptions = {UnsupportedOperationException.class})
+    public void testNoBitsetWithSparseCandidates() {
+        CPSolver cp = new CPSolver();
+        IntDomainVar[] ls = new IntDomainVar[]{cp.createBoundIntVar("l0", 0, 5)};
+        IntDomainVar[] ss = new IntDomainVar[]{cp.createIntegerConstant("s0", 1)};
+        IntDomainVar[] bs = new IntDomainVar[]{cp.createEnumIntVar("b0", 0, 0)};
+        new BinPacking(cp.getEnvironment(), ls, ss, bs, true).getCandidates(0);
+    }
+
     @Test(sequential = true)
     public void testGuillaume() {
         modelPack(2, 100, 3, 30);
@@ -23,6 +23,7 @@ import choco.cp.solver.constraints.integer.ElementV;
 import choco.cp.solver.search.BranchingFactory;
 import choco.kernel.common.util.tools.ArrayUtils;
 import choco.kernel.solver.Configuration;
+import choco.kernel.solver.ContradictionException;
 import choco.kernel.solver.Solver;
 import choco.kernel.solver.constraints.SConstraint;
 import choco.kernel.solver.variables.integer.IntDomainVar;
@@ -129,6 +130,66 @@ public class LightBinPackingTest {
         testPack(2);
     }
 
+    private LightBinPacking modelItemFitPack(boolean filtering) {
+        s = new CPSolver();
+        IntDomainVar[] cpu = new IntDomainVar[]{s.createBoundIntVar("c0", 0, 10), s.createBoundIntVar("c1", 0, 10)};
+        IntDomainVar[] mem = new IntDomainVar[]{s.createBoundIntVar("m0", 0, 1), s.createBoundIntVar("m1", 0, 10)};
+        bins = new IntDomainVar[]{s.createEnumIntVar("b0", 0, 1), s.createEnumIntVar("b1", 0, 1)};
+        LightBinPacking cPack = new LightBinPacking(new String[]{"cpu", "mem"}, s.getEnvironment(), new IntDomainVar[][]{cpu, mem}, new int[][]{{5, 5}, {5, 1}}, bins);
+        cPack.setItemFitFiltering(filtering);
+        s.post(cPack);
+        return cPack;
+    }
+
+    @Test
+    public void testItemFitFiltering() throws ContradictionException {
+        LightBinPacking cPack = modelItemFitPack(true);
+        Assert.assertTrue(cPack.isItemFitFiltering());
+        s.propagate();
+        //The first item does not fit in the first bin wrt. the memory
+        Assert.assertTrue(bins[0].isInstantiatedTo(1));
+        Assert.assertFalse(bins[1].isInstantiated());
+
+        cPack = modelItemFitPack(false);
+        Assert.assertFalse(cPack.isItemFitFiltering());
+        s.propagate();
+        Assert.assertFalse(bins[0].isInstantiated());
+    }
+
+    private LightBinPacking modelBigItemsPack(boolean filtering) {
+        s = new CPSolver();
+        IntDomainVar[] cpu = new IntDomainVar[4];
+        IntDomainVar[] mem = new IntDomainVar[4];
+        for (int i = 0; i < cpu.length; i++) {
+            cpu[i] = s.createBoundIntVar("c" + i, 0, 10);
+            //The last bin has no memory
+            mem[i] = s.createBoundIntVar("m" + i, 0, i < 3 ? 10 : 0);
+        }
+        bins = new IntDomainVar[4];
+        for (int i = 0; i < bins.length; i++) {
+            bins[i] = s.createEnumIntVar("b" + i, 0, 3);
+        }
+        //Two items cannot share a bin wrt. the CPU, and only 3 bins have memory
+        LightBinPacking cPack = new LightBinPacking(new String[]{"cpu", "mem"}, s.getEnvironment(), new IntDomainVar[][]{cpu, mem}, new int[][]{{6, 6, 6, 6}, {1, 1, 1, 1}}, bins);
+        cPack.setItemFitFiltering(filtering);
+        s.post(cPack);
+        return cPack;
+    }
+
+    @Test(expectedExceptions = {ContradictionException.class})
+    public void testBigItemsBound() throws ContradictionException {
+        modelBigItemsPack(true);
+        s.propagate();
+    }
+
+    @Test
+    public void testWithoutBigItemsBound() throws ContradictionException {
+        modelBigItemsPack(false);
+        //Each dimension considered separately has enough space
+        s.propagate();
+        Assert.assertFalse(s.solve());
+    }
+
     /**
      * var = array[index]
      */
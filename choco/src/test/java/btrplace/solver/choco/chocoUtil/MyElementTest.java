@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2012 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package btrplace.solver.choco.chocoUtil;
+
+import choco.cp.solver.CPSolver;
+import choco.kernel.solver.ContradictionException;
+import choco.kernel.solver.variables.integer.IntDomainVar;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link MyElement}.
+ *
+ * @author Fabien Hermenier
+ */
+public class MyElementTest {
+
+    @Test
+    public void testSolveAll() {
+        CPSolver s = new CPSolver();
+        IntDomainVar idx = s.createEnumIntVar("idx", 0, 4);
+        IntDomainVar val = s.createEnumIntVar("val", 0, 5);
+        s.post(new MyElement(s.getEnvironment(), idx, new int[]{3, 1, 4, 1, 5}, val));
+        Assert.assertEquals(s.solveAll(), Boolean.TRUE);
+        Assert.assertEquals(s.getNbSolutions(), 5);
+    }
+
+    @Test
+    public void testIncrementalFiltering() throws ContradictionException {
+        CPSolver s = new CPSolver();
+        IntDomainVar idx = s.createEnumIntVar("idx", 2, 6);
+        IntDomainVar val = s.createEnumIntVar("val", 0, 10);
+        //idx 2 -> 3, 3 -> 1, 4 -> 4, 5 -> 1, 6 -> 5
+        s.post(new MyElement(s.getEnvironment(), idx, new int[]{3, 1, 4, 1, 5}, val, 2));
+        s.propagate();
+        Assert.assertEquals(val.getInf(), 1);
+        Assert.assertEquals(val.getSup(), 5);
+
+        //The indexes having the removed value are removed
+        val.remVal(1);
+        s.propagate();
+        Assert.assertFalse(idx.canBeInstantiatedTo(3));
+        Assert.assertFalse(idx.canBeInstantiatedTo(5));
+        Assert.assertEquals(val.getInf(), 3);
+
+        //Removing the index supporting the UB
+        idx.remVal(6);
+        s.propagate();
+        Assert.assertEquals(val.getSup(), 4);
+
+        //Increasing the value LB removes the index 2
+        val.setInf(4);
+        s.propagate();
+        Assert.assertTrue(idx.isInstantiatedTo(4));
+    }
+
+    @Test
+    public void testSortPositions() {
+        int[] values = {3, 1, 4, 1, 5};
+        int[] sorted = MyElement.sortPositions(values);
+        Assert.assertEquals(sorted.length, values.length);
+        for (int k = 0; k < sorted.length - 1; k++) {
+            Assert.assertTrue(values[sorted[k]] <= values[sorted[k + 1]]);
+        }
+    }
+
+    @Test
+    public void testSharedSortedPositions() {
+        CPSolver s = new CPSolver();
+        int[] values = {3, 1, 4, 1, 5};
+        int[] sorted = MyElement.sortPositions(values);
+        IntDomainVar val = s.createEnumIntVar("val", 0, 5);
+        IntDomainVar idx1 = s.createEnumIntVar("idx1", 0, 4);
+        IntDomainVar idx2 = s.createEnumIntVar("idx2", 0, 4);
+        s.post(new MyElement(s.getEnvironment(), idx1, values, val, 0, sorted));
+        s.post(new MyElement(s.getEnvironment(), idx2, values, val, 0, sorted));
+        Assert.assertEquals(s.solveAll(), Boolean.TRUE);
+        //val = 1 allows 2x2 index pairs, the other values 1 pair each
+        Assert.assertEquals(s.getNbSolutions(), 7);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2012 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+package btrplace.solver.choco.chocoUtil;
+
+import choco.cp.solver.CPSolver;
+import choco.kernel.solver.variables.integer.IntDomainVar;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link ObjectiveBound}.
+ *
+ * @author Fabien Hermenier
+ */
+public class ObjectiveBoundTest {
+
+    @Test
+    public void testTightenForMinimization() {
+        CPSolver s = new CPSolver();
+        IntDomainVar obj = s.createBoundIntVar("obj", 0, 10);
+        ObjectiveBound b = new ObjectiveBound(obj, new IntDomainVar[0], true);
+        Assert.assertEquals(b.getBound(), 10);
+        Assert.assertTrue(b.tighten(5));
+        Assert.assertFalse(b.tighten(7));
+        Assert.assertFalse(b.tighten(5));
+        Assert.assertEquals(b.getBound(), 5);
+    }
+
+    @Test
+    public void testTightenForMaximization() {
+        CPSolver s = new CPSolver();
+        IntDomainVar obj = s.createBoundIntVar("obj", 0, 10);
+        ObjectiveBound b = new ObjectiveBound(obj, new IntDomainVar[0], false);
+        Assert.assertEquals(b.getBound(), 0);
+        Assert.assertTrue(b.tighten(5));
+        Assert.assertFalse(b.tighten(3));
+        Assert.assertEquals(b.getBound(), 5);
+    }
+
+    @Test
+    public void testRelax() {
+        CPSolver s = new CPSolver();
+        IntDomainVar obj = s.createBoundIntVar("obj", 0, 10);
+        ObjectiveBound min = new ObjectiveBound(obj, new IntDomainVar[0], true);
+        Assert.assertTrue(min.isMinimizing());
+        Assert.assertTrue(min.tighten(3));
+        Assert.assertFalse(min.relax(2));
+        Assert.assertTrue(min.relax(6));
+        Assert.assertEquals(min.getBound(), 6);
+
+        ObjectiveBound max = new ObjectiveBound(obj, new IntDomainVar[0], false);
+        Assert.assertFalse(max.isMinimizing());
+        Assert.assertTrue(max.tighten(7));
+        Assert.assertFalse(max.relax(8));
+        Assert.assertTrue(max.relax(4));
+        Assert.assertEquals(max.getBound(), 4);
+    }
+
+    /**
+     * The bound must still hold after a backtrack.
+     */
+    @Test
+    public void testBoundSurvivesBacktrack() {
+        CPSolver s = new CPSolver();
+        IntDomainVar obj = s.createBoundIntVar("obj", 0, 10);
+        IntDomainVar x = s.createBoundIntVar("x", 0, 3);
+        ObjectiveBound b = new ObjectiveBound(obj, new IntDomainVar[]{x}, true);
+        s.post(b);
+        Assert.assertEquals(s.solve(), Boolean.TRUE);
+        b.tighten(4);
+        int nb = 1;
+        while (s.nextSolution() == Boolean.TRUE) {
+            Assert.assertTrue(obj.getVal() <= 4);
+            nb++;
+        }
+        Assert.assertTrue(nb > 1);
+    }
+}
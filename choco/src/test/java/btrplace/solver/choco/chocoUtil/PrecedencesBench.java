@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2012 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package btrplace.solver.choco.chocoUtil;
+
+import choco.cp.solver.CPSolver;
+import choco.kernel.solver.ContradictionException;
+import choco.kernel.solver.variables.integer.IntDomainVar;
+
+import java.util.Random;
+
+/**
+ * Micro-benchmark for {@link Precedences} on synthetic resources
+ * with a large number of leaving tasks.
+ * Each round updates the bounds of every end variable then propagates.
+ *
+ * @author Fabien Hermenier
+ */
+public class PrecedencesBench {
+
+    private static Random rnd = new Random();
+
+    /**
+     * Bench the constraint.
+     *
+     * @param nbHosts  the number of hosts
+     * @param nbOthers the number of leaving tasks per host
+     * @param nbRounds the number of rounds
+     * @return the average duration of a round, in nanoseconds
+     * @throws ContradictionException if the propagation fails, which is not expected
+     */
+    public static long bench(int nbHosts, int nbOthers, int nbRounds) throws ContradictionException {
+        CPSolver s = new CPSolver();
+        int[] others = new int[nbHosts * nbOthers];
+        IntDomainVar[] ends = new IntDomainVar[others.length];
+        for (int i = 0; i < ends.length; i++) {
+            others[i] = i % nbHosts;
+            ends[i] = s.createBoundIntVar("end" + i, 0, 1000);
+        }
+        IntDomainVar host = s.createEnumIntVar("host", 0, nbHosts - 1);
+        IntDomainVar start = s.createBoundIntVar("start", 0, 2000);
+        s.post(new Precedences(s.getEnvironment(), host, start, others, ends));
+        s.propagate();
+
+        long st = System.nanoTime();
+        for (int r = 0; r < nbRounds; r++) {
+            s.worldPush();
+            for (IntDomainVar end : ends) {
+                end.setInf(rnd.nextInt(500));
+                end.setSup(500 + rnd.nextInt(500));
+                s.propagate();
+            }
+            s.worldPop();
+        }
+        return (System.nanoTime() - st) / nbRounds;
+    }
+
+    public static void main(String[] args) throws ContradictionException {
+        int nbRounds = 1000;
+        //Warm up
+        bench(10, 500, nbRounds);
+        for (int nbOthers = 100; nbOthers <= 500; nbOthers += 100) {
+            System.out.println(nbOthers + " leaving tasks per host: " + bench(10, nbOthers, nbRounds) + " ns per round");
+        }
+    }
+}
@@ -19,6 +19,7 @@
 package btrplace.solver.choco.chocoUtil;
 
 import choco.cp.solver.CPSolver;
+import choco.kernel.solver.ContradictionException;
 import choco.kernel.solver.variables.integer.IntDomainVar;
 import org.testng.Assert;
 import org.testng.annotations.Test;
@@ -100,4 +101,36 @@ public class PrecedencesTest {
         Assert.assertEquals(ret, Boolean.TRUE);
         Assert.assertEquals(s.getNbSolutions(), 75); //TODO: A way to check if it is correct ?
     }
+
+    /**
+     * The host is instantiated after the ends were updated.
+     * The start must then be after the horizon of the host.
+     */
+    @Test
+    public void testHostInstantiatedLater() throws ContradictionException {
+        CPSolver s = new CPSolver();
+        int[] others = {0, 0, 1, 1};
+        IntDomainVar[] ends = new IntDomainVar[others.length];
+        for (int i = 0; i < ends.length; i++) {
+            ends[i] = s.createBoundIntVar("ends[" + i + "]", 0, 10);
+        }
+        IntDomainVar host = s.createEnumIntVar("host", 0, 1);
+        IntDomainVar start = s.createBoundIntVar("start", 0, 10);
+        s.post(new Precedences(s.getEnvironment(), host, start, others, ends));
+        s.propagate();
+        ends[2].setInf(3);
+        ends[3].setInf(6);
+        s.propagate();
+        Assert.assertEquals(start.getInf(), 0);
+        host.setVal(1);
+        s.propagate();
+        Assert.assertEquals(start.getInf(), 6);
+
+        //Once the start is fixed, the ends on the possible hosts are bounded
+        start.setVal(7);
+        s.propagate();
+        Assert.assertEquals(ends[2].getSup(), 7);
+        Assert.assertEquals(ends[3].getSup(), 7);
+        Assert.assertEquals(ends[0].getSup(), 10);
+    }
 }
@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2012 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ *
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+
+package btrplace.solver.choco.chocoUtil;
+
+import choco.cp.solver.CPSolver;
+import choco.kernel.solver.ContradictionException;
+import choco.kernel.solver.variables.integer.IntDomainVar;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Random;
+
+/**
+ * Unit tests for {@link TaskScheduler}.
+ *
+ * @author Fabien Hermenier
+ */
+public class TaskSchedulerTest {
+
+    private static final int HORIZON = 10;
+
+    /**
+     * Make a problem with 3 resources, 4 cTasks and 3 dTasks.
+     * The dTask 0 is associated to the cTask 1.
+     *
+     * @return the variables of the constraint: dHosters, cHosters, cEnds, dStarts
+     */
+    private static IntDomainVar[] makeProblem(CPSolver s, boolean incremental, boolean eager) {
+        return makeScheduler(s, incremental, eager).vs;
+    }
+
+    private static Problem makeScheduler(CPSolver s, boolean incremental, boolean eager) {
+        int[][] capas = {{4, 4, 4}};
+        int[] cHostersVals = {0, 1, 2, 2};
+        int[][] cUsages = {{2, 3, 1, 1}};
+        int[][] dUsages = {{3, 2, 3}};
+        int[] assocs = {1, LocalTaskScheduler.NO_ASSOCIATIONS, LocalTaskScheduler.NO_ASSOCIATIONS};
+
+        IntDomainVar[] earlyStarts = new IntDomainVar[capas[0].length];
+        IntDomainVar[] lastEnds = new IntDomainVar[capas[0].length];
+        for (int i = 0; i < earlyStarts.length; i++) {
+            earlyStarts[i] = s.makeConstantIntVar(0);
+            lastEnds[i] = s.makeConstantIntVar(HORIZON);
+        }
+        IntDomainVar[] cHosters = new IntDomainVar[cHostersVals.length];
+        IntDomainVar[] cEnds = new IntDomainVar[cHostersVals.length];
+        for (int i = 0; i < cHosters.length; i++) {
+            cHosters[i] = s.makeConstantIntVar(cHostersVals[i]);
+            cEnds[i] = s.createBoundIntVar("cEnd" + i, 0, HORIZON);
+        }
+        IntDomainVar[] dHosters = new IntDomainVar[dUsages[0].length];
+        IntDomainVar[] dStarts = new IntDomainVar[dUsages[0].length];
+        for (int i = 0; i < dHosters.length; i++) {
+            dHosters[i] = s.createEnumIntVar("dHost" + i, 0, capas[0].length - 1);
+            dStarts[i] = s.createBoundIntVar("dStart" + i, 0, HORIZON);
+        }
+        TaskScheduler ts = new TaskScheduler(s.getEnvironment(), earlyStarts, lastEnds, capas,
+                cHosters, cUsages, cEnds, dHosters, dUsages, dStarts, assocs);
+        ts.setIncrementalFiltering(incremental);
+        ts.setEagerFiltering(eager);
+        s.post(ts);
+
+        IntDomainVar[] vs = new IntDomainVar[dHosters.length * 2 + cHosters.length * 2];
+        int x = 0;
+        for (IntDomainVar v : dHosters) {
+            vs[x++] = v;
+        }
+        for (IntDomainVar v : cHosters) {
+            vs[x++] = v;
+        }
+        for (IntDomainVar v : cEnds) {
+            vs[x++] = v;
+        }
+        for (IntDomainVar v : dStarts) {
+            vs[x++] = v;
+        }
+        return new Problem(ts, vs);
+    }
+
+    private static class Problem {
+
+        private TaskScheduler ts;
+
+        private IntDomainVar[] vs;
+
+        public Problem(TaskScheduler t, IntDomainVar[] v) {
+            ts = t;
+            vs = v;
+        }
+    }
+
+    @Test
+    public void testSwitches() {
+        TaskScheduler ts = makeScheduler(new CPSolver(), true, false).ts;
+        Assert.assertTrue(ts.isIncrementalFiltering());
+        Assert.assertFalse(ts.isEagerFiltering());
+        ts.setIncrementalFiltering(false);
+        Assert.assertFalse(ts.isIncrementalFiltering());
+    }
+
+    /**
+     * The bounds of a cTask end are changed once all the dTasks are placed.
+     * The start of the dTask that cannot overlap must be filtered without any instantiation.
+     */
+    @Test
+    public void testFilteringOnBoundChanges() throws ContradictionException {
+        CPSolver s = new CPSolver();
+        IntDomainVar[] vs = makeProblem(s, true, false);
+        s.propagate();
+        //One dTask per resource
+        vs[0].setVal(0);
+        vs[1].setVal(1);
+        vs[2].setVal(2);
+        s.propagate();
+        //cTask 0 (usage 2) ends after 5, so dTask 0 (usage 3) can not start before on resource 0
+        vs[7].setInf(5);
+        s.propagate();
+        Assert.assertTrue(vs[11].getInf() >= 5, "dStart0 = " + vs[11].pretty());
+    }
+
+    /**
+     * Random decisions are applied on two problems that only differ by the filtering mode.
+     * The incremental filtering must reduce the domains as much as checking every resource.
+     */
+    @Test
+    public void testIncrementalFilteringIsComplete() {
+        for (boolean eager : new boolean[]{false, true}) {
+            for (int seed = 0; seed < 100; seed++) {
+                Random rnd = new Random(seed);
+                CPSolver s1 = new CPSolver();
+                CPSolver s2 = new CPSolver();
+                IntDomainVar[] inc = makeProblem(s1, true, eager);
+                IntDomainVar[] full = makeProblem(s2, false, eager);
+                boolean ok1 = propagate(s1);
+                boolean ok2 = propagate(s2);
+                Assert.assertEquals(ok1, ok2);
+                for (int step = 0; ok1 && step < 8 && !allInstantiated(inc); step++) {
+                    IntDomainVar v1, v2;
+                    do {
+                        int x = rnd.nextInt(inc.length);
+                        v1 = inc[x];
+                        v2 = full[x];
+                    } while (v1.isInstantiated());
+                    int val;
+                    do {
+                        val = v1.getInf() + rnd.nextInt(v1.getSup() - v1.getInf() + 1);
+                    } while (!v1.canBeInstantiatedTo(val));
+                    int kind = v1.hasEnumeratedDomain() ? 0 : rnd.nextInt(2);
+                    ok1 = decide(s1, v1, kind, val);
+                    ok2 = decide(s2, v2, kind, val);
+                    Assert.assertEquals(ok1, ok2, "seed " + seed + ", step " + step);
+                    if (ok1) {
+                        for (int i = 0; i < inc.length; i++) {
+                            Assert.assertEquals(inc[i].getInf(), full[i].getInf(), "seed " + seed + ", " + inc[i].pretty());
+                            Assert.assertEquals(inc[i].getSup(), full[i].getSup(), "seed " + seed + ", " + inc[i].pretty());
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static boolean allInstantiated(IntDomainVar[] vs) {
+        for (IntDomainVar v : vs) {
+            if (!v.isInstantiated()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Instantiate a variable or restrict one of its bounds, then propagate.
+     *
+     * @return {@code false} iff a contradiction occurred
+     */
+    private static boolean decide(CPSolver s, IntDomainVar v, int kind, int val) {
+        try {
+            if (kind == 0) {
+                v.setVal(val);
+            } else if (val - v.getInf() < v.getSup() - val) {
+                v.setInf(val);
+            } else {
+                v.setSup(val);
+            }
+        } catch (ContradictionException ex) {
+            return false;
+        }
+        return propagate(s);
+    }
+
+    private static boolean propagate(CPSolver s) {
+        try {
+            s.propagate();
+        } catch (ContradictionException ex) {
+            return false;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.constraint.minMTTR;
+
+import btrplace.model.*;
+import btrplace.model.constraint.Running;
+import btrplace.model.constraint.SatConstraint;
+import btrplace.model.view.ShareableResource;
+import btrplace.plan.ReconfigurationPlan;
+import btrplace.solver.SolverException;
+import btrplace.solver.choco.ChocoReconfigurationAlgorithm;
+import btrplace.solver.choco.DefaultChocoReconfigurationAlgorithm;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Unit tests for {@link CapacityAwareVMPlacement}.
+ *
+ * @author Fabien Hermenier
+ */
+public class CapacityAwareVMPlacementTest {
+
+    /**
+     * Place a new VM and get the position of its host among the nodes.
+     */
+    private static int placeNewVM(CapacityAwareVMPlacement.Policy po) throws SolverException {
+        Model mo = new DefaultModel();
+        Mapping map = mo.getMapping();
+        ShareableResource cpu = new ShareableResource("cpu", 10, 1);
+        Node n1 = mo.newNode();
+        Node n2 = mo.newNode();
+        Node n3 = mo.newNode();
+        map.addOnlineNode(n1);
+        map.addOnlineNode(n2);
+        map.addOnlineNode(n3);
+        VM vm1 = mo.newVM();
+        VM vm2 = mo.newVM();
+        VM vm3 = mo.newVM();
+        map.addRunningVM(vm1, n1);
+        map.addRunningVM(vm2, n2);
+        map.addReadyVM(vm3);
+        cpu.setConsumption(vm1, 6);
+        cpu.setConsumption(vm2, 2);
+        cpu.setConsumption(vm3, 3);
+        mo.attach(cpu);
+
+        ChocoReconfigurationAlgorithm cra = new DefaultChocoReconfigurationAlgorithm();
+        cra.doRepair(true);
+        cra.getConstraintMapper().register(new CMinMTTR.Builder(po));
+        ReconfigurationPlan p = cra.solve(mo, Collections.<SatConstraint>singleton(new Running(Collections.singleton(vm3))));
+        Assert.assertNotNull(p);
+        return Arrays.asList(n1, n2, n3).indexOf(p.getResult().getMapping().getVMLocation(vm3));
+    }
+
+    @Test
+    public void testBestFit() throws SolverException {
+        Assert.assertEquals(placeNewVM(CapacityAwareVMPlacement.Policy.BEST_FIT), 0);
+    }
+
+    @Test
+    public void testWorstFit() throws SolverException {
+        Assert.assertEquals(placeNewVM(CapacityAwareVMPlacement.Policy.WORST_FIT), 2);
+    }
+
+    @Test
+    public void testDotProduct() throws SolverException {
+        Assert.assertEquals(placeNewVM(CapacityAwareVMPlacement.Policy.DOT_PRODUCT), 2);
+    }
+
+    /**
+     * Without any resource, all the nodes have the same score.
+     * The VMs must not be all placed on the same node.
+     */
+    @Test
+    public void testTieBreakWithoutResources() throws SolverException {
+        Model mo = new DefaultModel();
+        Mapping map = mo.getMapping();
+        for (int i = 0; i < 4; i++) {
+            map.addOnlineNode(mo.newNode());
+        }
+        for (int i = 0; i < 12; i++) {
+            map.addReadyVM(mo.newVM());
+        }
+        ChocoReconfigurationAlgorithm cra = new DefaultChocoReconfigurationAlgorithm();
+        cra.getConstraintMapper().register(new CMinMTTR.Builder(CapacityAwareVMPlacement.Policy.BEST_FIT));
+        ReconfigurationPlan p = cra.solve(mo, Collections.<SatConstraint>singleton(new Running(map.getAllVMs())));
+        Assert.assertNotNull(p);
+        Mapping res = p.getResult().getMapping();
+        Set<Node> hosts = new HashSet<>();
+        for (VM v : map.getAllVMs()) {
+            hosts.add(res.getVMLocation(v));
+        }
+        Assert.assertTrue(hosts.size() > 1, "All the VMs are on " + hosts);
+    }
+}
@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.constraint.minMTTR;
+
+import btrplace.model.DefaultModel;
+import btrplace.model.Mapping;
+import btrplace.model.Model;
+import btrplace.model.Node;
+import btrplace.solver.SolverException;
+import btrplace.solver.choco.DefaultReconfigurationProblemBuilder;
+import btrplace.solver.choco.ReconfigurationProblem;
+import btrplace.solver.choco.Slice;
+import btrplace.solver.choco.actionModel.ActionModelUtils;
+import choco.kernel.solver.ContradictionException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+/**
+ * Unit tests for {@link HostingVariableSelector}.
+ *
+ * @author Fabien Hermenier
+ */
+public class HostingVariableSelectorTest {
+
+    @Test
+    public void testSelectionWithBacktrack() throws SolverException, ContradictionException {
+        Model mo = new DefaultModel();
+        Mapping map = mo.getMapping();
+        Node n1 = mo.newNode();
+        Node n2 = mo.newNode();
+        map.addOnlineNode(n1);
+        map.addOnlineNode(n2);
+        for (int i = 0; i < 3; i++) {
+            map.addRunningVM(mo.newVM(), n1);
+        }
+        ReconfigurationProblem rp = new DefaultReconfigurationProblemBuilder(mo).build();
+        List<Slice> slices = ActionModelUtils.getDSlices(rp.getVMActions());
+        HostingVariableSelector sel = new HostingVariableSelector("foo", rp, slices, null);
+
+        Assert.assertSame(sel.selectVar(), slices.get(0).getHoster());
+        rp.getSolver().worldPush();
+        slices.get(0).getHoster().setVal(0);
+        slices.get(1).getHoster().setVal(1);
+        Assert.assertSame(sel.selectVar(), slices.get(2).getHoster());
+        rp.getSolver().worldPush();
+        slices.get(2).getHoster().setVal(1);
+        Assert.assertNull(sel.selectVar());
+        rp.getSolver().worldPop();
+        Assert.assertSame(sel.selectVar(), slices.get(2).getHoster());
+        rp.getSolver().worldPop();
+        //The pointer is restored upon backtrack
+        Assert.assertSame(sel.selectVar(), slices.get(0).getHoster());
+    }
+}
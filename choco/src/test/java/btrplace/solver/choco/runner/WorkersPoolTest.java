@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package btrplace.solver.choco.runner;
+
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.*;
+
+/**
+ * Unit tests for {@link WorkersPool}.
+ *
+ * @author Fabien Hermenier
+ */
+public class WorkersPoolTest {
+
+    @Test
+    public void testMetrics() throws Exception {
+        WorkersPool p = new WorkersPool(1, 1, Executors.defaultThreadFactory());
+        Assert.assertEquals(p.getNbWorkers(), 1);
+        Assert.assertEquals(p.getQueueDepth(), 0);
+        Assert.assertEquals(p.getActiveWorkers(), 0);
+        Assert.assertEquals(p.getRejectedTasks(), 0);
+
+        final CountDownLatch running = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        Callable<Boolean> blocking = new Callable<Boolean>() {
+            @Override
+            public Boolean call() throws Exception {
+                running.countDown();
+                return release.await(10, TimeUnit.SECONDS);
+            }
+        };
+        Future<Boolean> f1 = p.getExecutorService().submit(blocking);
+        running.await();
+        Assert.assertEquals(p.getActiveWorkers(), 1);
+
+        //The second task is queued, the third is rejected
+        Future<Boolean> f2 = p.getExecutorService().submit(new Callable<Boolean>() {
+            @Override
+            public Boolean call() {
+                return true;
+            }
+        });
+        Assert.assertEquals(p.getQueueDepth(), 1);
+        try {
+            p.getExecutorService().submit(blocking);
+            Assert.fail("The task should have been rejected");
+        } catch (RejectedExecutionException ex) {
+            Assert.assertEquals(p.getRejectedTasks(), 1);
+        }
+        release.countDown();
+        Assert.assertTrue(f1.get());
+        Assert.assertTrue(f2.get());
+        p.shutdown();
+        Assert.assertTrue(p.isShutdown());
+    }
+
+    @Test
+    public void testReuse() throws Exception {
+        WorkersPool p = new WorkersPool(2);
+        Assert.assertEquals(p.getNbWorkers(), 2);
+        for (int i = 0; i < 10; i++) {
+            final int x = i;
+            Future<Integer> f = p.getExecutorService().submit(new Callable<Integer>() {
+                @Override
+                public Integer call() {
+                    return x;
+                }
+            });
+            Assert.assertEquals(f.get().intValue(), i);
+        }
+        p.shutdown();
+        Assert.assertTrue(p.getExecutorService().awaitTermination(5, TimeUnit.SECONDS));
+        Assert.assertEquals(p.getCompletedTasks(), 10);
+        try {
+            p.getExecutorService().submit(new Runnable() {
+                @Override
+                public void run() {
+                }
+            });
+            Assert.fail("The task should have been rejected");
+        } catch (RejectedExecutionException ex) {
+            Assert.assertEquals(p.getRejectedTasks(), 1);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.runner.dynamicPartitioning;
+
+import btrplace.model.*;
+import btrplace.model.constraint.MinMTTR;
+import btrplace.model.constraint.Running;
+import btrplace.model.constraint.SatConstraint;
+import btrplace.solver.SolverException;
+import btrplace.solver.choco.ChocoReconfigurationAlgorithm;
+import btrplace.solver.choco.ChocoReconfigurationAlgorithmParams;
+import btrplace.solver.choco.DefaultChocoReconfigurationAlgorithm;
+import btrplace.solver.choco.DefaultChocoReconfigurationAlgorithmParams;
+import btrplace.solver.choco.UnknownFeasibilityException;
+import btrplace.solver.choco.constraint.ConstraintMapper;
+import btrplace.solver.choco.runner.InstanceResult;
+import btrplace.solver.choco.runner.WorkersPool;
+import btrplace.solver.choco.runner.staticPartitioning.FixedSizePartitioning;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Collections;
+
+/**
+ * Unit tests for {@link DynamicPartitioning}.
+ *
+ * @author Fabien Hermenier
+ */
+public class DynamicPartitioningTest {
+
+    private static ChocoReconfigurationAlgorithmParams params = new DefaultChocoReconfigurationAlgorithmParams();
+
+    @Test
+    public void testInstantiation() {
+        FixedSizePartitioning f = new FixedSizePartitioning(5);
+        DynamicPartitioning d = new DynamicPartitioning(f);
+        Assert.assertEquals(d.getInitialPartitioning(), f);
+        Assert.assertEquals(d.getWorkersCount(), Runtime.getRuntime().availableProcessors());
+        Assert.assertEquals(d.getRefineTimeLimit(), DynamicPartitioning.DEFAULT_REFINE_TIME_LIMIT);
+        Assert.assertEquals(d.getMinPartitionSize(), 2);
+        d.setWorkersCount(3);
+        Assert.assertEquals(d.getWorkersCount(), 3);
+        d.setRefineTimeLimit(10);
+        Assert.assertEquals(d.getRefineTimeLimit(), 10);
+        d.setMinPartitionSize(4);
+        Assert.assertEquals(d.getMinPartitionSize(), 4);
+
+        ChocoReconfigurationAlgorithm cra = new DefaultChocoReconfigurationAlgorithm();
+        cra.setInstanceSolver(d);
+        Assert.assertEquals(cra.getInstanceSolver(), d);
+    }
+
+    private static Instance makeInstance() {
+        Model mo = new DefaultModel();
+        for (int i = 0; i < 13; i++) {
+            Node n = mo.newNode();
+            mo.getMapping().addOnlineNode(n);
+            for (int j = 0; j < 3; j++) {
+                VM v = mo.newVM();
+                mo.getMapping().addRunningVM(v, n);
+            }
+        }
+        for (int i = 0; i < 5; i++) {
+            mo.getMapping().addReadyVM(mo.newVM());
+        }
+        return new Instance(mo, Collections.<SatConstraint>singleton(new Running(mo.getMapping().getAllVMs())), new MinMTTR());
+    }
+
+    @Test
+    public void testSolve() throws SolverException {
+        Instance i = makeInstance();
+        DynamicPartitioning d = new DynamicPartitioning(new FixedSizePartitioning(5));
+        InstanceResult res = d.solve(params, i);
+        //The ready VMs must have been launched
+        Assert.assertEquals(res.getPlan().getSize(), 5);
+        DynamicPartitioningStatistics st = (DynamicPartitioningStatistics) res.getStatistics();
+        Assert.assertEquals(st.getNbParts(), 3 + st.getNbRefinements());
+        Assert.assertEquals(st.getSolutions().size(), 1);
+    }
+
+    @Test
+    public void testSolveWithWorkersPool() throws SolverException {
+        Instance i = makeInstance();
+        DynamicPartitioning d = new DynamicPartitioning(new FixedSizePartitioning(5));
+        WorkersPool pool = new WorkersPool(2);
+        ChocoReconfigurationAlgorithmParams ps = new DefaultChocoReconfigurationAlgorithmParams().setWorkersPool(pool);
+        try {
+            InstanceResult res = d.solve(ps, i);
+            Assert.assertEquals(res.getPlan().getSize(), 5);
+            Assert.assertEquals(((DynamicPartitioningStatistics) res.getStatistics()).getNbWorkers(), 2);
+            Assert.assertTrue(pool.getCompletedTasks() >= 3);
+            Assert.assertFalse(pool.isShutdown());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Only a partition without solution before the time limit can be refined.
+     * Any other error must be reported.
+     */
+    @Test
+    public void testErrorsAreReported() {
+        Instance i = makeInstance();
+        DynamicPartitioning d = new DynamicPartitioning(new FixedSizePartitioning(5));
+        ChocoReconfigurationAlgorithmParams ps = new DefaultChocoReconfigurationAlgorithmParams();
+        ConstraintMapper mapper = ConstraintMapper.newBundle();
+        mapper.unRegister(Running.class);
+        ps.setConstraintMapper(mapper);
+        try {
+            d.solve(ps, i);
+            Assert.fail("The missing mapping must be reported");
+        } catch (SolverException ex) {
+            Assert.assertFalse(ex instanceof UnknownFeasibilityException);
+            Assert.assertTrue(ex.getMessage().contains("Running"), ex.getMessage());
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.runner.portfolio;
+
+import btrplace.model.*;
+import btrplace.model.constraint.MinMTTR;
+import btrplace.model.constraint.Running;
+import btrplace.model.constraint.SatConstraint;
+import btrplace.model.view.ShareableResource;
+import btrplace.solver.SolverException;
+import btrplace.solver.choco.ChocoReconfigurationAlgorithm;
+import btrplace.solver.choco.ChocoReconfigurationAlgorithmParams;
+import btrplace.solver.choco.DefaultChocoReconfigurationAlgorithm;
+import btrplace.solver.choco.DefaultChocoReconfigurationAlgorithmParams;
+import btrplace.solver.choco.runner.InstanceResult;
+import btrplace.solver.choco.runner.WorkersPool;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+/**
+ * Unit tests for {@link PortfolioRunner}.
+ *
+ * @author Fabien Hermenier
+ */
+public class PortfolioRunnerTest {
+
+    @Test
+    public void testInstantiation() {
+        PortfolioRunner p = new PortfolioRunner();
+        Assert.assertEquals(p.getConfigurations().size(), 2);
+        Assert.assertTrue(((RepairConfiguration) p.getConfigurations().get(0)).doRepair());
+        Assert.assertFalse(((RepairConfiguration) p.getConfigurations().get(1)).doRepair());
+        Assert.assertEquals(p.getLastWinner(), -1);
+        Assert.assertNull(p.getWorkersPool());
+
+        p = new PortfolioRunner(Collections.<PortfolioConfiguration>singletonList(new RepairConfiguration(false)));
+        Assert.assertEquals(p.getConfigurations().size(), 1);
+        p.addConfiguration(new RepairConfiguration(true));
+        Assert.assertEquals(p.getConfigurations().size(), 2);
+
+        ChocoReconfigurationAlgorithm cra = new DefaultChocoReconfigurationAlgorithm();
+        cra.setInstanceSolver(p);
+        Assert.assertEquals(cra.getInstanceSolver(), p);
+    }
+
+    @Test
+    public void testRepairConfiguration() {
+        ChocoReconfigurationAlgorithmParams ps = new DefaultChocoReconfigurationAlgorithmParams().setTimeLimit(7);
+        ChocoReconfigurationAlgorithmParams r = new RepairConfiguration(true).configure(ps);
+        Assert.assertTrue(r.doRepair());
+        Assert.assertEquals(r.getTimeLimit(), 7);
+        Assert.assertFalse(ps.doRepair());
+    }
+
+    private static Instance makeInstance() {
+        Model mo = new DefaultModel();
+        for (int i = 0; i < 5; i++) {
+            Node n = mo.newNode();
+            mo.getMapping().addOnlineNode(n);
+            mo.getMapping().addRunningVM(mo.newVM(), n);
+        }
+        for (int i = 0; i < 5; i++) {
+            mo.getMapping().addReadyVM(mo.newVM());
+        }
+        return new Instance(mo, Collections.<SatConstraint>singleton(new Running(mo.getMapping().getAllVMs())), new MinMTTR());
+    }
+
+    @Test
+    public void testSolve() throws SolverException {
+        Instance i = makeInstance();
+        PortfolioRunner p = new PortfolioRunner();
+        ChocoReconfigurationAlgorithmParams ps = new DefaultChocoReconfigurationAlgorithmParams();
+        InstanceResult res = p.solve(ps, i);
+        Assert.assertEquals(res.getPlan().getSize(), 5);
+        Assert.assertTrue(p.getLastWinner() >= 0 && p.getLastWinner() < 2);
+
+        ps.doOptimize(true);
+        res = p.solve(ps, i);
+        Assert.assertEquals(res.getPlan().getSize(), 5);
+        Assert.assertTrue(p.getLastWinner() >= 0 && p.getLastWinner() < 2);
+    }
+
+    @Test
+    public void testSolveWithPool() throws SolverException {
+        WorkersPool pool = new WorkersPool(2);
+        try {
+            PortfolioRunner p = new PortfolioRunner(Arrays.<PortfolioConfiguration>asList(new RepairConfiguration(true), new RepairConfiguration(false)));
+            p.setWorkersPool(pool);
+            InstanceResult res = p.solve(new DefaultChocoReconfigurationAlgorithmParams(), makeInstance());
+            Assert.assertEquals(res.getPlan().getSize(), 5);
+            Assert.assertFalse(pool.isShutdown());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * The repair mode cannot place the VM to run as it does not move the running VMs.
+     * Its failure must not stop the race.
+     */
+    @Test
+    public void testRepairFailureDoesNotStopTheRace() throws SolverException {
+        Model mo = new DefaultModel();
+        ShareableResource cpu = new ShareableResource("cpu", 2, 1);
+        Node n1 = mo.newNode();
+        Node n2 = mo.newNode();
+        mo.getMapping().addOnlineNode(n1);
+        mo.getMapping().addOnlineNode(n2);
+        mo.getMapping().addRunningVM(mo.newVM(), n1);
+        mo.getMapping().addRunningVM(mo.newVM(), n2);
+        VM vm3 = mo.newVM();
+        mo.getMapping().addReadyVM(vm3);
+        cpu.setConsumption(vm3, 2);
+        mo.attach(cpu);
+        Instance i = new Instance(mo, Collections.<SatConstraint>singleton(new Running(Collections.singleton(vm3))), new MinMTTR());
+
+        PortfolioRunner p = new PortfolioRunner(Arrays.<PortfolioConfiguration>asList(new RepairConfiguration(true), new RepairConfiguration(false)));
+        for (int x = 0; x < 5; x++) {
+            InstanceResult res = p.solve(new DefaultChocoReconfigurationAlgorithmParams(), i);
+            Assert.assertNotNull(res.getPlan());
+            Assert.assertEquals(p.getLastWinner(), 1);
+        }
+    }
+
+    @Test(expectedExceptions = {SolverException.class})
+    public void testSolveWithoutConfigurations() throws SolverException {
+        PortfolioRunner p = new PortfolioRunner(Collections.<PortfolioConfiguration>emptyList());
+        p.solve(new DefaultChocoReconfigurationAlgorithmParams(), makeInstance());
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.runner.staticPartitioning;
+
+import btrplace.model.*;
+import btrplace.model.constraint.*;
+import btrplace.solver.SolverException;
+import btrplace.solver.choco.ChocoReconfigurationAlgorithmParams;
+import btrplace.solver.choco.DefaultChocoReconfigurationAlgorithmParams;
+import btrplace.solver.choco.runner.InstanceResult;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.*;
+
+/**
+ * Unit tests for {@link ConstraintGraphPartitioning}.
+ *
+ * @author Fabien Hermenier
+ */
+public class ConstraintGraphPartitioningTest {
+
+    private static ChocoReconfigurationAlgorithmParams params = new DefaultChocoReconfigurationAlgorithmParams();
+
+    @Test
+    public void basicTesting() {
+        ConstraintGraphPartitioning c = new ConstraintGraphPartitioning(4);
+        Assert.assertEquals(c.getNbPartitions(), 4);
+        c.setNbPartitions(2);
+        Assert.assertEquals(c.getNbPartitions(), 2);
+        Assert.assertEquals(c.getImbalance(), ConstraintGraphPartitioning.DEFAULT_IMBALANCE);
+        c.setImbalance(0.5);
+        Assert.assertEquals(c.getImbalance(), 0.5);
+        Assert.assertTrue(c.getStickyConstraints().contains(Gather.class));
+        Assert.assertTrue(c.getStickyConstraints().contains(Among.class));
+        Assert.assertFalse(c.getStickyConstraints().contains(Spread.class));
+    }
+
+    /**
+     * 6 nodes hosting 2 VMs each.
+     * A gather constraint involves the VMs on n0 and n5.
+     * An among constraint involves VMs on n1 and n3 with [{n1, n2}, {n3, n4}] as groups.
+     */
+    private static Instance makeInstance() {
+        Model mo = new DefaultModel();
+        List<Node> ns = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            Node n = mo.newNode();
+            ns.add(n);
+            mo.getMapping().addOnlineNode(n);
+            for (int j = 0; j < 2; j++) {
+                mo.getMapping().addRunningVM(mo.newVM(), n);
+            }
+        }
+        Mapping map = mo.getMapping();
+        Instance i = new Instance(mo, new MinMTTR());
+        Set<VM> gathered = new HashSet<>(map.getRunningVMs(ns.get(0)));
+        gathered.addAll(map.getRunningVMs(ns.get(5)));
+        i.getSatConstraints().add(new Gather(gathered));
+
+        Collection<Collection<Node>> groups = new ArrayList<>();
+        groups.add(Arrays.asList(ns.get(1), ns.get(2)));
+        groups.add(Arrays.asList(ns.get(3), ns.get(4)));
+        Set<VM> among = new HashSet<>(map.getRunningVMs(ns.get(1)));
+        among.addAll(map.getRunningVMs(ns.get(3)));
+        i.getSatConstraints().add(new Among(among, groups));
+        return i;
+    }
+
+    @Test
+    public void testStickyConstraintsAreNotCut() throws SolverException {
+        Instance i = makeInstance();
+        ConstraintGraphPartitioning c = new ConstraintGraphPartitioning(2);
+        Collection<Collection<Node>> before = c.getPartitions();
+        List<Instance> parts = c.split(params, i);
+        Assert.assertEquals(parts.size(), 2);
+        //The computed partitions are not stored in the partitioning algorithm
+        Assert.assertSame(c.getPartitions(), before);
+        for (Instance p : parts) {
+            Mapping m = p.getModel().getMapping();
+            if (m.contains(new Node(0))) {
+                Assert.assertEquals(m.getAllNodes(), new HashSet<>(Arrays.asList(new Node(0), new Node(5))));
+                Assert.assertEquals(p.getSatConstraints().size(), 1);
+                Assert.assertTrue(p.getSatConstraints().iterator().next() instanceof Gather);
+            } else {
+                Assert.assertEquals(m.getAllNodes().size(), 4);
+                Assert.assertEquals(p.getSatConstraints().size(), 1);
+                Assert.assertTrue(p.getSatConstraints().iterator().next() instanceof Among);
+            }
+        }
+        InstanceResult res = c.solve(params, i);
+        Assert.assertNotNull(res.getPlan());
+    }
+
+    /**
+     * A spread constraint involves all the VMs.
+     * It can be cut unless it is declared as sticky.
+     */
+    @Test
+    public void testCustomStickyConstraints() throws SolverException {
+        Model mo = new DefaultModel();
+        for (int i = 0; i < 6; i++) {
+            Node n = mo.newNode();
+            mo.getMapping().addOnlineNode(n);
+            mo.getMapping().addRunningVM(mo.newVM(), n);
+        }
+        Instance i = new Instance(mo, new MinMTTR());
+        i.getSatConstraints().add(new Spread(mo.getMapping().getAllVMs()));
+        ConstraintGraphPartitioning c = new ConstraintGraphPartitioning(3);
+        List<Instance> parts = c.split(params, i);
+        Assert.assertEquals(parts.size(), 3);
+        for (Instance p : parts) {
+            Assert.assertEquals(p.getSatConstraints().size(), 1);
+        }
+
+        c.getStickyConstraints().add(Spread.class);
+        parts = c.split(params, i);
+        Assert.assertEquals(parts.size(), 1);
+        Assert.assertEquals(parts.get(0).getModel().getMapping().getAllNodes().size(), 6);
+        Assert.assertEquals(parts.get(0).getSatConstraints(), i.getSatConstraints());
+    }
+
+    @Test
+    public void testBalance() throws SolverException {
+        Model mo = new DefaultModel();
+        for (int i = 0; i < 12; i++) {
+            Node n = mo.newNode();
+            mo.getMapping().addOnlineNode(n);
+            mo.getMapping().addRunningVM(mo.newVM(), n);
+        }
+        Instance i = new Instance(mo, new MinMTTR());
+        i.getSatConstraints().add(new Running(mo.getMapping().getAllVMs()));
+        ConstraintGraphPartitioning c = new ConstraintGraphPartitioning(3);
+        List<Instance> parts = c.split(params, i);
+        Assert.assertEquals(parts.size(), 3);
+        for (Instance p : parts) {
+            Assert.assertEquals(p.getModel().getMapping().getAllNodes().size(), 4);
+        }
+    }
+}
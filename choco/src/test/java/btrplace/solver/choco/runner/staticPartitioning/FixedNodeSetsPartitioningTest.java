@@ -22,10 +22,12 @@ import btrplace.model.constraint.MaxOnline;
 import btrplace.model.constraint.MinMTTR;
 import btrplace.model.constraint.Running;
 import btrplace.model.constraint.SatConstraint;
+import btrplace.model.constraint.Spread;
 import btrplace.plan.ReconfigurationPlan;
 import btrplace.solver.SolverException;
 import btrplace.solver.choco.DefaultChocoReconfigurationAlgorithm;
 import btrplace.solver.choco.DefaultChocoReconfigurationAlgorithmParams;
+import btrplace.solver.choco.runner.WorkersPool;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
@@ -119,4 +121,42 @@ public class FixedNodeSetsPartitioningTest {
         FixedNodeSetsPartitioning f = new FixedNodeSetsPartitioning(parts);
         f.split(new DefaultChocoReconfigurationAlgorithmParams(), orig);
     }
+
+    @Test
+    public void testParallelConstraintsSplit() throws SolverException {
+        Instance orig = makeInstance();
+        List<VM> vms = new ArrayList<>(orig.getModel().getMapping().getAllVMs());
+        for (int i = 0; i < vms.size() - 1; i++) {
+            orig.getSatConstraints().add(new Spread(new HashSet<>(vms.subList(i, i + 2))));
+        }
+        List<Collection<Node>> parts = splitIn(orig.getModel().getMapping().getAllNodes(), 3);
+
+        FixedNodeSetsPartitioning seq = new FixedNodeSetsPartitioning(parts);
+        seq.setWorkersCount(1);
+        List<Instance> expected = seq.split(new DefaultChocoReconfigurationAlgorithmParams(), orig);
+
+        FixedNodeSetsPartitioning par = new FixedNodeSetsPartitioning(parts);
+        par.setWorkersCount(4);
+        par.setChunkSize(5);
+        Assert.assertEquals(par.getChunkSize(), 5);
+        SplitResult res = par.splitInstance(new DefaultChocoReconfigurationAlgorithmParams(), orig);
+        List<Instance> subs = res.getInstances();
+        Assert.assertEquals(subs.size(), expected.size());
+        for (int i = 0; i < subs.size(); i++) {
+            Assert.assertEquals(subs.get(i).getSatConstraints(), expected.get(i).getSatConstraints());
+        }
+        Assert.assertTrue(res.getConstraintsSplitDuration() >= 0);
+
+        //Same result when the chunks are split on a pool of workers
+        WorkersPool pool = new WorkersPool(2);
+        try {
+            par.setWorkersPool(pool);
+            subs = par.split(new DefaultChocoReconfigurationAlgorithmParams(), orig);
+            for (int i = 0; i < subs.size(); i++) {
+                Assert.assertEquals(subs.get(i).getSatConstraints(), expected.get(i).getSatConstraints());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
 }
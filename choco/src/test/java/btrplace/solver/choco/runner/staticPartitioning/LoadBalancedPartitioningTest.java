@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.runner.staticPartitioning;
+
+import btrplace.model.*;
+import btrplace.model.constraint.Fence;
+import btrplace.model.constraint.MinMTTR;
+import btrplace.model.view.ShareableResource;
+import btrplace.solver.SolverException;
+import btrplace.solver.choco.ChocoReconfigurationAlgorithmParams;
+import btrplace.solver.choco.DefaultChocoReconfigurationAlgorithmParams;
+import btrplace.solver.choco.runner.InstanceResult;
+import gnu.trove.map.hash.TIntDoubleHashMap;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Unit tests for {@link LoadBalancedPartitioning}.
+ *
+ * @author Fabien Hermenier
+ */
+public class LoadBalancedPartitioningTest {
+
+    private static ChocoReconfigurationAlgorithmParams params = new DefaultChocoReconfigurationAlgorithmParams();
+
+    @Test
+    public void basicTesting() {
+        LoadBalancedPartitioning l = new LoadBalancedPartitioning(4);
+        Assert.assertEquals(l.getNbPartitions(), 4);
+        l.setNbPartitions(2);
+        Assert.assertEquals(l.getNbPartitions(), 2);
+    }
+
+    /**
+     * 4 nodes. n0 hosts 6 VMs, the other nodes host 2 VMs.
+     */
+    private static Instance makeInstance() {
+        Model mo = new DefaultModel();
+        for (int i = 0; i < 4; i++) {
+            Node n = mo.newNode();
+            mo.getMapping().addOnlineNode(n);
+            for (int j = 0; j < (i == 0 ? 6 : 2); j++) {
+                mo.getMapping().addRunningVM(mo.newVM(), n);
+            }
+        }
+        return new Instance(mo, new MinMTTR());
+    }
+
+    @Test
+    public void testCostEstimation() {
+        Instance i = makeInstance();
+        Model mo = i.getModel();
+        TIntDoubleHashMap costs = LoadBalancedPartitioning.estimateCosts(params, i);
+        Assert.assertEquals(costs.get(0), 7d);
+        Assert.assertEquals(costs.get(1), 3d);
+
+        //Full node
+        ShareableResource rc = new ShareableResource("cpu", 10, 5);
+        mo.attach(rc);
+        costs = LoadBalancedPartitioning.estimateCosts(params, i);
+        Assert.assertEquals(costs.get(1), 5d);
+
+        //Constraints
+        i.getSatConstraints().add(new Fence(mo.getMapping().getRunningVMs(new Node(2)), Collections.singleton(new Node(3))));
+        costs = LoadBalancedPartitioning.estimateCosts(params, i);
+        Assert.assertEquals(costs.get(2), 6d);
+        Assert.assertEquals(costs.get(3), 6d);
+    }
+
+    @Test
+    public void testSplit() throws SolverException {
+        Instance i = makeInstance();
+        LoadBalancedPartitioning l = new LoadBalancedPartitioning(2);
+        Collection<Collection<Node>> before = l.getPartitions();
+        List<Instance> parts = l.split(params, i);
+        Assert.assertEquals(parts.size(), 2);
+        //The computed partitions are not stored in the partitioning algorithm
+        Assert.assertSame(l.getPartitions(), before);
+        //The costly node is alone
+        for (Instance p : parts) {
+            Mapping m = p.getModel().getMapping();
+            if (m.contains(new Node(0))) {
+                Assert.assertEquals(m.getAllNodes().size(), 1);
+                Assert.assertEquals(m.getRunningVMs().size(), 6);
+            } else {
+                Assert.assertEquals(m.getAllNodes().size(), 3);
+                Assert.assertEquals(m.getRunningVMs().size(), 6);
+            }
+        }
+
+        InstanceResult res = l.solve(params, i);
+        Assert.assertNotNull(res.getPlan());
+        Assert.assertEquals(res.getPlan().getSize(), 0);
+    }
+
+    @Test
+    public void testMorePartitionsThanNodes() throws SolverException {
+        Instance i = makeInstance();
+        LoadBalancedPartitioning l = new LoadBalancedPartitioning(10);
+        List<Instance> parts = l.split(params, i);
+        Assert.assertEquals(parts.size(), 4);
+    }
+}
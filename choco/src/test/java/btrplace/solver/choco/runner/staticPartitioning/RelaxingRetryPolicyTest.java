@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2013 University of Nice Sophia-Antipolis
+ *
+ * This file is part of btrplace.
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package btrplace.solver.choco.runner.staticPartitioning;
+
+import btrplace.solver.choco.ChocoReconfigurationAlgorithmParams;
+import btrplace.solver.choco.DefaultChocoReconfigurationAlgorithmParams;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Unit tests for {@link RelaxingRetryPolicy}.
+ *
+ * @author Fabien Hermenier
+ */
+public class RelaxingRetryPolicyTest {
+
+    @Test
+    public void testGetsAndSets() {
+        RelaxingRetryPolicy r = new RelaxingRetryPolicy(3);
+        Assert.assertEquals(r.getMaxRetries(), 3);
+        Assert.assertEquals(r.getTimeLimitFactor(), RelaxingRetryPolicy.DEFAULT_TIME_LIMIT_FACTOR);
+        Assert.assertTrue(r.disableRepair());
+        Assert.assertSame(r.setTimeLimitFactor(1.5), r);
+        Assert.assertEquals(r.getTimeLimitFactor(), 1.5);
+        Assert.assertSame(r.disableRepair(false), r);
+        Assert.assertFalse(r.disableRepair());
+    }
+
+    @Test
+    public void testRetry() {
+        ChocoReconfigurationAlgorithmParams ps = new DefaultChocoReconfigurationAlgorithmParams();
+        ps.doRepair(true).setTimeLimit(10);
+        ps.doOptimize(true);
+        RelaxingRetryPolicy r = new RelaxingRetryPolicy(2);
+        ChocoReconfigurationAlgorithmParams p1 = r.retry(ps, 1);
+        Assert.assertNotSame(p1, ps);
+        Assert.assertFalse(p1.doRepair());
+        Assert.assertTrue(p1.doOptimize());
+        Assert.assertEquals(p1.getTimeLimit(), 20);
+        //The original parameters are left unchanged
+        Assert.assertTrue(ps.doRepair());
+        Assert.assertEquals(ps.getTimeLimit(), 10);
+
+        ChocoReconfigurationAlgorithmParams p2 = r.retry(p1, 2);
+        Assert.assertEquals(p2.getTimeLimit(), 40);
+        Assert.assertNull(r.retry(p2, 3));
+
+        //No time limit
+        ps.setTimeLimit(0);
+        r.disableRepair(false);
+        p1 = r.retry(ps, 1);
+        Assert.assertEquals(p1.getTimeLimit(), 0);
+        Assert.assertTrue(p1.doRepair());
+    }
+}
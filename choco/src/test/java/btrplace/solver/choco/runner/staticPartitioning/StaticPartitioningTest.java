@@ -26,13 +26,22 @@ import btrplace.plan.ReconfigurationPlan;
 import btrplace.solver.SolverException;
 import btrplace.solver.choco.ChocoReconfigurationAlgorithmParams;
 import btrplace.solver.choco.DefaultChocoReconfigurationAlgorithm;
+import btrplace.solver.choco.DefaultChocoReconfigurationAlgorithmParams;
 import btrplace.solver.choco.runner.InstanceResult;
+import btrplace.solver.choco.runner.WorkersPool;
 import org.testng.Assert;
 import org.testng.annotations.Test;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Unit tests for {@link StaticPartitioning}.
@@ -102,6 +111,248 @@ public class StaticPartitioningTest {
         res = st.solve(p, i0);
         Assert.assertNull(res.getPlan());
         Assert.assertEquals(res.getStatistics().getSolutions().size(), 0);
+        Assert.assertEquals(((StaticPartitioningStatistics) res.getStatistics()).getNbRetries(), 0);
+
+        //Only the failing partition is retried, until the policy gives up
+        final int[] attempts = new int[1];
+        st.setRetryPolicy(new PartitionRetryPolicy() {
+            @Override
+            public ChocoReconfigurationAlgorithmParams retry(ChocoReconfigurationAlgorithmParams ps, int attempt) {
+                Assert.assertEquals(attempt, attempts[0] + 1);
+                attempts[0]++;
+                return attempt <= 2 ? new DefaultChocoReconfigurationAlgorithmParams(ps) : null;
+            }
+        });
+        Assert.assertNotNull(st.getRetryPolicy());
+        res = st.solve(p, i0);
+        Assert.assertNull(res.getPlan());
+        Assert.assertEquals(attempts[0], 3);
+        StaticPartitioningStatistics stats = (StaticPartitioningStatistics) res.getStatistics();
+        Assert.assertEquals(stats.getNbRetries(), 2);
+        Assert.assertTrue(stats.getRetriesDuration() >= 0);
+    }
+
+    @Test
+    public void testAsyncSolve() throws Exception {
+        Model origin = new DefaultModel();
+        for (int i = 0; i < 4; i++) {
+            Node n = origin.newNode();
+            origin.getMapping().addOnlineNode(n);
+            origin.getMapping().addRunningVM(origin.newVM(), n);
+        }
+        origin.getMapping().addReadyVM(origin.newVM());
+        Instance i0 = new Instance(origin, new MinMTTR());
+        i0.getSatConstraints().add(new Running(origin.getMapping().getReadyVMs()));
+
+        FixedSizePartitioning st = new FixedSizePartitioning(1);
+        final List<InstanceResult> partials = Collections.synchronizedList(new ArrayList<InstanceResult>());
+        Future<InstanceResult> f = st.solveAsync(new DefaultChocoReconfigurationAlgorithm(), i0, new PartitionListener() {
+            @Override
+            public void partitionSolved(Instance partition, InstanceResult res) {
+                Assert.assertNotNull(partition);
+                Assert.assertNotNull(res.getPlan());
+                partials.add(res);
+            }
+        });
+        InstanceResult res = f.get();
+        Assert.assertEquals(partials.size(), 4);
+        int nbActions = 0;
+        for (InstanceResult r : partials) {
+            nbActions += r.getPlan().getSize();
+        }
+        Assert.assertEquals(res.getPlan().getSize(), nbActions);
+        Assert.assertEquals(res.getPlan().getSize(), 1);
+    }
+
+    /**
+     * The retries must not go beyond the time limit of the whole solving process.
+     */
+    @Test
+    public void testRetriesWithinTimeLimit() throws SolverException {
+        Model origin = new DefaultModel();
+        Node n = origin.newNode();
+        origin.getMapping().addOnlineNode(n);
+        origin.getMapping().addRunningVM(origin.newVM(), n);
+        Instance i0 = new Instance(origin, new MinMTTR());
+        i0.getSatConstraints().add(new Running(origin.getMapping().getAllVMs()));
+        i0.getSatConstraints().add(new Offline(Collections.singleton(n)));
+
+        final List<Integer> limits = Collections.synchronizedList(new ArrayList<Integer>());
+        FixedSizePartitioning st = new FixedSizePartitioning(1);
+        st.setRetryPolicy(new PartitionRetryPolicy() {
+            @Override
+            public ChocoReconfigurationAlgorithmParams retry(ChocoReconfigurationAlgorithmParams ps, int attempt) {
+                if (attempt > 1) {
+                    limits.add(ps.getTimeLimit());
+                }
+                return new DefaultChocoReconfigurationAlgorithmParams(ps).setTimeLimit(100);
+            }
+        });
+        ChocoReconfigurationAlgorithmParams p = new DefaultChocoReconfigurationAlgorithm();
+        p.setTimeLimit(2);
+        long st0 = System.currentTimeMillis();
+        InstanceResult res = st.solve(p, i0);
+        Assert.assertNull(res.getPlan());
+        Assert.assertTrue(System.currentTimeMillis() - st0 < 10000);
+        Assert.assertFalse(limits.isEmpty());
+        for (int l : limits) {
+            Assert.assertTrue(l >= 1 && l <= 2, "Time limit: " + l);
+        }
+    }
+
+    /**
+     * The partition has no solution and is retried forever.
+     * Only a cancellation can stop the solving process.
+     */
+    @Test
+    public void testCancelAsyncSolve() throws Exception {
+        Model origin = new DefaultModel();
+        Node n = origin.newNode();
+        origin.getMapping().addOnlineNode(n);
+        origin.getMapping().addRunningVM(origin.newVM(), n);
+        Instance i0 = new Instance(origin, new MinMTTR());
+        i0.getSatConstraints().add(new Running(origin.getMapping().getAllVMs()));
+        i0.getSatConstraints().add(new Offline(Collections.singleton(n)));
+
+        FixedSizePartitioning st = new FixedSizePartitioning(1);
+        st.setRetryPolicy(new PartitionRetryPolicy() {
+            @Override
+            public ChocoReconfigurationAlgorithmParams retry(ChocoReconfigurationAlgorithmParams ps, int attempt) {
+                return ps;
+            }
+        });
+        WorkersPool pool = new WorkersPool(2);
+        st.setWorkersPool(pool);
+        try {
+            Future<InstanceResult> f = st.solveAsync(new DefaultChocoReconfigurationAlgorithm(), i0, null);
+            Thread.sleep(500);
+            //The partition is being solved on the pool
+            Assert.assertTrue(pool.getActiveWorkers() >= 1);
+            Assert.assertTrue(f.cancel(true));
+            Assert.assertTrue(f.isCancelled());
+            long limit = System.currentTimeMillis() + 5000;
+            while (pool.getActiveWorkers() > 0 && System.currentTimeMillis() < limit) {
+                Thread.sleep(50);
+            }
+            Assert.assertEquals(pool.getActiveWorkers(), 0);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Several solving processes share a small pool.
+     * Their coordinators must not take the workers the partitions need.
+     */
+    @Test
+    public void testConcurrentAsyncSolves() throws Exception {
+        Model origin = new DefaultModel();
+        for (int x = 0; x < 4; x++) {
+            Node n = origin.newNode();
+            origin.getMapping().addOnlineNode(n);
+            origin.getMapping().addRunningVM(origin.newVM(), n);
+        }
+        Instance i0 = new Instance(origin, new MinMTTR());
+        WorkersPool pool = new WorkersPool(2);
+        try {
+            List<Future<InstanceResult>> futures = new ArrayList<>();
+            for (int x = 0; x < 4; x++) {
+                FixedSizePartitioning st = new FixedSizePartitioning(2);
+                st.setWorkersPool(pool);
+                futures.add(st.solveAsync(new DefaultChocoReconfigurationAlgorithm(), i0, null));
+            }
+            for (Future<InstanceResult> f : futures) {
+                Assert.assertNotNull(f.get(30, TimeUnit.SECONDS).getPlan());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void testWithWorkersPool() throws SolverException {
+        Model origin = new DefaultModel();
+        Node n1 = origin.newNode();
+        Node n2 = origin.newNode();
+        origin.getMapping().addOnlineNode(n1);
+        origin.getMapping().addOnlineNode(n2);
+        origin.getMapping().addRunningVM(origin.newVM(), n1);
+        origin.getMapping().addRunningVM(origin.newVM(), n2);
+        Instance i0 = new Instance(origin, new MinMTTR());
+
+        FixedSizePartitioning st = new FixedSizePartitioning(1);
+        Assert.assertNull(st.getWorkersPool());
+        WorkersPool pool = new WorkersPool(2);
+        st.setWorkersPool(pool);
+        Assert.assertEquals(st.getWorkersPool(), pool);
+
+        ChocoReconfigurationAlgorithmParams p = new DefaultChocoReconfigurationAlgorithm();
+        for (int x = 0; x < 3; x++) {
+            InstanceResult res = st.solve(p, i0);
+            Assert.assertNotNull(res.getPlan());
+            Assert.assertEquals(((StaticPartitioningStatistics) res.getStatistics()).getNbWorkers(), 2);
+            //The pool is re-used
+            Assert.assertFalse(pool.isShutdown());
+        }
+        Assert.assertEquals(pool.getRejectedTasks(), 0);
+
+        //The pool can be provided through the parameters
+        st.setWorkersPool(null);
+        WorkersPool other = new WorkersPool(3);
+        p.setWorkersPool(other);
+        InstanceResult res = st.solve(p, i0);
+        Assert.assertNotNull(res.getPlan());
+        Assert.assertEquals(((StaticPartitioningStatistics) res.getStatistics()).getNbWorkers(), 3);
+
+        //A shutdown pool cannot be used
+        other.shutdown();
+        try {
+            st.solve(p, i0);
+            Assert.fail("A shutdown pool must not be used");
+        } catch (SolverException ex) {
+            Assert.assertEquals(other.getRejectedTasks(), 1);
+        }
+        pool.shutdown();
+    }
+
+    /**
+     * The pool has a single worker that is busy and can only queue 2 tasks
+     * so the third partition is rejected.
+     * The partitions already submitted must be cancelled and removed from the pool.
+     */
+    @Test
+    public void testRejectedPartition() throws Exception {
+        Model origin = new DefaultModel();
+        for (int x = 0; x < 4; x++) {
+            Node n = origin.newNode();
+            origin.getMapping().addOnlineNode(n);
+            origin.getMapping().addRunningVM(origin.newVM(), n);
+        }
+        Instance i0 = new Instance(origin, new MinMTTR());
+
+        final CountDownLatch release = new CountDownLatch(1);
+        WorkersPool pool = new WorkersPool(1, 2, Executors.defaultThreadFactory());
+        try {
+            pool.getExecutorService().submit(new Callable<Object>() {
+                @Override
+                public Object call() throws InterruptedException {
+                    release.await();
+                    return null;
+                }
+            });
+            FixedSizePartitioning st = new FixedSizePartitioning(1);
+            st.setWorkersPool(pool);
+            try {
+                st.solve(new DefaultChocoReconfigurationAlgorithm(), i0);
+                Assert.fail("The third partition must be rejected");
+            } catch (SolverException ex) {
+                Assert.assertEquals(pool.getRejectedTasks(), 1);
+                Assert.assertTrue(((ThreadPoolExecutor) pool.getExecutorService()).getQueue().isEmpty());
+            }
+        } finally {
+            release.countDown();
+            pool.shutdown();
+        }
     }
 
     @Test(expectedExceptions = {SolverException.class})